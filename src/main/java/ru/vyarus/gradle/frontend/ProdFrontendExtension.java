@@ -2,6 +2,8 @@ package ru.vyarus.gradle.frontend;
 
 import org.gradle.api.Action;
 import org.gradle.api.tasks.Nested;
+import ru.vyarus.gradle.frontend.core.OptimizationFlow;
+import ru.vyarus.gradle.frontend.core.util.compress.CompressionPolicy;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -26,6 +28,12 @@ public class ProdFrontendExtension {
      */
     private String sourceDir = "build/webapp";
 
+    /**
+     * Directory for optimized files (source directory is not modified). When not set, files are optimized directly
+     * inside source directory.
+     */
+    private String outputDir;
+
     /**
      * Directory name for loaded js files (inside source dir).
      */
@@ -41,6 +49,12 @@ public class ProdFrontendExtension {
      */
     private List<String> htmlExtensions = new ArrayList<>(Arrays.asList("html", "htm"));
 
+    /**
+     * File extensions (from html extensions) to process with lightweight streaming tag scanner instead of html
+     * parser (no document tree building). Useful for templates.
+     */
+    private List<String> scanExtensions = new ArrayList<>();
+
     /**
      * Ignore processing for local resources (globs). Might also affect downloaded resource to prevent further
      * processing.
@@ -92,6 +106,77 @@ public class ProdFrontendExtension {
      */
     private boolean gzip = true;
 
+    /**
+     * Gzip compression level (1-9).
+     */
+    private int gzipLevel = 9;
+
+    /**
+     * Gzip mode: "default" or "zopfli" (exhaustive deflate: smaller files, but much slower compression).
+     */
+    private String gzipMode = OptimizationFlow.Settings.GZIP_DEFAULT;
+
+    /**
+     * Zopfli optimization iterations (only for zopfli gzip mode).
+     */
+    private int zopfliIterations = OptimizationFlow.Settings.DEFAULT_ZOPFLI_ITERATIONS;
+
+    /**
+     * File extensions or mime types (e.g. "image/png" or "video/*") to avoid precompression for (already
+     * compressed formats).
+     */
+    private List<String> compressSkip = new ArrayList<>(CompressionPolicy.DEFAULT_SKIP);
+
+    /**
+     * Minimal file size (bytes) for precompression.
+     */
+    private int compressMinSize;
+
+    /**
+     * Minimal size decrease (percent) to keep precompressed file (0 to keep all).
+     */
+    private int compressMinSavings;
+
+    /**
+     * Create ".br" versions for all resources.
+     */
+    private boolean brotli;
+
+    /**
+     * Brotli compression level (0-11).
+     */
+    private int brotliLevel = 11;
+
+    /**
+     * Create ".zst" versions for all resources.
+     */
+    private boolean zstd;
+
+    /**
+     * Zstd compression level (1-22).
+     */
+    private int zstdLevel = 19;
+
+    /**
+     * Number of html pages processed in parallel (1 for sequential processing).
+     */
+    private int parallelism = 1;
+
+    /**
+     * Number of html pages, processed together in streaming mode (0 to disable streaming mode).
+     */
+    private int streamingWindow;
+
+    /**
+     * Run optimization in the separate worker process (gradle worker API process isolation).
+     */
+    private boolean processIsolation;
+
+    /**
+     * Maximum heap size of worker process (only for process isolation), e.g. "512m".
+     */
+    private String workerHeapSize;
+
     /**
      * @return true to show extra logs
      */
@@ -120,6 +205,23 @@ public class ProdFrontendExtension {
         this.sourceDir = sourceDir;
     }
 
+    /**
+     * @return directory for optimized files or null (in-place optimization)
+     */
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * Source directory is copied into output directory and optimized there. Task becomes cacheable (could be
+     * up-to-date) only when output directory is configured.
+     *
+     * @param outputDir directory for optimized files (null for in-place optimization)
+     */
+    public void setOutputDir(final String outputDir) {
+        this.outputDir = outputDir;
+    }
+
     /**
      * @return directory name for downloaded js files
      */
@@ -162,6 +264,23 @@ public class ProdFrontendExtension {
         this.htmlExtensions = htmlExtensions;
     }
 
+    /**
+     * @return extensions of files to process with streaming tag scanner
+     */
+    public List<String> getScanExtensions() {
+        return scanExtensions;
+    }
+
+    /**
+     * Streaming scanner only detects resource tags (with exact positions), without full html document parsing,
+     * which is much faster and requires less memory for large templates (jsp, freemarker etc.).
+     *
+     * @param scanExtensions extensions of files to process with streaming tag scanner instead of html parser
+     */
+    public void setScanExtensions(final List<String> scanExtensions) {
+        this.scanExtensions = scanExtensions;
+    }
+
     /**
      * @return globs for ignored files (html and linked resources)
      */
@@ -217,6 +336,152 @@ public class ProdFrontendExtension {
         this.gzip = gzip;
     }
 
+    /**
+     * @return gzip compression level
+     */
+    public int getGzipLevel() {
+        return gzipLevel;
+    }
+
+    /**
+     * @param gzipLevel gzip compression level (1-9)
+     */
+    public void setGzipLevel(final int gzipLevel) {
+        this.gzipLevel = gzipLevel;
+    }
+
+    /**
+     * @return gzip mode
+     */
+    public String getGzipMode() {
+        return gzipMode;
+    }
+
+    /**
+     * Zopfli mode produces 3-8% smaller gzip files (decodable by all browsers), but compression is much slower
+     * (use parallelism to compress files in parallel). Gzip level is ignored in zopfli mode.
+     *
+     * @param gzipMode "default" or "zopfli"
+     */
+    public void setGzipMode(final String gzipMode) {
+        this.gzipMode = gzipMode;
+    }
+
+    /**
+     * @return zopfli optimization iterations
+     */
+    public int getZopfliIterations() {
+        return zopfliIterations;
+    }
+
+    /**
+     * @param zopfliIterations zopfli optimization iterations (more iterations - slightly smaller files)
+     */
+    public void setZopfliIterations(final int zopfliIterations) {
+        this.zopfliIterations = zopfliIterations;
+    }
+
+    /**
+     * @return file extensions or mime types to avoid precompression for
+     */
+    public List<String> getCompressSkip() {
+        return compressSkip;
+    }
+
+    /**
+     * By default, already compressed formats are skipped: woff, woff2, png, jpg, jpeg, gif, webp, avif, zip, gz,
+     * br, zst, video/*, audio/*.
+     *
+     * @param compressSkip file extensions or mime types to avoid precompression for
+     */
+    public void setCompressSkip(final List<String> compressSkip) {
+        this.compressSkip = compressSkip;
+    }
+
+    /**
+     * @return minimal file size (bytes) for precompression
+     */
+    public int getCompressMinSize() {
+        return compressMinSize;
+    }
+
+    /**
+     * @param compressMinSize minimal file size (bytes) for precompression (0 to compress all files)
+     */
+    public void setCompressMinSize(final int compressMinSize) {
+        this.compressMinSize = compressMinSize;
+    }
+
+    /**
+     * @return minimal size decrease (percent) to keep precompressed file
+     */
+    public int getCompressMinSavings() {
+        return compressMinSavings;
+    }
+
+    /**
+     * @param compressMinSavings minimal size decrease (percent) to keep precompressed file (0 to keep all)
+     */
+    public void setCompressMinSavings(final int compressMinSavings) {
+        this.compressMinSavings = compressMinSavings;
+    }
+
+    /**
+     * @return true to create .br files for all resources
+     */
+    public boolean isBrotli() {
+        return brotli;
+    }
+
+    /**
+     * @param brotli true to create .br files for all resources
+     */
+    public void setBrotli(final boolean brotli) {
+        this.brotli = brotli;
+    }
+
+    /**
+     * @return brotli compression level
+     */
+    public int getBrotliLevel() {
+        return brotliLevel;
+    }
+
+    /**
+     * @param brotliLevel brotli compression level (0-11)
+     */
+    public void setBrotliLevel(final int brotliLevel) {
+        this.brotliLevel = brotliLevel;
+    }
+
+    /**
+     * @return true to create .zst files for all resources
+     */
+    public boolean isZstd() {
+        return zstd;
+    }
+
+    /**
+     * @param zstd true to create .zst files for all resources
+     */
+    public void setZstd(final boolean zstd) {
+        this.zstd = zstd;
+    }
+
+    /**
+     * @return zstd compression level
+     */
+    public int getZstdLevel() {
+        return zstdLevel;
+    }
+
+    /**
+     * @param zstdLevel zstd compression level (1-22)
+     */
+    public void setZstdLevel(final int zstdLevel) {
+        this.zstdLevel = zstdLevel;
+    }
+
     /**
      * @return true to apply MD5 hashes into all file urls (inside html and css)
      */
@@ -247,6 +512,73 @@ public class ProdFrontendExtension {
         this.applyIntegrity = applyIntegrity;
     }
 
+    /**
+     * @return number of html pages processed in parallel
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Multiple html pages could be optimized in parallel (for large sites). Resources, shared by multiple pages,
+     * are processed safely. Console logs order might change, but final result does not depend on parallelism.
+     *
+     * @param parallelism number of html pages processed in parallel (1 for sequential processing)
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return number of html pages processed together in streaming mode (0 when disabled)
+     */
+    public int getStreamingWindow() {
+        return streamingWindow;
+    }
+
+    /**
+     * Streaming mode for very large sites: pages are parsed and processed by windows and parsed documents released
+     * just after page processing, so memory consumption does not depend on site size. Result does not depend on
+     * window size.
+     *
+     * @param streamingWindow number of html pages processed together (0 to disable streaming mode)
+     */
+    public void setStreamingWindow(final int streamingWindow) {
+        this.streamingWindow = streamingWindow;
+    }
+
+    /**
+     * @return true to run optimization in the separate worker process
+     */
+    public boolean isProcessIsolation() {
+        return processIsolation;
+    }
+
+    /**
+     * Optimization is always executed with gradle worker API. By default, inside gradle daemon, but it could be
+     * executed in the separate worker process: worker processes are re-used between builds (so warmed minifiers
+     * are also re-used) and gradle daemon heap is not affected by large minifications.
+     *
+     * @param processIsolation true to run optimization in the separate worker process
+     */
+    public void setProcessIsolation(final boolean processIsolation) {
+        this.processIsolation = processIsolation;
+    }
+
+    /**
+     * @return maximum heap size of worker process or null for gradle default
+     */
+    public String getWorkerHeapSize() {
+        return workerHeapSize;
+    }
+
+    /**
+     * @param workerHeapSize maximum heap size of worker process (e.g. "512m"), used only with process isolation
+     */
+    public void setWorkerHeapSize(final String workerHeapSize) {
+        this.workerHeapSize = workerHeapSize;
+    }
+
     @SuppressWarnings("PMD.SystemPrintln")
     private static void overwriteList(final List<String> source, final List<String> target, final String err) {
         if (!source.isEmpty()) {
@@ -284,6 +616,16 @@ public class ProdFrontendExtension {
          */
         private final List<String> ignore = new ArrayList<>();
 
+        /**
+         * Maximum number of simultaneous downloads from the same host.
+         */
+        private int concurrency = 6;
+
+        /**
+         * Store downloaded files in persistent cache (inside gradle user home) to avoid downloading on each build.
+         */
+        private boolean cache = true;
+
         /**
          * @return true to download remote js and css links (e.g. cdn links)
          */
@@ -349,6 +691,41 @@ public class ProdFrontendExtension {
         public void ignore(final String... regex) {
             ignore.addAll(Arrays.asList(regex));
         }
+
+        /**
+         * @return maximum number of simultaneous downloads from the same host
+         */
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        /**
+         * Downloads use shared http client (with connections re-use and HTTP/2 multiplexing). Multiple resources
+         * could be downloaded at the same time (for parallel processing or source map sources), but requests to the
+         * same host are limited (to avoid CDN throttling).
+         *
+         * @param concurrency maximum number of simultaneous downloads from the same host
+         */
+        public void setConcurrency(final int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        /**
+         * @return true to use persistent downloads cache
+         */
+        public boolean isCache() {
+            return cache;
+        }
+
+        /**
+         * Downloaded files (resources, source maps, fonts) are stored in "caches/prod-frontend" directory inside
+         * gradle user home and re-used by all builds (cdn links are usually versioned and so immutable).
+         *
+         * @param cache true to use persistent downloads cache
+         */
+        public void setCache(final boolean cache) {
+            this.cache = cache;
+        }
     }
 
     /**
@@ -391,6 +768,12 @@ public class ProdFrontendExtension {
          */
         private final List<String> ignore = new ArrayList<>();
 
+        /**
+         * Store minification results in persistent cache (inside gradle user home) to avoid minification of not
+         * changed files on each build.
+         */
+        private boolean cache = true;
+
         /**
          * @return true to minify html
          */
@@ -497,5 +880,22 @@ public class ProdFrontendExtension {
         public void ignore(final String... globs) {
             ignore.addAll(Arrays.asList(globs));
         }
+
+        /**
+         * @return true to use persistent minification results cache
+         */
+        public boolean isCache() {
+            return cache;
+        }
+
+        /**
+         * Minified js and css files (and source maps) are stored in "caches/prod-frontend" directory inside
+         * gradle user home and re-used when the same file (same content) is minified again.
+         *
+         * @param cache true to use persistent minification results cache
+         */
+        public void setCache(final boolean cache) {
+            this.cache = cache;
+        }
     }
 }
@@ -2,8 +2,12 @@ package ru.vyarus.gradle.frontend;
 
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import ru.vyarus.gradle.frontend.task.OptimizationBuildService;
 import ru.vyarus.gradle.frontend.task.OptimizeFrontendTask;
 
+import java.io.File;
+
 /**
  * Production frontend plugin. Plugin detects all html files and optimize them and related resources.
  * <p>
@@ -35,7 +39,8 @@ import ru.vyarus.gradle.frontend.task.OptimizeFrontendTask;
  *     <li>Applies integrity attributes to prevent malicious resources modification</li>
  *     <li>Embed original sources for loaded or generated source maps </li>
  *     <li>Generate gzip versions for all resources (.gz files) to see gzip size and avoid runtime gzip generation
- *      (http server must be configured to serve prepared gz files).</li>
+ *      (http server must be configured to serve prepared gz files). Optionally, brotli (.br) and zstd (.zst)
+ *      versions could be also generated.</li>
  * </ul>
  * <p>
  * Plugin updates files directly inside specified directory. Re-runs on already processed directory would not harm.
@@ -66,12 +71,32 @@ public class ProdFrontendPlugin implements Plugin<Project> {
         final ProdFrontendExtension extension = project.getExtensions().create("prodFrontend",
                 ProdFrontendExtension.class);
 
+        // persistent caches shared by all builds
+        final File cacheDir = new File(project.getGradle().getGradleUserHomeDir(), "caches/prod-frontend");
+        // caches and minifier engines shared by all optimization tasks in build
+        final Provider<OptimizationBuildService> service = project.getGradle().getSharedServices()
+                .registerIfAbsent("prodFrontendServices", OptimizationBuildService.class, spec -> {
+                    final Object max = project.findProperty(OptimizationBuildService.MAX_PARALLEL_TASKS);
+                    spec.getMaxParallelUsages().set(max == null
+                            ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(max.toString()));
+                });
+
         project.getTasks().register("prodFrontend", OptimizeFrontendTask.class, task -> {
+            task.getBuildService().set(service);
+            task.usesService(service);
             task.getDebug().convention(extension.isDebug());
             task.getSourceDir().convention(project.getLayout().getProjectDirectory().dir(extension.getSourceDir()));
+            if (extension.getOutputDir() != null) {
+                task.getOutputDir().convention(project.getLayout().getProjectDirectory()
+                        .dir(extension.getOutputDir()));
+            }
+            // incremental processing state (only for output directory mode)
+            task.getStateFile().convention(task.getOutputDir().flatMap(dir -> project.getLayout()
+                    .getBuildDirectory().file("prod-frontend/" + task.getName() + "-state.json")));
             task.getJsDir().convention(extension.getJsDir());
             task.getCssDir().convention(extension.getCssDir());
             task.getHtmlExtensions().convention(extension.getHtmlExtensions());
+            task.getScanExtensions().convention(extension.getScanExtensions());
             task.getIgnore().convention(extension.getIgnore());
 
             final ProdFrontendExtension.Download download = extension.getDownload();
@@ -79,6 +104,9 @@ public class ProdFrontendPlugin implements Plugin<Project> {
             task.getPreferMinDownload().convention(download.isPreferMin());
             task.getDownloadSourceMaps().convention(download.isSourceMaps());
             task.getDownloadIgnore().convention(download.getIgnore());
+            task.getDownloadConcurrency().convention(download.getConcurrency());
+            task.getDownloadCache().convention(download.isCache());
+            task.getCacheDir().convention(project.getLayout().dir(project.provider(() -> cacheDir)));
 
             final ProdFrontendExtension.Minify minify = extension.getMinify();
             task.getMinifyHtml().convention(minify.isHtml());
@@ -88,10 +116,27 @@ public class ProdFrontendPlugin implements Plugin<Project> {
             task.getMinifyHtmlCss().convention(minify.isHtmlJs());
             task.getGenerateSourceMaps().convention(minify.isGenerateSourceMaps());
             task.getMinifyIgnore().convention(minify.getIgnore());
+            task.getMinifyCache().convention(minify.isCache());
 
             task.getApplyAntiCache().convention(extension.isApplyAntiCache());
             task.getApplyIntegrity().convention(extension.isApplyIntegrity());
             task.getGzip().convention(extension.isGzip());
+            task.getGzipLevel().convention(extension.getGzipLevel());
+            task.getGzipMode().convention(extension.getGzipMode());
+            task.getZopfliIterations().convention(extension.getZopfliIterations());
+            task.getCompressSkip().convention(extension.getCompressSkip());
+            task.getCompressMinSize().convention(extension.getCompressMinSize());
+            task.getCompressMinSavings().convention(extension.getCompressMinSavings());
+            task.getBrotli().convention(extension.isBrotli());
+            task.getBrotliLevel().convention(extension.getBrotliLevel());
+            task.getZstd().convention(extension.isZstd());
+            task.getZstdLevel().convention(extension.getZstdLevel());
+            task.getParallelism().convention(extension.getParallelism());
+            task.getStreamingWindow().convention(extension.getStreamingWindow());
+            task.getProcessIsolation().convention(extension.isProcessIsolation());
+            if (extension.getWorkerHeapSize() != null) {
+                task.getWorkerHeapSize().convention(extension.getWorkerHeapSize());
+            }
         });
     }
 }
@@ -0,0 +1,284 @@
+package ru.vyarus.gradle.frontend.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.vyarus.gradle.frontend.core.model.HtmlPage;
+import ru.vyarus.gradle.frontend.core.model.root.CssResource;
+import ru.vyarus.gradle.frontend.core.model.root.RootResource;
+import ru.vyarus.gradle.frontend.core.model.root.sub.CssSubResource;
+import ru.vyarus.gradle.frontend.core.util.Fingerprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Incremental processing state: for each processed html page stores all local source files, used by page
+ * (the page itself, resources, source maps, css sub resources) with their content hashes (MD5) and all files,
+ * produced by page processing (optimized page and resources, source maps, compressed files). Paths are relative
+ * to source directory (the same paths inside output directory).
+ * <p>
+ * On the next execution, only changed pages and pages, referencing changed files, are processed again. Files
+ * with the same content (e.g. only modification date changed) are not considered changed. Outputs, not produced
+ * anymore (by re-processed or removed pages), are removed from output directory.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public class IncrementalState {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int VERSION = 2;
+    private static final String VERSION_PROP = "version";
+    private static final String PAGES_PROP = "pages";
+    private static final String SOURCES_PROP = "sources";
+    private static final String OUTPUTS_PROP = "outputs";
+
+    // sorted to produce stable file
+    private final Map<String, PageState> pages = new TreeMap<>();
+    // outputs of removed or re-processed pages (could become stale)
+    private final Set<String> previousOutputs = new HashSet<>();
+
+    /**
+     * Load state file.
+     *
+     * @param file state file
+     * @return loaded state or null if file not exists or can't be read (full processing required)
+     */
+    public static IncrementalState load(final File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            final JsonNode root = MAPPER.readTree(file);
+            if (root.path(VERSION_PROP).asInt() != VERSION) {
+                return null;
+            }
+            final IncrementalState res = new IncrementalState();
+            final Iterator<Map.Entry<String, JsonNode>> it = root.path(PAGES_PROP).fields();
+            while (it.hasNext()) {
+                final Map.Entry<String, JsonNode> page = it.next();
+                final PageState state = new PageState();
+                final Iterator<Map.Entry<String, JsonNode>> sources = page.getValue().path(SOURCES_PROP).fields();
+                while (sources.hasNext()) {
+                    final Map.Entry<String, JsonNode> source = sources.next();
+                    state.sources.put(source.getKey(), source.getValue().asText());
+                }
+                page.getValue().path(OUTPUTS_PROP).forEach(node -> state.outputs.add(node.asText()));
+                res.pages.put(page.getKey(), state);
+            }
+            return res;
+        } catch (IOException ex) {
+            System.out.println("WARNING: failed to read incremental state " + file.getAbsolutePath() + ": "
+                    + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return processed pages (relative paths)
+     */
+    public Set<String> getPages() {
+        return Collections.unmodifiableSet(pages.keySet());
+    }
+
+    /**
+     * @param page page path
+     * @return source files used by page, including page itself (relative paths)
+     */
+    public Set<String> getSources(final String page) {
+        final PageState state = pages.get(page);
+        return state == null ? Collections.emptySet() : Collections.unmodifiableSet(state.sources.keySet());
+    }
+
+    /**
+     * @param page page path
+     * @return files, produced by page processing (relative paths)
+     */
+    public Set<String> getOutputs(final String page) {
+        final PageState state = pages.get(page);
+        return state == null ? Collections.emptySet() : Collections.unmodifiableSet(state.outputs);
+    }
+
+    /**
+     * Check if tracked file content differs from the content, used for the previous processing.
+     *
+     * @param path source file path (relative)
+     * @param file source file
+     * @return true if file is not tracked or its content changed
+     */
+    public boolean isModified(final String path, final File file) {
+        String hash = null;
+        for (PageState state : pages.values()) {
+            hash = state.sources.get(path);
+            if (hash != null) {
+                break;
+            }
+        }
+        return hash == null || !hash.equals(new Fingerprint(file, Fingerprint.MD5).md5());
+    }
+
+    /**
+     * @param changed changed files (relative paths)
+     * @return pages, which must be processed again (changed or referencing changed files)
+     */
+    public Set<String> findAffected(final Collection<String> changed) {
+        final Set<String> res = new LinkedHashSet<>();
+        pages.forEach((page, state) -> {
+            if (changed.contains(page) || state.sources.keySet().stream().anyMatch(changed::contains)) {
+                res.add(page);
+            }
+        });
+        return res;
+    }
+
+    /**
+     * @param page removed page path
+     */
+    public void remove(final String page) {
+        final PageState state = pages.remove(page);
+        if (state != null) {
+            previousOutputs.addAll(state.outputs);
+        }
+    }
+
+    /**
+     * Record page sources (with content hashes) and produced outputs (after processing).
+     *
+     * @param html      processed page
+     * @param baseDir   base directory (where page was processed)
+     * @param sourceDir source directory (to compute hashes of original files)
+     */
+    public void update(final HtmlPage html, final File baseDir, final File sourceDir) {
+        final Path base = normalize(baseDir);
+        final PageState state = new PageState();
+        final String page = relative(base, html.getFile());
+        addSource(state, page, sourceDir);
+        addOutput(state, base, html.getFile());
+        addOutputs(state, base, html.getCompressed().values());
+        final List<RootResource> resources = new ArrayList<>(html.getJs());
+        resources.addAll(html.getCss());
+        for (RootResource resource : resources) {
+            resource.getSourceFiles().forEach(file -> {
+                if (normalize(file).startsWith(base)) {
+                    addSource(state, relative(base, file), sourceDir);
+                }
+            });
+            addOutput(state, base, resource.getFile());
+            addOutput(state, base, resource.getSourceMap());
+            addOutputs(state, base, resource.getCompressed().values());
+        }
+        for (CssResource css : html.getCss()) {
+            for (CssSubResource sub : css.getSubResources()) {
+                if (!sub.isRemote() && sub.getFile() != null && normalize(sub.getFile()).startsWith(base)) {
+                    addSource(state, relative(base, sub.getFile()), sourceDir);
+                }
+                addOutput(state, base, sub.getFile());
+                addOutputs(state, base, sub.getCompressed().values());
+            }
+        }
+        final PageState previous = pages.put(page, state);
+        if (previous != null) {
+            previousOutputs.addAll(previous.outputs);
+        }
+    }
+
+    /**
+     * Remove outputs of removed and re-processed pages, which are not produced anymore (e.g. minified version of
+     * removed resource). Files, existing in source directory, are never removed (they are copied into output
+     * directory on full processing too).
+     *
+     * @param outputDir output directory
+     * @param sourceDir source directory
+     * @return number of removed files
+     */
+    public int removeStaleOutputs(final File outputDir, final File sourceDir) {
+        final Set<String> actual = new HashSet<>();
+        pages.values().forEach(state -> actual.addAll(state.outputs));
+        int res = 0;
+        for (String path : previousOutputs) {
+            if (!actual.contains(path) && !new File(sourceDir, path).exists()
+                    && org.apache.commons.io.FileUtils.deleteQuietly(new File(outputDir, path))) {
+                res++;
+            }
+        }
+        previousOutputs.clear();
+        return res;
+    }
+
+    /**
+     * Save state into file.
+     *
+     * @param file state file
+     */
+    public void save(final File file) {
+        final Map<String, Object> content = new TreeMap<>();
+        pages.forEach((page, state) -> content.put(page, new TreeMap<>(Map.of(
+                SOURCES_PROP, state.sources, OUTPUTS_PROP, state.outputs))));
+        final Map<String, Object> root = new TreeMap<>(Map.of(VERSION_PROP, VERSION, PAGES_PROP, content));
+        try {
+            if (file.getParentFile() != null && !file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Failed to create directory " + file.getParentFile().getAbsolutePath());
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, root);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to write incremental state " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * @param base base directory (normalized)
+     * @param file file
+     * @return relative path with unix separators
+     */
+    public static String relative(final Path base, final File file) {
+        return base.relativize(normalize(file)).toString().replace('\\', '/');
+    }
+
+    /**
+     * @param file file
+     * @return normalized absolute path
+     */
+    public static Path normalize(final File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private void addSource(final PageState state, final String path, final File sourceDir) {
+        // hash of the original file (output copy would be modified)
+        final File source = new File(sourceDir, path);
+        if (source.exists()) {
+            state.sources.put(path, new Fingerprint(source, Fingerprint.MD5).md5());
+        }
+    }
+
+    private void addOutputs(final PageState state, final Path base, final Collection<File> files) {
+        files.forEach(file -> addOutput(state, base, file));
+    }
+
+    private void addOutput(final PageState state, final Path base, final File file) {
+        // files outside of base directory can't be tracked
+        if (file != null && file.exists() && normalize(file).startsWith(base)) {
+            state.outputs.add(relative(base, file));
+        }
+    }
+
+    /**
+     * Page state: used source files (with hashes) and produced files.
+     */
+    private static class PageState {
+        private final Map<String, String> sources = new TreeMap<>();
+        private final Set<String> outputs = new TreeSet<>();
+    }
+}
@@ -2,15 +2,36 @@ package ru.vyarus.gradle.frontend.core;
 
 import ru.vyarus.gradle.frontend.core.info.OptimizationInfo;
 import ru.vyarus.gradle.frontend.core.model.HtmlPage;
+import ru.vyarus.gradle.frontend.core.model.root.CssResource;
+import ru.vyarus.gradle.frontend.core.model.root.JsResource;
+import ru.vyarus.gradle.frontend.core.model.root.ResourceRegistry;
+import ru.vyarus.gradle.frontend.core.model.root.RootResource;
+import ru.vyarus.gradle.frontend.core.util.DebugReporter;
+import ru.vyarus.gradle.frontend.core.util.DurationFormatter;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.HttpDownloader;
 import ru.vyarus.gradle.frontend.core.util.StatsPrinter;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
+import ru.vyarus.gradle.frontend.core.util.compress.CompressionPolicy;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -46,7 +67,8 @@ import java.util.stream.Collectors;
  *     <li>Applies integrity attributes to prevent malicious resources modification</li>
  *     <li>Embed original sources for loaded or generated source maps </li>
  *     <li>Generate gzip versions for all resources (.gz files) to see gzip size and avoid runtime gzip generation
- *      (http server must be configured to serve prepared gz files).</li>
+ *      (http server must be configured to serve prepared gz files). Optionally, brotli (.br) and zstd (.zst)
+ *      versions could be also generated.</li>
  * </ul>
  * <p>
  * Used tools:
@@ -59,6 +81,21 @@ import java.util.stream.Collectors;
  *     <li><a href="https://github.com/FasterXML/jackson">Source maps manipulation: jackson</a></li>
  * </ul>
  * <p>
+ * Optimization could be performed either step by step (each step applied to all pages before the next step
+ * start) or with {@link #optimize()}, which runs all steps with resource-level scheduling: each resource moves to
+ * the next step as soon as its own inputs are ready (see {@link OptimizationScheduler}). Builder's {@code .run()}
+ * use the latter.
+ * <p>
+ * Html pages could be processed in parallel (see {@link Builder#parallelism(Integer)}). Pages order (and so
+ * report) does not depend on parallelism.
+ * <p>
+ * The same resource, referenced from multiple pages, is processed only once (see {@link ResourceRegistry}): other
+ * pages just use processing results.
+ * <p>
+ * By default, optimization is performed directly inside source directory. When output directory configured
+ * (see {@link Builder#outputDir(File)}), source directory is copied into output directory and all optimizations
+ * are performed on copy (source directory stays unchanged).
+ * <p>
  * Architecture note: instead of separation of data and actions, object approach was used - e.g. html object provides
  * all methods for html manipulation, css and js resource objects provide methods for manipulation on exact resource.
  * {@code .run()} method actually returns all objects as-is: action methods are hidden by interfaces (objects pretend
@@ -67,20 +104,25 @@ import java.util.stream.Collectors;
  * @author Vyacheslav Rusakov
  * @since 30.01.2023
  */
-@SuppressWarnings("PMD.SystemPrintln")
+@SuppressWarnings({"PMD.SystemPrintln", "PMD.GodClass"})
 public final class OptimizationFlow implements OptimizationInfo {
 
     private final Settings settings;
+    private final OptimizationServices services;
     private final List<HtmlPage> htmls = new ArrayList<>();
+    private final ResourceRegistry registry = new ResourceRegistry();
+    // pages to process (incremental processing) or null to process all pages
+    private Set<Path> pages;
 
-    private OptimizationFlow(final Settings settings) {
+    private OptimizationFlow(final Settings settings, final OptimizationServices services) {
         this.settings = settings;
+        this.services = services;
     }
 
     /**
      * After configuration simply call {@code .run()}.
      * <p>
-     * NOTE that optimization performed directly inside directory.
+     * NOTE that optimization performed directly inside directory (unless output directory configured).
      *
      * @param baseDir base directory where to search html files for optimization
      * @return builder for optimization flow configuration
@@ -107,11 +149,101 @@ public final class OptimizationFlow implements OptimizationInfo {
         return settings;
     }
 
+    /**
+     * Prepare output directory (only when output directory configured): output directory cleared and source
+     * directory copied into it. After this, base directory (and js and css dirs) point to output directory.
+     *
+     * @param settings settings
+     * @throws java.lang.IllegalStateException on copy error
+     */
+    private static void prepareOutputDir(final Settings settings) throws IllegalStateException {
+        final File source = settings.getSourceDir();
+        final File output = settings.getOutputDir();
+        final long start = System.currentTimeMillis();
+        try {
+            org.apache.commons.io.FileUtils.deleteDirectory(output);
+            // dates preserved to not break "up to date" checks (e.g. for gzip files)
+            org.apache.commons.io.FileUtils.copyDirectory(source, output);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to copy " + source.getAbsolutePath() + " into "
+                    + output.getAbsolutePath(), ex);
+        }
+        settings.switchToOutputDir();
+        System.out.println("Source directory copied into " + output.getAbsolutePath() + " ("
+                + DurationFormatter.format(System.currentTimeMillis() - start) + ")");
+    }
+
+    /**
+     * Incremental output directory preparation: changed source files are copied into output directory (removed
+     * files are removed from output directory). Files with the same content hash (as recorded in state) are not
+     * considered changed. Pages, affected by changes (changed pages and pages, referencing changed files), are
+     * restored from source directory (together with all used source files) to be processed again. All other pages
+     * are not changed.
+     *
+     * @param settings settings
+     * @param state    previous execution state
+     * @return pages to process (in output directory)
+     */
+    private static Set<Path> prepareIncremental(final Settings settings, final IncrementalState state) {
+        final File source = settings.getSourceDir();
+        final File output = settings.getOutputDir();
+        final long start = System.currentTimeMillis();
+        final Path sourcePath = IncrementalState.normalize(source);
+        final Set<String> changed = new LinkedHashSet<>();
+        for (File file : settings.getChangedFiles()) {
+            if (file.isDirectory()) {
+                continue;
+            }
+            final String path = IncrementalState.relative(sourcePath, file);
+            if (file.exists() && !state.isModified(path, file)) {
+                // the same content (e.g. only modification date changed)
+                continue;
+            }
+            changed.add(path);
+            final File target = new File(output, path);
+            if (file.exists()) {
+                FileUtils.copyFile(file, target);
+            } else {
+                // files, produced from removed file (e.g. minified version), are removed after processing
+                org.apache.commons.io.FileUtils.deleteQuietly(target);
+                for (Compression type : Compression.values()) {
+                    org.apache.commons.io.FileUtils.deleteQuietly(type.getTarget(target));
+                }
+                state.remove(path);
+            }
+        }
+        final Set<String> affected = state.findAffected(changed);
+        // new pages
+        changed.stream().filter(path -> isHtml(settings, path)).forEach(affected::add);
+        affected.removeIf(path -> !new File(source, path).exists());
+        for (String page : affected) {
+            // output files are already optimized
+            final Set<String> restore = new LinkedHashSet<>(state.getSources(page));
+            restore.add(page);
+            restore.stream().map(path -> new File(source, path)).filter(File::exists)
+                    .forEach(file -> FileUtils.copyFile(file, new File(output, IncrementalState
+                            .relative(sourcePath, file))));
+        }
+        settings.switchToOutputDir();
+        System.out.println("Incremental processing: " + changed.size() + " changed files, " + affected.size()
+                + " affected pages (" + DurationFormatter.format(System.currentTimeMillis() - start) + ")");
+        return affected.stream().map(path -> IncrementalState.normalize(new File(output, path)))
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isHtml(final Settings settings, final String path) {
+        final String name = path.toLowerCase();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && settings.getHtmlExtensions().stream()
+                .anyMatch(ext -> ext.equalsIgnoreCase(name.substring(dot + 1)));
+    }
+
     /**
      * Search for html files inside configured directory for further optimization. Searched file extensions could
      * be configured (in order to search templates like freemarker or jsp).
      * <p>
-     * Method will also trigger html parsing and resources resolution (js and css tags detection).
+     * Method will also trigger html parsing and resources resolution (js and css tags detection). In streaming
+     * mode (see {@link Builder#streamingWindow(Integer)}) pages are parsed later, by {@link #optimize()}.
      *
      * @return flow object
      * @throws java.lang.IllegalStateException on processing errors
@@ -120,15 +252,20 @@ public final class OptimizationFlow implements OptimizationInfo {
         final List<File> files = FileUtils.findHtmls(settings.getBaseDir(), settings.getHtmlExtensions()
                 .stream().map(String::toLowerCase).collect(Collectors.toList()));
         for (File file : files) {
+            if (pages != null && !pages.contains(IncrementalState.normalize(file))) {
+                // not affected by changes (incremental processing)
+                continue;
+            }
             if (FileUtils.isIgnored(file, getSettings().getBaseDir(), getSettings().getIgnore())) {
                 System.out.println("Html file ignored: " + FileUtils.relative(getSettings().getBaseDir(), file));
                 // ignored html files are not even registered for simplicity!
             } else {
-                final HtmlPage html = new HtmlPage(settings, file);
-                htmls.add(html);
-                html.findResources();
+                htmls.add(new HtmlPage(settings, services, file));
             }
         }
+        if (!settings.isStreaming()) {
+            parse(htmls);
+        }
         return this;
     }
 
@@ -146,7 +283,10 @@ public final class OptimizationFlow implements OptimizationInfo {
      * @return flow object
      */
     public OptimizationFlow resolveResources() {
-        htmls.forEach(HtmlPage::resolveResources);
+        forEachResource(RootResource.class, RootResource::resolve);
+        if (settings.isDebug()) {
+            htmls.forEach(html -> System.out.println("Resolved: " + DebugReporter.buildReport(html)));
+        }
         return this;
     }
 
@@ -157,7 +297,7 @@ public final class OptimizationFlow implements OptimizationInfo {
      */
     public OptimizationFlow minifyJs() {
         if (settings.isMinifyJs()) {
-            htmls.forEach(HtmlPage::minifyJs);
+            forEachResource(JsResource.class, RootResource::minify);
         }
         return this;
     }
@@ -169,7 +309,7 @@ public final class OptimizationFlow implements OptimizationInfo {
      */
     public OptimizationFlow minifyCss() {
         if (settings.isMinifyCss()) {
-            htmls.forEach(HtmlPage::minifyCss);
+            forEachResource(CssResource.class, RootResource::minify);
         }
         return this;
     }
@@ -182,7 +322,7 @@ public final class OptimizationFlow implements OptimizationInfo {
      */
     public OptimizationFlow applyIntegrity() {
         if (settings.isApplyIntegrity()) {
-            htmls.forEach(HtmlPage::applyIntegrity);
+            forEachResource(RootResource.class, RootResource::applyIntegrity);
         }
         return this;
     }
@@ -195,7 +335,10 @@ public final class OptimizationFlow implements OptimizationInfo {
      */
     public OptimizationFlow applyAntiCache() {
         if (settings.isApplyAntiCache()) {
-            htmls.forEach(HtmlPage::applyAntiCache);
+            forEachResource(RootResource.class, RootResource::applyMd5);
+            if (settings.isDebug()) {
+                htmls.forEach(html -> System.out.println("Anti-cache: " + DebugReporter.buildReport(html)));
+            }
         }
         return this;
     }
@@ -208,19 +351,53 @@ public final class OptimizationFlow implements OptimizationInfo {
      * @return flow object
      */
     public OptimizationFlow updateHtml() {
-        htmls.forEach(HtmlPage::updateHtml);
+        forEach(htmls, HtmlPage::updateHtml);
         return this;
     }
 
     /**
-     * Generate gzipped files (.gz) for all resources (html, root cs and js and relative css resources).
-     * Produces files could be used by http server to avoid hot gzipping.
+     * Generate precompressed files (.gz, .br, .zst, depending on configuration) for all resources (html, root cs
+     * and js and relative css resources). Produces files could be used by http server to avoid hot compression.
      *
      * @return flow object
      */
     public OptimizationFlow generateGzip() {
-        if (settings.isGzip()) {
-            htmls.forEach(HtmlPage::gzip);
+        if (settings.isPrecompress()) {
+            forEach(htmls, HtmlPage::gzipHtml);
+            forEachResource(RootResource.class, RootResource::gzip);
+        }
+        return this;
+    }
+
+    /**
+     * Perform all optimizations (resolution, minification, integrity, anti-cache, html update and gzip)
+     * with resource-level scheduling (instead of step by step processing). Each resource moves to the next step
+     * as soon as its own inputs are ready so network waits and cpu work overlap. Must be called after
+     * {@link #findFiles()}.
+     * <p>
+     * In streaming mode, pages are parsed and processed by windows: parsed documents are released just after
+     * page processing, so only one window of parsed pages is kept in memory.
+     *
+     * @return flow object
+     * @see OptimizationScheduler
+     */
+    public OptimizationFlow optimize() {
+        final ExecutorService executor = Executors.newFixedThreadPool(settings.getParallelism());
+        try {
+            final OptimizationScheduler scheduler = new OptimizationScheduler(settings, executor);
+            if (settings.isStreaming()) {
+                final int window = settings.getStreamingWindow();
+                for (int i = 0; i < htmls.size(); i += window) {
+                    final List<HtmlPage> part = htmls.subList(i, Math.min(i + window, htmls.size()));
+                    parse(part);
+                    // resources, processed in previous windows, would only mirror already processed owners
+                    scheduler.process(part, registry.takeRegistered());
+                }
+            } else {
+                scheduler.process(htmls, registry.takeRegistered());
+            }
+        } finally {
+            executor.shutdownNow();
         }
         return this;
     }
@@ -233,15 +410,107 @@ public final class OptimizationFlow implements OptimizationInfo {
         System.out.println(StatsPrinter.print(this));
     }
 
+    /**
+     * Parse pages and register found resources.
+     *
+     * @param pages pages to parse
+     */
+    private void parse(final List<HtmlPage> pages) {
+        // pages registered in files order, so parallel parsing would not affect pages order
+        forEach(pages, HtmlPage::findResources);
+        // registration in pages order to always select the same resource owners
+        pages.forEach(registry::register);
+    }
+
+    /**
+     * Apply action to all unique resources of required type. Resources, referencing the same file, are processed
+     * sequentially (owner first), so references could mirror owner results.
+     *
+     * @param type   resources type
+     * @param action action to apply
+     * @param <T>    resource type
+     */
+    private <T extends RootResource> void forEachResource(final Class<T> type, final Consumer<T> action) {
+        final List<List<RootResource>> groups = registry.getGroups().stream()
+                .filter(group -> type.isInstance(group.get(0)))
+                .collect(Collectors.toList());
+        forEach(groups, group -> group.forEach(res -> action.accept(type.cast(res))));
+    }
+
+    /**
+     * Apply action to all items (html pages or resource groups). If parallelism configured, items are processed
+     * concurrently (each item processed by exactly one thread). Method returns only after action completion for
+     * all items.
+     * <p>
+     * If action fails for multiple items, error of the first item (in items order) would be thrown.
+     *
+     * @param items  items to process
+     * @param action action to apply
+     * @param <T>    item type
+     */
+    private <T> void forEach(final List<T> items, final Consumer<T> action) {
+        final int threads = Math.min(settings.getParallelism(), items.size());
+        if (threads <= 1) {
+            items.forEach(action);
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            items.forEach(item -> futures.add(executor.submit(() -> action.accept(item))));
+            for (Future<?> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private void await(final Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Html processing failed", cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Html processing interrupted", ex);
+        }
+    }
+
     /**
      * Optimization settings.
      */
     @SuppressWarnings("PMD.TooManyFields")
     public static class Settings {
-        private final File baseDir;
+
+        /**
+         * Default gzip mode (jdk deflate).
+         */
+        public static final String GZIP_DEFAULT = "default";
+        /**
+         * Exhaustive deflate gzip mode.
+         */
+        public static final String GZIP_ZOPFLI = "zopfli";
+        /**
+         * Default zopfli iterations.
+         */
+        public static final int DEFAULT_ZOPFLI_ITERATIONS = 15;
+
+        private final File sourceDir;
+        private File baseDir;
+        private File outputDir;
         private File jsDir;
         private File cssDir;
         private List<String> htmlExtensions = Arrays.asList("html", "htm");
+        private List<String> scanExtensions = new ArrayList<>();
         private final List<PathMatcher> ignore = new ArrayList<>();
         private boolean downloadResources;
         private boolean preferMinDownload;
@@ -257,21 +526,54 @@ public final class OptimizationFlow implements OptimizationInfo {
         private boolean applyAntiCache;
         private boolean applyIntegrity;
         private boolean gzip;
+        private boolean brotli;
+        private boolean zstd;
+        private final Map<Compression, Integer> compressionLevels = new EnumMap<>(Compression.class);
+        private boolean zopfli;
+        private int zopfliIterations = DEFAULT_ZOPFLI_ITERATIONS;
+        private List<String> compressSkip = CompressionPolicy.DEFAULT_SKIP;
+        private int compressMinSize;
+        private int compressMinSavings;
         private boolean debug;
+        private int parallelism = 1;
+        private int streamingWindow;
+        private int downloadConcurrency = HttpDownloader.DEFAULT_HOST_CONCURRENCY;
+        private File downloadCacheDir;
+        private File minifyCacheDir;
+        private SharedServices sharedServices;
+        private File stateFile;
+        private List<File> changedFiles;
 
         public Settings(final File baseDir) {
+            this.sourceDir = baseDir;
             this.baseDir = baseDir;
             jsDir = new File(baseDir, "js");
             cssDir = new File(baseDir, "css");
         }
 
         /**
+         * NOTE: when output directory configured, points to output directory (after its preparation).
+         *
          * @return directory where html files must be found and processed
          */
         public File getBaseDir() {
             return baseDir;
         }
 
+        /**
+         * @return source directory (the same as base directory when output directory not configured)
+         */
+        public File getSourceDir() {
+            return sourceDir;
+        }
+
+        /**
+         * @return output directory or null when optimization performed directly inside source directory
+         */
+        public File getOutputDir() {
+            return outputDir;
+        }
+
         /**
          * @return directory name for downloaded js files
          */
@@ -293,6 +595,13 @@ public final class OptimizationFlow implements OptimizationInfo {
             return htmlExtensions;
         }
 
+        /**
+         * @return extensions of files, processed with streaming tag scanner instead of html parser
+         */
+        public List<String> getScanExtensions() {
+            return scanExtensions;
+        }
+
         /**
          * @return matchers to ignore local resources processing (also affects downloaded files)
          */
@@ -399,12 +708,172 @@ public final class OptimizationFlow implements OptimizationInfo {
             return gzip;
         }
 
+        /**
+         * @return true to create .br files for all resources
+         */
+        public boolean isBrotli() {
+            return brotli;
+        }
+
+        /**
+         * @return true to create .zst files for all resources
+         */
+        public boolean isZstd() {
+            return zstd;
+        }
+
+        /**
+         * @return enabled precompression encodings (empty if precompression disabled)
+         */
+        public List<Compression> getCompressions() {
+            final List<Compression> res = new ArrayList<>();
+            if (gzip) {
+                res.add(Compression.GZIP);
+            }
+            if (brotli) {
+                res.add(Compression.BROTLI);
+            }
+            if (zstd) {
+                res.add(Compression.ZSTD);
+            }
+            return res;
+        }
+
+        /**
+         * @return true if at least one precompression encoding enabled
+         */
+        public boolean isPrecompress() {
+            return gzip || brotli || zstd;
+        }
+
+        /**
+         * @param type compression type
+         * @return compression level for encoding
+         */
+        public int getCompressionLevel(final Compression type) {
+            return compressionLevels.getOrDefault(type, type.getDefaultLevel());
+        }
+
+        /**
+         * @return true to use exhaustive (zopfli-like) deflate for gzip files
+         */
+        public boolean isZopfli() {
+            return zopfli;
+        }
+
+        /**
+         * @return zopfli optimization iterations
+         */
+        public int getZopfliIterations() {
+            return zopfliIterations;
+        }
+
+        /**
+         * @return file extensions or mime types (e.g. "image/png" or "video/*") to avoid precompression for
+         */
+        public List<String> getCompressSkip() {
+            return compressSkip;
+        }
+
+        /**
+         * @return minimal file size (bytes) for precompression (0 for all files)
+         */
+        public int getCompressMinSize() {
+            return compressMinSize;
+        }
+
+        /**
+         * @return minimal size decrease (percent) to keep precompressed file (0 to keep all)
+         */
+        public int getCompressMinSavings() {
+            return compressMinSavings;
+        }
+
         /**
          * @return true to show extra logs
          */
         public boolean isDebug() {
             return debug;
         }
+
+        /**
+         * @return number of html pages processed in parallel (1 for sequential processing)
+         */
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        /**
+         * @return number of pages, processed together in streaming mode (0 when streaming mode disabled)
+         */
+        public int getStreamingWindow() {
+            return streamingWindow;
+        }
+
+        /**
+         * @return true if pages processed in bounded windows (streaming mode)
+         */
+        public boolean isStreaming() {
+            return streamingWindow > 0;
+        }
+
+        /**
+         * @return maximum number of simultaneous downloads from the same host
+         */
+        public int getDownloadConcurrency() {
+            return downloadConcurrency;
+        }
+
+        /**
+         * @return persistent downloads cache directory or null if cache disabled
+         */
+        public File getDownloadCacheDir() {
+            return downloadCacheDir;
+        }
+
+        /**
+         * @return persistent minification results cache directory or null if cache disabled
+         */
+        public File getMinifyCacheDir() {
+            return minifyCacheDir;
+        }
+
+        /**
+         * @return services shared with other optimizations or null (own services used)
+         */
+        public SharedServices getSharedServices() {
+            return sharedServices;
+        }
+
+        /**
+         * @return incremental processing state file or null (incremental processing disabled)
+         */
+        public File getStateFile() {
+            return stateFile;
+        }
+
+        /**
+         * @return changed source files (since the previous execution) or null if not known (full processing)
+         */
+        public List<File> getChangedFiles() {
+            return changedFiles;
+        }
+
+        /**
+         * Re-point all source directory related paths into output directory.
+         */
+        private void switchToOutputDir() {
+            baseDir = outputDir;
+            jsDir = rebase(jsDir);
+            cssDir = rebase(cssDir);
+        }
+
+        private File rebase(final File dir) {
+            final Path path = dir.toPath().toAbsolutePath().normalize();
+            final Path source = sourceDir.toPath().toAbsolutePath().normalize();
+            // custom directories outside of source dir are not changed
+            return path.startsWith(source) ? outputDir.toPath().resolve(source.relativize(path)).toFile() : dir;
+        }
     }
 
     /**
@@ -487,6 +956,34 @@ public final class OptimizationFlow implements OptimizationInfo {
             return this;
         }
 
+        /**
+         * Files with specified extensions would be processed with lightweight streaming tag scanner instead of
+         * jsoup html parser (see {@link ru.vyarus.gradle.frontend.core.util.TagScanner}). Scanner only detects
+         * resource tags, without document tree building, which is much faster and requires less memory. Useful for
+         * templates (jsp, freemarker, etc.) where document tree is not needed.
+         *
+         * @param extensions extensions of files to process with streaming scanner
+         * @return builder instance
+         */
+        public Builder scanExtensions(final String... extensions) {
+            return scanExtensions(Arrays.asList(extensions));
+        }
+
+        /**
+         * Files with specified extensions would be processed with lightweight streaming tag scanner instead of
+         * jsoup html parser.
+         *
+         * @param extensions extensions of files to process with streaming scanner
+         * @return builder instance
+         * @see #scanExtensions(String...)
+         */
+        public Builder scanExtensions(final List<String> extensions) {
+            if (extensions != null) {
+                settings.scanExtensions = extensions;
+            }
+            return this;
+        }
+
         /**
          * Ignore local files processing. Also affects downloaded files further processing.
          *
@@ -815,6 +1312,168 @@ public final class OptimizationFlow implements OptimizationInfo {
             return gzip(true);
         }
 
+        /**
+         * Brotli files are usually smaller than gzip (for js and css). Brotli size also shown in final report.
+         *
+         * @param brotli true to create .br files for all resources
+         * @return builder instance
+         */
+        public Builder brotli(final Boolean brotli) {
+            if (brotli != null) {
+                settings.brotli = brotli;
+            }
+            return this;
+        }
+
+        /**
+         * Shortcut for {@link #brotli(Boolean)}.
+         *
+         * @return builder instance
+         */
+        public Builder brotli() {
+            return brotli(true);
+        }
+
+        /**
+         * Zstd size also shown in final report.
+         *
+         * @param zstd true to create .zst files for all resources
+         * @return builder instance
+         */
+        public Builder zstd(final Boolean zstd) {
+            if (zstd != null) {
+                settings.zstd = zstd;
+            }
+            return this;
+        }
+
+        /**
+         * Shortcut for {@link #zstd(Boolean)}.
+         *
+         * @return builder instance
+         */
+        public Builder zstd() {
+            return zstd(true);
+        }
+
+        /**
+         * By default, max compression level used for gzip (9) and brotli (11) and 19 for zstd (higher zstd levels
+         * are too slow).
+         *
+         * @param type  compression type
+         * @param level compression level (gzip 1-9, brotli 0-11, zstd 1-22)
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if level is not supported by encoding
+         */
+        public Builder compressionLevel(final Compression type, final Integer level) throws IllegalStateException {
+            if (type != null && level != null) {
+                type.checkLevel(level);
+                settings.compressionLevels.put(type, level);
+            }
+            return this;
+        }
+
+        /**
+         * Gzip mode: "default" (jdk deflate with configured level) or "zopfli" (exhaustive deflate: 3-8% smaller
+         * gzip files, but compression is 100 times slower). Zopfli files are decodable by all browsers.
+         * <p>
+         * Zopfli mode is CPU-heavy: use parallelism to compress files in parallel.
+         *
+         * @param mode gzip mode
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if mode is not supported
+         */
+        public Builder gzipMode(final String mode) throws IllegalStateException {
+            if (mode != null) {
+                if (!Settings.GZIP_DEFAULT.equalsIgnoreCase(mode) && !Settings.GZIP_ZOPFLI.equalsIgnoreCase(mode)) {
+                    throw new IllegalStateException("Unsupported gzip mode: '" + mode + "' (supported: "
+                            + Settings.GZIP_DEFAULT + ", " + Settings.GZIP_ZOPFLI + ")");
+                }
+                settings.zopfli = Settings.GZIP_ZOPFLI.equalsIgnoreCase(mode);
+            }
+            return this;
+        }
+
+        /**
+         * Zopfli iterations (only for zopfli gzip mode). More iterations - slightly smaller files, but slower
+         * compression. 15 by default.
+         *
+         * @param iterations zopfli optimization iterations
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if provided value is not positive
+         */
+        public Builder zopfliIterations(final Integer iterations) throws IllegalStateException {
+            if (iterations != null) {
+                if (iterations < 1) {
+                    throw new IllegalStateException("Zopfli iterations must be positive: " + iterations);
+                }
+                settings.zopfliIterations = iterations;
+            }
+            return this;
+        }
+
+        /**
+         * Avoid precompression for already compressed files (fonts, images, etc.): such files would not become
+         * smaller. Rules could be file extensions ("woff2") or mime types ("image/png", "video/*"). By default,
+         * common compressed formats are skipped (woff, woff2, png, jpg, jpeg, gif, webp, avif, zip, gz, br, zst,
+         * video/*, audio/*).
+         *
+         * @param rules file extensions or mime types (overrides defaults)
+         * @return builder instance
+         */
+        public Builder compressSkip(final String... rules) {
+            return compressSkip(Arrays.asList(rules));
+        }
+
+        /**
+         * Avoid precompression for already compressed files (fonts, images, etc.).
+         *
+         * @param rules file extensions or mime types (overrides defaults)
+         * @return builder instance
+         * @see #compressSkip(String...)
+         */
+        public Builder compressSkip(final List<String> rules) {
+            if (rules != null) {
+                settings.compressSkip = new ArrayList<>(rules);
+            }
+            return this;
+        }
+
+        /**
+         * Avoid precompression for small files (compressed file could be even larger than source). 0 by default.
+         *
+         * @param size minimal file size in bytes
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if provided value is negative
+         */
+        public Builder compressMinSize(final Integer size) throws IllegalStateException {
+            if (size != null) {
+                if (size < 0) {
+                    throw new IllegalStateException("Compression min size must not be negative: " + size);
+                }
+                settings.compressMinSize = size;
+            }
+            return this;
+        }
+
+        /**
+         * Remove precompressed file if size decrease is too small (e.g. less than 5%): such file would not
+         * make difference, but would occupy space. 0 by default (all compressed files kept).
+         *
+         * @param percent minimal size decrease (percent) to keep compressed file
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if provided value is not in 0-99 range
+         */
+        public Builder compressMinSavings(final Integer percent) throws IllegalStateException {
+            if (percent != null) {
+                if (percent < 0 || percent > 99) {
+                    throw new IllegalStateException("Compression min savings must be in range 0-99: " + percent);
+                }
+                settings.compressMinSavings = percent;
+            }
+            return this;
+        }
+
         /**
          * @param debug true to enable debug mode with extra logs
          * @return builder instance
@@ -835,6 +1494,167 @@ public final class OptimizationFlow implements OptimizationInfo {
             return debug(true);
         }
 
+        /**
+         * Process multiple html pages and resources in parallel. Resources, shared by multiple pages, are
+         * processed safely. Final result (and report) does not depend on parallelism, but console logs could appear
+         * in different order.
+         *
+         * @param parallelism number of html pages processed in parallel (1 for sequential processing)
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if provided value is less than 1
+         */
+        public Builder parallelism(final Integer parallelism) throws IllegalStateException {
+            if (parallelism != null) {
+                if (parallelism < 1) {
+                    throw new IllegalStateException("Parallelism must be a positive number: " + parallelism);
+                }
+                settings.parallelism = parallelism;
+            }
+            return this;
+        }
+
+        /**
+         * Streaming mode for very large sites: pages are parsed and processed in bounded windows (instead of parsing
+         * all pages before processing) and parsed documents are released as soon as page is written. Only compact
+         * page summaries (files, sizes, changes and resources without document tree) are kept for final report, so
+         * memory consumption does not depend on site size.
+         * <p>
+         * Resources, shared by pages from different windows, are still processed only once. Final result does not
+         * depend on window size. Streaming mode is supported only by {@link OptimizationFlow#optimize()}
+         * (builder's {@code .run()}).
+         *
+         * @param window number of html pages processed together (0 to disable streaming mode)
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if provided value is negative
+         */
+        public Builder streamingWindow(final Integer window) throws IllegalStateException {
+            if (window != null) {
+                if (window < 0) {
+                    throw new IllegalStateException("Streaming window must not be negative: " + window);
+                }
+                settings.streamingWindow = window;
+            }
+            return this;
+        }
+
+        /**
+         * Downloads are performed with shared http client (connections re-use and HTTP/2 multiplexing). Resources
+         * could be downloaded concurrently (e.g. with parallel processing or source map sources), but number of
+         * simultaneous requests to the same host is limited.
+         *
+         * @param downloadConcurrency maximum number of simultaneous downloads from the same host
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if provided value is less than 1
+         */
+        public Builder downloadConcurrency(final Integer downloadConcurrency) throws IllegalStateException {
+            if (downloadConcurrency != null) {
+                if (downloadConcurrency < 1) {
+                    throw new IllegalStateException("Download concurrency must be a positive number: "
+                            + downloadConcurrency);
+                }
+                settings.downloadConcurrency = downloadConcurrency;
+            }
+            return this;
+        }
+
+        /**
+         * Enable persistent downloads cache: downloaded files are stored in cache and loaded from cache on next
+         * executions (instead of downloading). Cache directory might be shared by multiple builds (e.g. in gradle
+         * user home). Not used entries are removed after 30 days; least recently used entries are removed when
+         * cache size exceeds 512 MB.
+         *
+         * @param dir cache directory
+         * @return builder instance
+         */
+        public Builder downloadCacheDir(final File dir) {
+            if (dir != null) {
+                settings.downloadCacheDir = dir;
+            }
+            return this;
+        }
+
+        /**
+         * Enable persistent minification results cache: js and css minification results are stored in cache
+         * (by content hash) and loaded from cache on next executions when source file was not changed (instead of
+         * minification). Cache directory might be shared by multiple builds (e.g. in gradle user home). Cache
+         * entries are evicted the same way as for downloads cache (see {@link #downloadCacheDir(File)}).
+         *
+         * @param dir cache directory
+         * @return builder instance
+         */
+        public Builder minifyCacheDir(final File dir) {
+            if (dir != null) {
+                settings.minifyCacheDir = dir;
+            }
+            return this;
+        }
+
+        /**
+         * Use services, shared with other optimizations (e.g. optimizations of multiple projects in the same build):
+         * caches, downloaders and csso contexts are re-used instead of creation for each optimization. Shared
+         * services are not closed after optimization.
+         *
+         * @param services shared services
+         * @return builder instance
+         */
+        public Builder sharedServices(final SharedServices services) {
+            if (services != null) {
+                settings.sharedServices = services;
+            }
+            return this;
+        }
+
+        /**
+         * Write optimization results into separate directory instead of in-place modification: source directory
+         * copied into output directory and all optimizations performed there. Output directory is cleared before
+         * optimization!
+         * <p>
+         * Output directory can't be inside source directory (and source directory can't be inside output
+         * directory).
+         *
+         * @param dir output directory
+         * @return builder instance
+         * @throws java.lang.IllegalStateException if directories intersect
+         */
+        public Builder outputDir(final File dir) throws IllegalStateException {
+            if (dir != null) {
+                final Path output = dir.toPath().toAbsolutePath().normalize();
+                final Path source = settings.getSourceDir().toPath().toAbsolutePath().normalize();
+                if (output.equals(source)) {
+                    // in-place processing
+                    return this;
+                }
+                if (output.startsWith(source) || source.startsWith(output)) {
+                    throw new IllegalStateException("Output directory " + dir.getAbsolutePath()
+                            + " must not intersect with source directory " + settings.getSourceDir()
+                            .getAbsolutePath());
+                }
+                settings.outputDir = dir;
+            }
+            return this;
+        }
+
+        /**
+         * Enable incremental processing (only with output directory): state file stores all source files used by
+         * each page (with content hashes) and all files produced for page. When changed source files provided (and
+         * state file exists), only changed pages and pages, referencing changed files, are processed. Outputs, not
+         * produced anymore, are removed. All other output files stay unchanged.
+         * <p>
+         * When changed files are not known (null), full processing performed (output directory re-created).
+         *
+         * @param stateFile    processing state file
+         * @param changedFiles source files changed since the previous execution (added, modified or removed) or
+         *                     null if not known
+         * @return builder instance
+         */
+        public Builder incremental(final File stateFile, final Collection<File> changedFiles) {
+            if (stateFile != null) {
+                settings.stateFile = stateFile;
+                settings.changedFiles = changedFiles == null ? null : new ArrayList<>(changedFiles);
+            }
+            return this;
+        }
+
         /**
          * Run configured optimization. See {@link ru.vyarus.gradle.frontend.core.info.OptimizationInfo#printStats()}
          * for quick stats output.
@@ -842,16 +1662,39 @@ public final class OptimizationFlow implements OptimizationInfo {
          * @return optimization info object
          */
         public OptimizationInfo run() {
-            return new OptimizationFlow(settings)
-                    .findFiles()
-                    .resolveResources()
-                    .minifyJs()
-                    .minifyCss()
-                    .applyIntegrity()
-                    .applyAntiCache()
-
-                    .updateHtml()
-                    .generateGzip();
+            final File stateFile = settings.getStateFile();
+            if (stateFile != null && settings.getOutputDir() == null) {
+                throw new IllegalStateException("Incremental processing requires output directory");
+            }
+            IncrementalState state = null;
+            Set<Path> pages = null;
+            if (settings.getOutputDir() != null) {
+                state = stateFile == null ? null : IncrementalState.load(stateFile);
+                if (state != null && settings.getChangedFiles() != null) {
+                    pages = prepareIncremental(settings, state);
+                } else {
+                    prepareOutputDir(settings);
+                    state = stateFile == null ? null : new IncrementalState();
+                }
+                // no state for interrupted processing
+                org.apache.commons.io.FileUtils.deleteQuietly(stateFile);
+            }
+            try (OptimizationServices services = new OptimizationServices(settings)) {
+                final OptimizationFlow flow = new OptimizationFlow(settings, services);
+                flow.pages = pages;
+                final OptimizationInfo res = flow.findFiles().optimize();
+                if (state != null) {
+                    for (HtmlPage html : flow.getHtmls()) {
+                        state.update(html, settings.getBaseDir(), settings.getSourceDir());
+                    }
+                    final int removed = state.removeStaleOutputs(settings.getOutputDir(), settings.getSourceDir());
+                    if (removed > 0) {
+                        System.out.println("Incremental processing: " + removed + " stale output files removed");
+                    }
+                    state.save(stateFile);
+                }
+                return res;
+            }
         }
 
         private PathMatcher glob(final String glob) {
@@ -0,0 +1,223 @@
+package ru.vyarus.gradle.frontend.core;
+
+import ru.vyarus.gradle.frontend.core.model.HtmlPage;
+import ru.vyarus.gradle.frontend.core.model.root.CssResource;
+import ru.vyarus.gradle.frontend.core.model.root.JsResource;
+import ru.vyarus.gradle.frontend.core.model.root.ResourceRegistry;
+import ru.vyarus.gradle.frontend.core.model.root.RootResource;
+import ru.vyarus.gradle.frontend.core.model.root.sub.CssSubResource;
+import ru.vyarus.gradle.frontend.core.util.DebugReporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Resource-level optimization scheduler. Instead of fixed phases chain (when each phase must be completed for all
+ * pages before the next phase start), each resource moves to the next stage as soon as its own inputs are ready:
+ * resolve -&gt; minify -&gt; integrity/md5 -&gt; html update -&gt; gzip. This way network waits (resources
+ * download) and cpu work (minification, gzip) overlap: slow download does not block other resources
+ * minification and long minification does not block other resources gzipping.
+ * <p>
+ * Stages dependencies:
+ * <ul>
+ *     <li>Resource: resolve -&gt; minify -&gt; integrity -&gt; md5 -&gt; gzip</li>
+ *     <li>Css resource resolve: css resolve -&gt; sub resources resolve (in parallel) -&gt; css links update.
+ *     Sub resources gzipped just after css links update because sub resource files are not modified after
+ *     resolution</li>
+ *     <li>Html: update (when all page resources are ready: md5 applied) -&gt; gzip</li>
+ * </ul>
+ * <p>
+ * Resources, referencing the same file (or url) from different pages are processed as a group (see
+ * {@link ResourceRegistry}): each stage is applied to group owner (actual processing) and then to references
+ * (mirroring owner results) before moving group to the next stage (so the same file would never be
+ * processed concurrently).
+ * <p>
+ * All processed html pages must be already parsed (resource groups are built from all pages). In streaming mode,
+ * pages are processed by parts (page documents are released just after page update).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public final class OptimizationScheduler {
+
+    private final OptimizationFlow.Settings settings;
+    private final Executor executor;
+
+    /**
+     * Create scheduler.
+     *
+     * @param settings optimization settings
+     * @param executor executor to run stages with
+     */
+    public OptimizationScheduler(final OptimizationFlow.Settings settings, final Executor executor) {
+        this.settings = settings;
+        this.executor = executor;
+    }
+
+    /**
+     * Run all optimization stages for provided (parsed) pages. Method returns only after all stages completion.
+     * If processing fails for multiple pages, error of the first page (in pages order) would be thrown.
+     * <p>
+     * Groups must contain all resources of provided pages. Group might not contain owner resource, if it was
+     * already processed before (streaming mode): references would just mirror owner results.
+     *
+     * @param htmls          parsed html pages
+     * @param resourceGroups resource groups of provided pages (see {@link ResourceRegistry#takeRegistered()})
+     */
+    public void process(final List<HtmlPage> htmls, final List<List<RootResource>> resourceGroups) {
+        // resource -> group
+        final Map<RootResource, ResourceGroup> groups = new IdentityHashMap<>();
+        for (List<RootResource> resources : resourceGroups) {
+            final ResourceGroup group = new ResourceGroup(resources);
+            resources.forEach(resource -> groups.put(resource, group));
+            schedule(group);
+        }
+
+        final List<CompletableFuture<Void>> pages = new ArrayList<>();
+        for (HtmlPage html : htmls) {
+            pages.add(schedule(html, groups));
+        }
+        // wait for all pages (even if some failed)
+        CompletableFuture.allOf(pages.toArray(new CompletableFuture[0])).handle((res, ex) -> null).join();
+        for (CompletableFuture<Void> page : pages) {
+            await(page);
+        }
+    }
+
+    private void schedule(final ResourceGroup group) {
+        CompletableFuture<Void> stage = CompletableFuture.completedFuture(null);
+        // filled during resolution
+        final List<CompletableFuture<Void>> subResources = Collections.synchronizedList(new ArrayList<>());
+        // group resources resolved one by one (owner first)
+        for (RootResource resource : group.resources) {
+            stage = stage.thenComposeAsync(res -> resolve(resource, subResources), executor);
+        }
+        final boolean minify = group.resources.get(0) instanceof JsResource
+                ? settings.isMinifyJs() : settings.isMinifyCss();
+        if (minify) {
+            stage = then(stage, group, RootResource::minify);
+        }
+        if (settings.isApplyIntegrity()) {
+            stage = then(stage, group, RootResource::applyIntegrity);
+        }
+        if (settings.isApplyAntiCache()) {
+            stage = then(stage, group, RootResource::applyMd5);
+        }
+        group.ready = stage;
+        if (settings.isPrecompress()) {
+            stage = then(stage, group, RootResource::gzipFile);
+        }
+        // sub resources gzip is scheduled during resolution (so list is complete after resolution)
+        group.done = stage.thenCompose(res -> CompletableFuture.allOf(
+                subResources.toArray(new CompletableFuture[0])));
+    }
+
+    private CompletableFuture<Void> resolve(final RootResource resource,
+                                            final List<CompletableFuture<Void>> subResources) {
+        // references just mirror owner
+        if (!(resource instanceof CssResource) || resource.getOwner() != null) {
+            resource.resolve();
+            return CompletableFuture.completedFuture(null);
+        }
+        final CssResource css = (CssResource) resource;
+        css.resolveCss();
+        final List<CompletableFuture<Void>> resolution = new ArrayList<>();
+        for (CssSubResource sub : css.getSubResources()) {
+            resolution.add(CompletableFuture.runAsync(() -> css.resolveSubResource(sub), executor));
+        }
+        return CompletableFuture.allOf(resolution.toArray(new CompletableFuture[0]))
+                .thenRunAsync(() -> {
+                    css.updateSubLinks();
+                    if (settings.isPrecompress()) {
+                        // sub resources would not change anymore
+                        for (CssSubResource sub : css.getSubResources()) {
+                            subResources.add(CompletableFuture.runAsync(sub::gzip, executor));
+                        }
+                    }
+                }, executor);
+    }
+
+    private CompletableFuture<Void> schedule(final HtmlPage html, final Map<RootResource, ResourceGroup> groups) {
+        final List<CompletableFuture<Void>> ready = new ArrayList<>();
+        final List<CompletableFuture<Void>> done = new ArrayList<>();
+        collect(html.getJs(), groups, ready, done);
+        collect(html.getCss(), groups, ready, done);
+
+        CompletableFuture<Void> page = CompletableFuture.allOf(ready.toArray(new CompletableFuture[0]))
+                .thenRunAsync(() -> {
+                    if (settings.isDebug()) {
+                        System.out.println("Resolved: " + DebugReporter.buildReport(html));
+                    }
+                    html.updateHtml();
+                    if (settings.isStreaming()) {
+                        // page written: parsed document not needed anymore
+                        html.release();
+                    }
+                }, executor);
+        if (settings.isPrecompress()) {
+            page = page.thenRunAsync(html::gzipHtml, executor);
+        }
+        done.add(page);
+        return CompletableFuture.allOf(done.toArray(new CompletableFuture[0]));
+    }
+
+    private void collect(final List<? extends RootResource> resources,
+                         final Map<RootResource, ResourceGroup> groups,
+                         final List<CompletableFuture<Void>> ready,
+                         final List<CompletableFuture<Void>> done) {
+        for (RootResource resource : resources) {
+            final ResourceGroup group = groups.get(resource);
+            ready.add(group.ready);
+            done.add(group.done);
+        }
+    }
+
+    private CompletableFuture<Void> then(final CompletableFuture<Void> stage,
+                                         final ResourceGroup group,
+                                         final Consumer<RootResource> action) {
+        return stage.thenRunAsync(() -> group.resources.forEach(action), executor);
+    }
+
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private void await(final CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Html processing failed", cause);
+        }
+    }
+
+    /**
+     * Resources, referencing the same file (or url). Owner is the first resource.
+     */
+    private static class ResourceGroup {
+        private final List<RootResource> resources;
+        /**
+         * Resources resolved, minified, integrity and md5 applied.
+         */
+        private CompletableFuture<Void> ready;
+        /**
+         * All resource stages done (including gzip).
+         */
+        private CompletableFuture<Void> done;
+
+        ResourceGroup(final List<RootResource> resources) {
+            this.resources = resources;
+        }
+    }
+}
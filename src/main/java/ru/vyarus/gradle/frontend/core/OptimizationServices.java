@@ -0,0 +1,90 @@
+package ru.vyarus.gradle.frontend.core;
+
+import ru.vyarus.gradle.frontend.core.util.FileCache;
+import ru.vyarus.gradle.frontend.core.util.HttpDownloader;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
+import ru.vyarus.gradle.frontend.core.util.compress.CompressionPolicy;
+import ru.vyarus.gradle.frontend.core.util.compress.Precompression;
+import ru.vyarus.gradle.frontend.core.util.compress.ZopfliPrecompressor;
+import ru.vyarus.gradle.frontend.core.util.minify.CssoPool;
+
+import java.util.stream.Collectors;
+
+/**
+ * Services, shared by all optimization objects (html pages and resources) during optimization. Services are
+ * thread-safe and could be used from multiple threads.
+ * <p>
+ * Services could be obtained from {@link SharedServices}, shared by multiple optimizations (shared services are
+ * not closed with optimization). Otherwise, own services created for optimization.
+ * <p>
+ * Must be closed after optimization.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class OptimizationServices implements AutoCloseable {
+
+    private final SharedServices shared;
+    private final boolean owner;
+    private final HttpDownloader downloader;
+    private final FileCache minifyCache;
+    private final Precompression precompression;
+
+    /**
+     * Create services.
+     *
+     * @param settings optimization settings
+     */
+    public OptimizationServices(final OptimizationFlow.Settings settings) {
+        this.owner = settings.getSharedServices() == null;
+        // css could be minified by each processing thread
+        this.shared = owner ? new SharedServices(settings.getParallelism()) : settings.getSharedServices();
+        this.downloader = shared.getDownloader(settings.getDownloadConcurrency(), settings.getDownloadCacheDir());
+        this.minifyCache = settings.getMinifyCacheDir() == null ? null : shared.getCache(settings.getMinifyCacheDir());
+        this.precompression = new Precompression(settings.getCompressions().stream()
+                .map(type -> type == Compression.GZIP && settings.isZopfli()
+                        ? new ZopfliPrecompressor(settings.getZopfliIterations())
+                        : type.create(settings.getCompressionLevel(type)))
+                .collect(Collectors.toList()),
+                new CompressionPolicy(settings.getCompressSkip(),
+                        settings.getCompressMinSize(), settings.getCompressMinSavings()));
+    }
+
+    /**
+     * @return download engine
+     */
+    public HttpDownloader getDownloader() {
+        return downloader;
+    }
+
+    /**
+     * @return minification results cache or null if cache disabled
+     */
+    public FileCache getMinifyCache() {
+        return minifyCache;
+    }
+
+    /**
+     * @return precompression stage (for all enabled encodings)
+     */
+    public Precompression getPrecompression() {
+        return precompression;
+    }
+
+    /**
+     * @return csso contexts pool (for css minification)
+     */
+    public CssoPool getCssoPool() {
+        return shared.getCssoPool();
+    }
+
+    /**
+     * Close services and evict outdated cache entries. Shared services are not closed.
+     */
+    @Override
+    public void close() {
+        if (owner) {
+            shared.close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.vyarus.gradle.frontend.core;
+
+import ru.vyarus.gradle.frontend.core.util.FileCache;
+import ru.vyarus.gradle.frontend.core.util.HttpDownloader;
+import ru.vyarus.gradle.frontend.core.util.minify.CssoPool;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-living services, which could be shared by multiple optimizations (e.g. by optimization tasks of different
+ * projects in the same build): caches, downloaders and csso contexts pool. This way, warmed minifier engines are
+ * re-used and the same cache instances are used by all optimizations.
+ * <p>
+ * Caches and downloaders are created lazily, per cache directory and download concurrency, so optimizations with
+ * different settings could still use the same shared services. Thread-safe.
+ * <p>
+ * Must be closed after all optimizations (outdated cache entries evicted on close).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class SharedServices implements AutoCloseable {
+
+    private final Map<String, FileCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, HttpDownloader> downloaders = new ConcurrentHashMap<>();
+    private final CssoPool cssoPool;
+
+    /**
+     * Create services.
+     *
+     * @param cssoPoolSize maximum number of simultaneous css minifications
+     */
+    public SharedServices(final int cssoPoolSize) {
+        this.cssoPool = new CssoPool(cssoPoolSize);
+    }
+
+    /**
+     * @param dir cache directory
+     * @return cache instance for directory
+     */
+    public FileCache getCache(final File dir) {
+        return caches.computeIfAbsent(IncrementalState.normalize(dir).toString(), key -> new FileCache(dir));
+    }
+
+    /**
+     * @param hostConcurrency maximum number of simultaneous requests to the same host
+     * @param cacheDir        downloads cache directory (may be null)
+     * @return downloader instance
+     */
+    public HttpDownloader getDownloader(final int hostConcurrency, final File cacheDir) {
+        final FileCache cache = cacheDir == null ? null : getCache(cacheDir);
+        return downloaders.computeIfAbsent(hostConcurrency + "|" + (cache == null ? "" : cache.getDir()),
+                key -> new HttpDownloader(hostConcurrency, cache));
+    }
+
+    /**
+     * @return csso contexts pool (for css minification)
+     */
+    public CssoPool getCssoPool() {
+        return cssoPool;
+    }
+
+    /**
+     * Close services and evict outdated cache entries.
+     */
+    @Override
+    public void close() {
+        downloaders.values().forEach(HttpDownloader::close);
+        downloaders.clear();
+        cssoPool.close();
+        caches.values().forEach(FileCache::evict);
+        caches.clear();
+    }
+}
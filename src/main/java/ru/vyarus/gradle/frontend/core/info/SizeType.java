@@ -19,5 +19,13 @@ public enum SizeType {
     /**
      * Gzipped file size.
      */
-    GZIPPED
+    GZIPPED,
+    /**
+     * Brotli compressed file size.
+     */
+    BROTLI,
+    /**
+     * Zstd compressed file size.
+     */
+    ZSTD
 }
@@ -2,9 +2,11 @@ package ru.vyarus.gradle.frontend.core.info.resources;
 
 import org.jsoup.nodes.Document;
 import ru.vyarus.gradle.frontend.core.info.resources.root.ResourceInfo;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Html page optimization info.
@@ -20,7 +22,7 @@ public interface HtmlInfo extends OptimizedEntityInfo {
     boolean isPureHtml();
 
     /**
-     * @return document tree parsed by jsoup (used for resources detection)
+     * @return document tree parsed by jsoup (used for resources detection) or null if streaming tag scanner used
      */
     Document getParsedDocument();
 
@@ -34,6 +36,11 @@ public interface HtmlInfo extends OptimizedEntityInfo {
      */
     File getGzip();
 
+    /**
+     * @return precompressed files by encoding (gzip, brotli, zstd) or empty map if not generated
+     */
+    Map<Compression, File> getCompressed();
+
 
     /**
      * @return detected js resources
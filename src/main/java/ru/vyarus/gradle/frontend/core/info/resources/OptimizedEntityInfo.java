@@ -1,6 +1,7 @@
 package ru.vyarus.gradle.frontend.core.info.resources;
 
 import ru.vyarus.gradle.frontend.core.info.SizeType;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.util.List;
 import java.util.Map;
@@ -38,4 +39,12 @@ public interface OptimizedEntityInfo {
      * @return recorded entity stats (original size - optimized size)
      */
     Map<SizeType, Long> getStats();
+
+    /**
+     * Compression policy could skip precompression for already compressed file types, too small files or when
+     * compressed file is not smaller enough.
+     *
+     * @return encodings skipped by compression policy with skip reason (empty if nothing skipped)
+     */
+    Map<Compression, String> getCompressionSkips();
 }
@@ -3,9 +3,11 @@ package ru.vyarus.gradle.frontend.core.info.resources.root;
 import org.jsoup.nodes.Element;
 import ru.vyarus.gradle.frontend.core.info.resources.OptimizedEntityInfo;
 import ru.vyarus.gradle.frontend.core.info.resources.root.sub.SubResourceInfo;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Root js or css resource info.
@@ -41,6 +43,14 @@ public interface ResourceInfo extends OptimizedEntityInfo {
      */
     String getIntegrity();
 
+    /**
+     * The same file (or url) might be referenced from multiple html pages: in this case resource processed only
+     * once (by the first found resource - owner) and all other resources just mirror owner results.
+     *
+     * @return resource, performed actual processing or null if this resource is processed itself
+     */
+    ResourceInfo getOwner();
+
     /**
      * @return true if resource was downloaded, false for local file
      */
@@ -61,6 +71,11 @@ public interface ResourceInfo extends OptimizedEntityInfo {
      */
     File getGzip();
 
+    /**
+     * @return precompressed files by encoding (gzip, brotli, zstd) or empty map if not generated
+     */
+    Map<Compression, File> getCompressed();
+
     /**
      * @return sub resources (actual for css)
      */
@@ -1,8 +1,10 @@
 package ru.vyarus.gradle.frontend.core.info.resources.root.sub;
 
 import ru.vyarus.gradle.frontend.core.info.resources.OptimizedEntityInfo;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.io.File;
+import java.util.Map;
 
 /**
  * Sub resource for root resource: currently might be only urls, declared in root css (extra css files like fonts).
@@ -33,4 +35,9 @@ public interface SubResourceInfo extends OptimizedEntityInfo {
      * @return gzip file or null if not generated
      */
     File getGzip();
+
+    /**
+     * @return precompressed files by encoding (gzip, brotli, zstd) or empty map if not generated
+     */
+    Map<Compression, File> getCompressed();
 }
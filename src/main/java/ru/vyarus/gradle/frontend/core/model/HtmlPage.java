@@ -2,6 +2,7 @@ package ru.vyarus.gradle.frontend.core.model;
 
 import org.jsoup.nodes.Document;
 import ru.vyarus.gradle.frontend.core.OptimizationFlow;
+import ru.vyarus.gradle.frontend.core.OptimizationServices;
 import ru.vyarus.gradle.frontend.core.info.SizeType;
 import ru.vyarus.gradle.frontend.core.info.resources.HtmlInfo;
 import ru.vyarus.gradle.frontend.core.model.root.CssResource;
@@ -11,15 +12,23 @@ import ru.vyarus.gradle.frontend.core.util.DebugReporter;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
 import ru.vyarus.gradle.frontend.core.util.HtmlParser;
 import ru.vyarus.gradle.frontend.core.util.SizeFormatter;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 import ru.vyarus.gradle.frontend.core.util.minify.HtmlMinifier;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Html page object (root optimization entity). All optimization logic is directly contained inside this object
  * (but optimization methods must be called in correct order).
+ * <p>
+ * Page optimization methods process only page resources. If resource is a reference to the resource from
+ * another page (see {@link ru.vyarus.gradle.frontend.core.model.root.ResourceRegistry}), the same action must be
+ * already performed on the owner resource. {@link OptimizationFlow} handles this automatically.
  *
  * @author Vyacheslav Rusakov
  * @since 30.01.2023
@@ -30,18 +39,26 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
      * Optimization settings (can't change in time of optimization).
      */
     private final OptimizationFlow.Settings settings;
+    /**
+     * Shared optimization services.
+     */
+    private final OptimizationServices services;
     /**
      * Html file to optimize.
      */
     private final File file;
     /**
-     * Gzipped files (appears after gzipping).
+     * Precompressed files (appears after compression).
      */
-    private File gzip;
+    private final Map<Compression, File> compressed = new EnumMap<>(Compression.class);
     /**
      * Parsed jsoup tree.
      */
     private Document doc;
+    /**
+     * Html file content (read once on parsing, released after html update).
+     */
+    private String content;
     /**
      * Detected root js links.
      */
@@ -56,8 +73,11 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
     private final boolean pureHtml;
 
     @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
-    public HtmlPage(final OptimizationFlow.Settings settings, final File file) {
+    public HtmlPage(final OptimizationFlow.Settings settings,
+                    final OptimizationServices services,
+                    final File file) {
         this.settings = settings;
+        this.services = services;
         this.file = file;
         recordSize(SizeType.ORIGINAL, file.length());
         final String name = file.getName().toLowerCase();
@@ -71,6 +91,13 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
         return settings;
     }
 
+    /**
+     * @return shared optimization services
+     */
+    public OptimizationServices getServices() {
+        return services;
+    }
+
     /**
      * Shortcut for {@code getSettings().getBaseDir()}. Used for reporting to avoid long file paths.
      *
@@ -114,7 +141,12 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
 
     @Override
     public File getGzip() {
-        return gzip;
+        return compressed.get(Compression.GZIP);
+    }
+
+    @Override
+    public Map<Compression, File> getCompressed() {
+        return compressed;
     }
 
     /**
@@ -131,13 +163,15 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
     // ACTIONS ---------------------------------------------------------------------------
 
     /**
-     * Parse html file and search for js and css links inside html.
+     * Parse html file and search for js and css links inside html. Files with configured scan extensions are
+     * processed with streaming tag scanner (no document tree).
      */
     public void findResources() {
-        final HtmlParser.ParseResult res = HtmlParser.parse(file);
+        final HtmlParser.ParseResult res = isScanned() ? HtmlParser.scan(file) : HtmlParser.parse(file);
         doc = res.getDocument();
-        res.getCss().forEach(element -> css.add(new CssResource(this, element.getElement(), element.getSource())));
-        res.getJs().forEach(element -> js.add(new JsResource(this, element.getElement(), element.getSource())));
+        content = res.getContent();
+        res.getCss().forEach(element -> css.add(new CssResource(this, element)));
+        res.getJs().forEach(element -> js.add(new JsResource(this, element)));
         if (settings.isDebug()) {
             System.out.println("Found: " + DebugReporter.buildReport(this));
         }
@@ -193,76 +227,104 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
 
     /**
      * Update js and css tags. Update performed with direct replacement of old tags instead of updating jsoup tree
-     * because jsoup could damage templates (jsp, freemarker etc.).
+     * because jsoup could damage templates (jsp, freemarker etc.). Tags are replaced by their positions in
+     * file content (known from parsing), so all replacements are applied in one pass (even if the same tag declared
+     * multiple times).
      * Also, html content being minified (together with inner js and css).
      */
     public void updateHtml() {
         // jsoup not used because it may apply unwanted changes, instead do manual replacements
-        String content = FileUtils.readFile(file);
+        // (content, read on parsing, used to avoid re-reading file)
+        String res = content;
+        content = null;
         if (isAnythingChanged()) {
             recordChange("changed links");
             // replace js and css tags if resource changed
-            for (JsResource js : getJs()) {
-                content = updateJs(js, content);
-            }
-            for (CssResource css : getCss()) {
-                content = updateCss(css, content);
-            }
+            res = updateTags(res);
         }
 
-        content = minifyHtml(content);
-        recordSize(SizeType.MODIFIED, content.length());
+        res = minifyHtml(res);
+        recordSize(SizeType.MODIFIED, res.length());
 
         // has changes affects only html's own changes
         if (hasChanges()) {
-            FileUtils.writeFile(file, content);
+            FileUtils.writeFile(file, res);
+        }
+    }
+
+    /**
+     * Release parsed document and content (streaming mode), after page update. Resource elements are detached from
+     * the document tree, so only page summary (file, sizes, changes and resources) stays in memory.
+     */
+    public void release() {
+        content = null;
+        if (doc != null) {
+            js.forEach(resource -> resource.getElement().remove());
+            css.forEach(resource -> resource.getElement().remove());
+            doc = null;
         }
     }
 
     /**
-     * Generate gzip files for html and all related resources.
+     * Generate precompressed files (gzip and other enabled encodings) for html and all related resources.
      * IMPORTANT must be applied after possible minification (last steps!) because, obviously, any further
      * modifications would make generated gzip invalid.
      */
     public void gzip() {
-        gzip = FileUtils.gzip(file, getBaseDir());
-        recordSize(SizeType.GZIPPED, gzip.length());
+        gzipHtml();
 
         css.forEach(RootResource::gzip);
         js.forEach(RootResource::gzip);
     }
 
-    private String updateJs(final JsResource js, final String html) {
-        String content = html;
-        if (js.hasChanges()) {
-            final String source = js.getSourceDeclaration();
-            if (content.contains(source)) {
-                String actualSource = js.getElement().toString();
-                // jsoup can't properly track closing script element so known source doesn't include it,
-                // but generated element would contain this tag - remove manually to avoid duplicates
-                if (actualSource.endsWith("</script>")) {
-                    actualSource = actualSource.substring(0, actualSource.length() - 9);
+    /**
+     * Generate precompressed files for html only (without related resources).
+     * IMPORTANT must be applied after html update.
+     */
+    public void gzipHtml() {
+        compressed.putAll(services.getPrecompression().compress(file, getBaseDir(), getCompressionSkips()));
+        compressed.forEach((type, res) -> recordSize(type.getSizeType(), res.length()));
+    }
+
+    private boolean isScanned() {
+        final String name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && settings.getScanExtensions().stream()
+                .anyMatch(ext -> ext.equalsIgnoreCase(name.substring(dot + 1)));
+    }
+
+    private String updateTags(final String html) {
+        final List<RootResource> changed = new ArrayList<>();
+        getJs().stream().filter(OptimizedEntity::hasChanges).forEach(changed::add);
+        getCss().stream().filter(OptimizedEntity::hasChanges).forEach(changed::add);
+        changed.sort(Comparator.comparingInt(RootResource::getSourceStart));
+
+        final StringBuilder res = new StringBuilder(html.length());
+        int pos = 0;
+        for (RootResource resource : changed) {
+            final String source = resource.getSourceDeclaration();
+            if (!html.startsWith(source, resource.getSourceStart())) {
+                if (resource instanceof JsResource) {
+                    throw new IllegalStateException("Can't replace resource declaration in "
+                            + FileUtils.relative(getBaseDir(), file) + ": \n\t" + source);
                 }
-                content = content.replace(source, actualSource);
-            } else {
-                throw new IllegalStateException("Can't replace resource declaration in "
-                        + FileUtils.relative(js.getHtml().getBaseDir(), js.getHtml().getFile()) + ": \n\t" + source);
+                System.out.println("WARNING: can't replace resource declaration in html file:\n\t" + source);
+                continue;
             }
+            res.append(html, pos, resource.getSourceStart()).append(buildTag(resource));
+            pos = resource.getSourceEnd();
         }
-        return content;
+        return res.append(html, pos, html.length()).toString();
     }
 
-    private String updateCss(final CssResource css, final String html) {
-        String content = html;
-        if (css.hasChanges()) {
-            final String source = css.getSourceDeclaration();
-            if (content.contains(source)) {
-                content = content.replace(source, css.getElement().toString());
-            } else {
-                System.out.println("WARNING: can't replace resource declaration in html file:\n\t" + source);
-            }
+    private String buildTag(final RootResource resource) {
+        String res = resource.getElement().toString();
+        // jsoup can't properly track closing script element so known source doesn't include it,
+        // but generated element would contain this tag - remove manually to avoid duplicates
+        if (resource instanceof JsResource && res.endsWith("</script>")) {
+            res = res.substring(0, res.length() - 9);
         }
-        return content;
+        return res;
     }
 
     private String minifyHtml(final String html) {
@@ -276,10 +338,10 @@ public class HtmlPage extends OptimizedEntity implements HtmlInfo {
             // using file length because content would contain DIFFERENT output and on consequent runs result could
             // be the same
             final long size = file.length();
-            System.out.print("Minify " + FileUtils.relative(getBaseDir(), file));
             content = HtmlMinifier.minify(content, settings.isMinifyHtmlCss(), settings.isMinifyHtmlJs());
             // html size MIGHT increase due to added integrity tags (if overall html was very small)
-            System.out.println(", " + SizeFormatter.formatChangePercent(size, content.length()));
+            System.out.println("Minify " + FileUtils.relative(getBaseDir(), file) + ", "
+                    + SizeFormatter.formatChangePercent(size, content.length()));
             if (!content.equals(html)) {
                 recordChange("minified");
             }
@@ -2,14 +2,18 @@ package ru.vyarus.gradle.frontend.core.model;
 
 import ru.vyarus.gradle.frontend.core.info.SizeType;
 import ru.vyarus.gradle.frontend.core.info.resources.OptimizedEntityInfo;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Base class for processed resources: html, js, css, and sub resources (css relatives).
+ * <p>
+ * Entity state is thread-safe because html pages (and so resources) could be processed in parallel.
  *
  * @author Vyacheslav Rusakov
  * @since 02.02.2023
@@ -19,19 +23,24 @@ public abstract class OptimizedEntity implements OptimizedEntityInfo {
     /**
      * List of resource changes (tracked manually for audit).
      */
-    private final List<String> changes = new ArrayList<>();
+    private final List<String> changes = Collections.synchronizedList(new ArrayList<>());
     /**
      * Resource size stats (original, minified, gzipped).
      */
-    private final Map<SizeType, Long> stats = new EnumMap<>(SizeType.class);
+    private final Map<SizeType, Long> stats = Collections.synchronizedMap(new EnumMap<>(SizeType.class));
+    /**
+     * Encodings skipped by compression policy (with reason).
+     */
+    private final Map<Compression, String> compressionSkips =
+            Collections.synchronizedMap(new EnumMap<>(Compression.class));
     /**
      * True if resource ignored (e.g. local file not found or can't load remote resource).
      */
-    private boolean ignored;
+    private volatile boolean ignored;
     /**
      * Ignore reason (for audit).
      */
-    private String ignoreReason;
+    private volatile String ignoreReason;
 
     @Override
     public boolean isIgnored() {
@@ -58,14 +67,19 @@ public abstract class OptimizedEntity implements OptimizedEntityInfo {
         return stats;
     }
 
+    @Override
+    public Map<Compression, String> getCompressionSkips() {
+        return compressionSkips;
+    }
+
     /**
      * Mark resource as ignored.
      *
      * @param reason ignore reason
      */
     protected void ignore(final String reason) {
-        ignored = true;
         ignoreReason = reason;
+        ignored = true;
     }
 
     /**
@@ -85,9 +99,8 @@ public abstract class OptimizedEntity implements OptimizedEntityInfo {
      * @param value size value
      */
     protected void recordSize(final SizeType type, final Number value) {
-        if (stats.containsKey(type)) {
+        if (stats.putIfAbsent(type, value.longValue()) != null) {
             throw new IllegalStateException("Size value override: " + type);
         }
-        stats.put(type, value.longValue());
     }
 }
@@ -1,10 +1,11 @@
 package ru.vyarus.gradle.frontend.core.model.root;
 
-import org.jsoup.nodes.Element;
 import ru.vyarus.gradle.frontend.core.model.HtmlPage;
 import ru.vyarus.gradle.frontend.core.model.root.sub.CssSubResource;
 import ru.vyarus.gradle.frontend.core.util.CssUtils;
+import ru.vyarus.gradle.frontend.core.util.FileLocks;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.HtmlParser;
 import ru.vyarus.gradle.frontend.core.util.UrlUtils;
 import ru.vyarus.gradle.frontend.core.util.minify.CssMinifier;
 import ru.vyarus.gradle.frontend.core.util.minify.ResourceMinifier;
@@ -13,9 +14,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -41,59 +44,94 @@ public class CssResource extends RootResource {
      */
     private final List<CssSubResource> urls = new ArrayList<>();
 
-    public CssResource(final HtmlPage html, final Element element, final String sourceDeclaration) {
-        super(html, element, sourceDeclaration, ATTR, html.getSettings().getCssDir());
-    }
+    /**
+     * Url base for relative css urls (for downloaded css), otherwise null.
+     */
+    private String urlBase;
 
+    public CssResource(final HtmlPage html, final HtmlParser.SourceElement source) {
+        super(html, source, ATTR, html.getSettings().getCssDir());
+    }
 
     @Override
     public void resolve() {
+        if (owner != null) {
+            // sub resources processed by owner
+            super.resolve();
+            return;
+        }
+        resolveCss();
+        urls.forEach(this::resolveSubResource);
+        updateSubLinks();
+    }
+
+    /**
+     * Resolve css file (download or check local file) and search for urls inside it (fonts, images, etc.).
+     * Found sub resources are not resolved.
+     * <p>
+     * Together with {@link #resolveSubResource(CssSubResource)} and {@link #updateSubLinks()} methods allows
+     * parallel sub resources resolution (instead of {@link #resolve()}).
+     */
+    public void resolveCss() {
         // important to remember root css url before resolution (when it would be loaded locally)
         final String url = getTarget();
         super.resolve();
 
         if (!isIgnored()) {
-            resolveSubLinks(url);
-
-            // overwrite css with new links
-            final List<CssSubResource> overrides = urls.stream()
-                    .filter(resource -> resource.isRemote() && !resource.isIgnored())
-                    .collect(Collectors.toList());
-            if (!overrides.isEmpty()) {
-                try {
-                    // replacing like this to not harm minification
-                    String content = Files.readString(file.toPath());
-                    for (CssSubResource resource : overrides) {
-                        if (getSettings().isApplyAntiCache()) {
-                            resource.applyMd5();
-                        }
-                        content = content.replace(resource.getUrl(), resource.getTarget());
-                    }
-                    FileUtils.writeFile(file, content);
-                } catch (IOException e) {
-                    throw new IllegalStateException("Failed to update css file links", e);
-                }
+            // css could link other css (@import), fonts and images
+            CssUtils.findLinks(file).forEach(link -> urls.add(new CssSubResource(this, link)));
+            // if css was loaded, relative resources must be also loaded
+            urlBase = remote ? UrlUtils.getBaseUrl(url) : null;
+        }
+    }
 
-                checkDuplicates();
-            }
+    /**
+     * Resolve sub resource (download or check local file). Could be called in parallel for different sub
+     * resources. Must be called after {@link #resolveCss()}.
+     *
+     * @param resource sub resource to resolve
+     */
+    public void resolveSubResource(final CssSubResource resource) {
+        resource.resolve(getSettings().isDownloadResources(), urlBase);
+    }
+
+    /**
+     * Remove duplicate sub resources and update css file with new links (for downloaded sub resources).
+     * Must be called after all sub resources resolution.
+     */
+    public void updateSubLinks() {
+        if (isIgnored()) {
+            return;
+        }
+        removeDuplicates();
+        // overwrite css with new links
+        final List<CssSubResource> overrides = urls.stream()
+                .filter(resource -> resource.isRemote() && !resource.isIgnored())
+                .collect(Collectors.toList());
+        if (!overrides.isEmpty()) {
+            // same css might be referenced from multiple pages (processed in parallel)
+            FileLocks.withLock(file, () -> overrideLinks(overrides));
+            // download directory lock because other files could be downloaded at the same time
+            FileLocks.withLock(file.getParentFile(), this::checkDuplicates);
         }
     }
 
     @Override
     public void gzip() {
         super.gzip();
-        // gzip also all sub-resources
+        // gzip also all sub-resources (for reference sub resources gzipped by owner)
         urls.forEach(CssSubResource::gzip);
     }
 
     @Override
     public List<CssSubResource> getSubResources() {
-        return urls;
+        // reference shows owner's sub resources (sub resource urls are relative to the same css file)
+        return owner != null ? ((CssResource) owner).getSubResources() : urls;
     }
 
     @Override
     protected ResourceMinifier getMinifier() {
-        return new CssMinifier();
+        return new CssMinifier(getServices().getCssoPool());
     }
 
     @Override
@@ -101,13 +139,7 @@ public class CssResource extends RootResource {
         return "css";
     }
 
-    private void resolveSubLinks(final String url) {
-        // css could link other css (@import), fonts and images
-        CssUtils.findLinks(file).forEach(link -> urls.add(new CssSubResource(this, link)));
-        // if css was loaded, relative resources must be also loaded
-        final String urlBase = remote ? UrlUtils.getBaseUrl(url) : null;
-        urls.forEach(relativeCssResource -> relativeCssResource.resolve(getSettings().isDownloadResources(), urlBase));
-
+    private void removeDuplicates() {
         // check for duplicates (e.g. there might be similar links to web-font files)
         // remove duplicates only with exactly the same url!, preserving different urls for the same file
         // (important for proper replacement in css)
@@ -127,6 +159,24 @@ public class CssResource extends RootResource {
         }
     }
 
+    private void overrideLinks(final List<CssSubResource> overrides) {
+        try {
+            final Map<String, String> replacements = new HashMap<>();
+            for (CssSubResource resource : overrides) {
+                if (getSettings().isApplyAntiCache()) {
+                    resource.applyMd5();
+                }
+                replacements.put(resource.getUrl(), resource.getTarget());
+            }
+            // replacing exact url positions (in one pass) to not harm minification
+            final String content = CssUtils.replaceLinks(Files.readString(file.toPath()), replacements);
+            FileUtils.writeFile(file, content);
+            contentChanged();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to update css file links", e);
+        }
+    }
+
     private void checkDuplicates() {
         // downloaded css file may appear different with existing file just after download due to
         // changed urls inside css, so checking one more time after url changes were applied
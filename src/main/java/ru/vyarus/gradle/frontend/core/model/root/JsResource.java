@@ -1,8 +1,8 @@
 package ru.vyarus.gradle.frontend.core.model.root;
 
-import org.jsoup.nodes.Element;
 import ru.vyarus.gradle.frontend.core.info.resources.root.sub.SubResourceInfo;
 import ru.vyarus.gradle.frontend.core.model.HtmlPage;
+import ru.vyarus.gradle.frontend.core.util.HtmlParser;
 import ru.vyarus.gradle.frontend.core.util.minify.JsMinifier;
 import ru.vyarus.gradle.frontend.core.util.minify.ResourceMinifier;
 
@@ -22,8 +22,8 @@ public class JsResource extends RootResource {
      */
     public static final String ATTR = "src";
 
-    public JsResource(final HtmlPage html, final Element element, final String sourceDeclaration) {
-        super(html, element, sourceDeclaration, ATTR, html.getSettings().getJsDir());
+    public JsResource(final HtmlPage html, final HtmlParser.SourceElement source) {
+        super(html, source, ATTR, html.getSettings().getJsDir());
     }
 
     @Override
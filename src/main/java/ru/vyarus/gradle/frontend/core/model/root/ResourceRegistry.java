@@ -0,0 +1,119 @@
+package ru.vyarus.gradle.frontend.core.model.root;
+
+import ru.vyarus.gradle.frontend.core.model.HtmlPage;
+import ru.vyarus.gradle.frontend.core.util.UrlUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Flow-wide registry of root resources. The same file (or url) might be referenced from multiple html pages:
+ * such resources must be processed only once (otherwise file would be processed multiple times or, even worse,
+ * minification would remove the original file, required for other pages).
+ * <p>
+ * Resources are grouped by canonical local file path or normalized url. The first registered resource in
+ * group becomes the owner (performs actual processing) and all other resources become references (mirror owner
+ * results). Pages must be registered in the same order (in one thread) in order to always select the same owners.
+ * <p>
+ * Group actions must be performed sequentially (owner first) because references rely on already performed owner
+ * actions. Different groups could be processed concurrently.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class ResourceRegistry {
+
+    private final Map<String, List<RootResource>> groups = new LinkedHashMap<>();
+    // resources, registered after the last takeRegistered() call
+    private final Map<String, List<RootResource>> registered = new LinkedHashMap<>();
+    private int references;
+
+    /**
+     * Register all page resources. Must be called before resources resolution (original urls used as keys).
+     *
+     * @param html parsed html page
+     */
+    public void register(final HtmlPage html) {
+        html.getJs().forEach(this::register);
+        html.getCss().forEach(this::register);
+    }
+
+    /**
+     * @return resource groups (owner is always the first resource in group) in registration order
+     */
+    public List<List<RootResource>> getGroups() {
+        return Collections.unmodifiableList(new ArrayList<>(groups.values()));
+    }
+
+    /**
+     * Returns groups of resources, registered since the previous call (for processing by parts). If group owner
+     * was registered before, group would contain only new references (owner must be already processed).
+     *
+     * @return new resource groups (owner, if new, is the first resource in group) in registration order
+     */
+    public List<List<RootResource>> takeRegistered() {
+        final List<List<RootResource>> res = new ArrayList<>(registered.values());
+        registered.clear();
+        return res;
+    }
+
+    /**
+     * @return count of resources processed by other resource (duplicate references)
+     */
+    public int getReferencesCount() {
+        return references;
+    }
+
+    private void register(final RootResource resource) {
+        final String key = getKey(resource);
+        final List<RootResource> group = groups.computeIfAbsent(key, k -> new ArrayList<>());
+        if (!group.isEmpty()) {
+            resource.setOwner(group.get(0));
+            references++;
+        }
+        group.add(resource);
+        registered.computeIfAbsent(key, k -> new ArrayList<>()).add(resource);
+    }
+
+    private String getKey(final RootResource resource) {
+        final String target = resource.getTarget();
+        final String location;
+        if (target.toLowerCase(Locale.ROOT).startsWith("http")) {
+            location = normalizeUrl(target);
+        } else {
+            final File file = new File(resource.getHtml().getHtmlDir(), UrlUtils.clearParams(target));
+            location = canonicalPath(file);
+        }
+        // the same file could be referenced by link and script tags (unlikely)
+        return resource.getClass().getSimpleName() + ":" + location;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private String normalizeUrl(final String url) {
+        try {
+            final URI uri = new URI(url).normalize();
+            // scheme and host are case-insensitive, fragment does not affect loaded resource
+            return new URI(uri.getScheme().toLowerCase(Locale.ROOT), uri.getUserInfo(),
+                    uri.getHost() == null ? null : uri.getHost().toLowerCase(Locale.ROOT),
+                    uri.getPort(), uri.getPath(), uri.getQuery(), null).toString();
+        } catch (Exception ex) {
+            // invalid url would fail later (download), no need to group it
+            return url;
+        }
+    }
+
+    private String canonicalPath(final File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException ex) {
+            return file.getAbsoluteFile().toPath().normalize().toString();
+        }
+    }
+}
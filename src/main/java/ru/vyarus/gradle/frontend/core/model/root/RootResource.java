@@ -3,23 +3,42 @@ package ru.vyarus.gradle.frontend.core.model.root;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.jsoup.nodes.Element;
 import ru.vyarus.gradle.frontend.core.OptimizationFlow;
+import ru.vyarus.gradle.frontend.core.OptimizationServices;
 import ru.vyarus.gradle.frontend.core.info.SizeType;
 import ru.vyarus.gradle.frontend.core.info.resources.root.ResourceInfo;
 import ru.vyarus.gradle.frontend.core.model.HtmlPage;
 import ru.vyarus.gradle.frontend.core.model.OptimizedEntity;
 import ru.vyarus.gradle.frontend.core.util.DigestUtils;
+import ru.vyarus.gradle.frontend.core.util.FileCache;
+import ru.vyarus.gradle.frontend.core.util.Fingerprint;
+import ru.vyarus.gradle.frontend.core.util.FileLocks;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.HtmlParser;
+import ru.vyarus.gradle.frontend.core.util.OutputSink;
 import ru.vyarus.gradle.frontend.core.util.ResourceLoader;
 import ru.vyarus.gradle.frontend.core.util.SizeFormatter;
 import ru.vyarus.gradle.frontend.core.util.SourceMapUtils;
 import ru.vyarus.gradle.frontend.core.util.UrlUtils;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
+import ru.vyarus.gradle.frontend.core.util.compress.Precompression;
+import ru.vyarus.gradle.frontend.core.util.minify.CachingMinifier;
 import ru.vyarus.gradle.frontend.core.util.minify.MinifyResult;
 import ru.vyarus.gradle.frontend.core.util.minify.ResourceMinifier;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Root css or js resource (declared in html page).
+ * <p>
+ * The same file (or url) might be referenced from multiple html pages. In this case, only the first resource
+ * instance (owner) performs actual processing and all other instances (references) just mirror owner's results
+ * (see {@link ResourceRegistry}). Reference actions must be called only after the same owner action.
  *
  * @author Vyacheslav Rusakov
  * @since 30.01.2023
@@ -52,9 +71,9 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
      */
     protected File sourceMap;
     /**
-     * Gzip file (may be null if not yet generated).
+     * Precompressed files (empty if not yet generated).
      */
-    protected File gzip;
+    protected final Map<Compression, File> compressed = new EnumMap<>(Compression.class);
     /**
      * Url attribute name (to support both js and css tags).
      */
@@ -72,17 +91,38 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
      * Note that script tag may miss closing tag (due to jsoup specifics).
      */
     protected final String sourceDeclaration;
+    /**
+     * Resource tag declaration start position in the original html file content.
+     */
+    protected final int sourceStart;
+    /**
+     * Resource tag declaration end position in the original html file content (exclusive).
+     */
+    protected final int sourceEnd;
+    /**
+     * Resource, performing actual processing for the same file (null if this resource is an owner).
+     */
+    protected RootResource owner;
+    /**
+     * Current file content hashes (lazy).
+     */
+    private Fingerprint fingerprint;
+    /**
+     * Local files (inside base dir) used by resource (before modifications).
+     */
+    private final List<File> sources = new ArrayList<>();
 
     public RootResource(final HtmlPage html,
-                        final Element element,
-                        final String sourceDeclaration,
+                        final HtmlParser.SourceElement source,
                         final String attr,
                         final File dir) {
         this.html = html;
-        this.element = element;
+        this.element = source.getElement();
         this.attr = attr;
         this.dir = dir;
-        this.sourceDeclaration = sourceDeclaration;
+        this.sourceDeclaration = source.getSource();
+        this.sourceStart = source.getStart();
+        this.sourceEnd = source.getEnd();
     }
 
     /**
@@ -99,6 +139,18 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
         return getHtml().getSettings();
     }
 
+    /**
+     * @return shared optimization services
+     */
+    public OptimizationServices getServices() {
+        return getHtml().getServices();
+    }
+
+    @Override
+    public RootResource getOwner() {
+        return owner;
+    }
+
     @Override
     public boolean isRemote() {
         return remote;
@@ -119,6 +171,20 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
         return sourceDeclaration;
     }
 
+    /**
+     * @return source declaration start position in html file content
+     */
+    public int getSourceStart() {
+        return sourceStart;
+    }
+
+    /**
+     * @return source declaration end position in html file content (exclusive)
+     */
+    public int getSourceEnd() {
+        return sourceEnd;
+    }
+
     @Override
     public String getTarget() {
         // trim just in case for unwanted spaces in attribute value (ok in html)
@@ -138,7 +204,12 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
 
     @Override
     public File getGzip() {
-        return gzip;
+        return compressed.get(Compression.GZIP);
+    }
+
+    @Override
+    public Map<Compression, File> getCompressed() {
+        return compressed;
     }
 
     // ACTIONS ---------------------------------------------------------------------
@@ -147,6 +218,10 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
      * Download remote resource or check local file for existence.
      */
     public void resolve() {
+        if (owner != null) {
+            mirrorResolve();
+            return;
+        }
         final String target = getTarget();
 
         if (target.toLowerCase().startsWith("http")) {
@@ -154,6 +229,10 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
         } else {
             // local file
             file = new File(html.getHtmlDir(), UrlUtils.clearParams(target));
+            if (!file.exists()) {
+                // incremental processing: file could be removed by previous processing (e.g. after minification)
+                restoreFromSource(file);
+            }
             if (!file.exists()) {
                 System.out.println("WARNING: " + FileUtils.relative(html.getFile(), file) + " (referenced from "
                         + FileUtils.relative(html.getBaseDir(), html.getFile())
@@ -163,9 +242,15 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
                 ignore("not found");
             } else {
                 final String sourceMapName = SourceMapUtils.getSourceMapReference(file);
+                sources.add(file);
                 if (sourceMapName != null) {
                     sourceMap = new File(file.getParent(), sourceMapName);
                     if (!sourceMap.exists()) {
+                        restoreFromSource(sourceMap);
+                    }
+                    if (sourceMap.exists()) {
+                        sources.add(sourceMap);
+                    } else {
                         System.out.println(file.getName() + " references not existing source map file: "
                                 + sourceMapName);
                         sourceMap = null;
@@ -196,47 +281,27 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
 
     /**
      * Minify file, if it's not already minified (has no ".min" in its name).
+     * <p>
+     * Minification is synchronized on file because the same file might be referenced from multiple pages.
      */
-    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
     public void minify() {
-        if (isIgnoreMinify()) {
+        if (owner != null) {
+            mirrorMinify();
             return;
         }
-        final long size = file.length();
-        System.out.print("Minify " + FileUtils.relative(html.getBaseDir(), file));
-        try {
-            final MinifyResult min = getMinifier().minify(file, getSettings().isGenerateSourceMaps());
-            System.out.println(", " + SizeFormatter.formatChangePercent(size, min.getMinified().length()));
-            if (min.getExtraLog() != null) {
-                System.out.println(min.getExtraLog());
-            }
-            if (min.getSourceMap() != null) {
-                System.out.println("\tSource map generated: "
-                        + FileUtils.relative(getHtml().getFile(), min.getSourceMap()));
-            }
-            SourceMapUtils.includeSources(min.getSourceMap());
-            // remove original file
-            System.out.println("\tMinified file source removed: " + file.getName());
-            file.delete();
-
-            changeFile(min.getMinified());
-            sourceMap(min.getSourceMap());
-
-            recordSize(SizeType.MODIFIED, min.getMinified().length());
-            recordChange("minified");
-        } catch (RuntimeException ex) {
-            System.out.println(" FAILED");
-            throw ex;
+        if (isIgnoreMinify()) {
+            return;
         }
+        FileLocks.withLock(file, this::doMinify);
     }
-
     /**
      * Compute SRI token and add integrity attribute.
      */
     public void applyIntegrity() {
         // if integrity tag exists then it is assumed to be already validated (during resolve)
         if (!isIgnored() && getIntegrity() == null) {
-            final String token = DigestUtils.buildSri(file, "SHA-384");
+            // for reference, token computed by owner (once)
+            final String token = (owner != null ? owner : this).getFingerprint().sri(Fingerprint.SHA_384);
             element.attr(INTEGRITY_ATTR, token);
             recordChange("integrity token applied");
         }
@@ -252,7 +317,8 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
      */
     public void applyMd5() {
         if (file != null && file.exists()) {
-            final String md5 = FileUtils.computeMd5(file);
+            // for reference, hash computed by owner (once)
+            final String md5 = (owner != null ? owner : this).getFingerprint().md5();
             // md5 might be already applied
             if (!getTarget().endsWith(md5)) {
                 changeTarget(UrlUtils.clearParams(getTarget()) + "?" + md5);
@@ -261,18 +327,86 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
     }
 
     /**
-     * Generate gzip files for html and all related resources.
+     * Generate precompressed files (gzip and other enabled encodings) for resource and all related resources.
      * IMPORTANT must be applied after possible minification (last steps!) because, obviously, any further
      * modifications would make generated gzip invalid.
      */
     public void gzip() {
+        gzipFile();
+    }
+
+    /**
+     * Generate precompressed files for resource file and its source map only (related resources ignored).
+     */
+    public void gzipFile() {
+        if (owner != null) {
+            compressed.putAll(owner.getCompressed());
+            getCompressionSkips().putAll(owner.getCompressionSkips());
+            compressed.keySet().forEach(type -> copySize(type.getSizeType()));
+            return;
+        }
+        final Precompression precompression = getServices().getPrecompression();
         if (file != null && file.exists()) {
-            gzip = FileUtils.gzip(file, html.getBaseDir());
-            recordSize(SizeType.GZIPPED, gzip.length());
+            compressed.putAll(precompression.compress(file, html.getBaseDir(), getCompressionSkips()));
+            compressed.forEach((type, res) -> recordSize(type.getSizeType(), res.length()));
         }
-        // gzip source map file (remote source maps would contain all sources)
+        // compress source map file (remote source maps would contain all sources)
         if (sourceMap != null && sourceMap.exists()) {
-            FileUtils.gzip(sourceMap, html.getBaseDir());
+            precompression.compress(sourceMap, html.getBaseDir());
+        }
+    }
+
+    /**
+     * Mark resource as reference: all processing would be performed by the owner resource (and results mirrored).
+     *
+     * @param owner resource, processing the same file
+     */
+    protected void setOwner(final RootResource owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Used for incremental processing: when any of these files changes, resource (and page) must be processed again.
+     *
+     * @return local files used by resource (before modifications; empty for remote resources)
+     */
+    public List<File> getSourceFiles() {
+        return owner != null ? owner.getSourceFiles() : Collections.unmodifiableList(sources);
+    }
+
+    /**
+     * Fingerprint computes all required hashes (anti-cache and integrity) with a single file read. Recreated on
+     * file change.
+     *
+     * @return current file fingerprint
+     */
+    protected synchronized Fingerprint getFingerprint() {
+        if (fingerprint == null || !fingerprint.getFile().equals(file)) {
+            fingerprint = new Fingerprint(file, getFingerprintAlgorithms());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return digest algorithms required for resource (anti-cache and integrity)
+     */
+    protected List<String> getFingerprintAlgorithms() {
+        final List<String> algorithms = new ArrayList<>();
+        if (getSettings().isApplyAntiCache()) {
+            algorithms.add(Fingerprint.MD5);
+        }
+        if (getSettings().isApplyIntegrity()) {
+            algorithms.add(Fingerprint.SHA_384);
+        }
+        return algorithms;
+    }
+
+    /**
+     * Must be called after direct file content modification.
+     */
+    protected synchronized void contentChanged() {
+        if (fingerprint != null) {
+            fingerprint.invalidate();
         }
     }
 
@@ -312,7 +446,9 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
                 return;
             }
             // url - just downloading it to local directory here (as-is)
-            final ResourceLoader.LoadResult load = ResourceLoader.download(target, getSettings().isPreferMinDownload(),
+            // (unique file name reserved under directory lock, so parallel downloads are not blocked)
+            final ResourceLoader.LoadResult load = ResourceLoader.download(
+                    getServices().getDownloader(), target, getSettings().isPreferMinDownload(),
                     getSettings().isDownloadSourceMaps(), dir, getFileExtension());
             file = load.getFile();
             sourceMap = load.getSourceMap();
@@ -322,6 +458,12 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
                 ignore("download fail");
             } else {
                 postProcessDownloaded(target);
+                // downloaded file might match general ignore patterns
+                if (FileUtils.isIgnored(file, getSettings().getBaseDir(), getSettings().getIgnore())) {
+                    System.out.println("Downloaded file ignored: "
+                            + FileUtils.relative(getSettings().getBaseDir(), file));
+                    ignore("downloaded ignored");
+                }
             }
         } else {
             ignore("remote resource");
@@ -332,13 +474,18 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
     private void postProcessDownloaded(final String target) {
         // if integrity tag specified - validate loaded file
         if (getIntegrity() != null) {
-            if (!DigestUtils.validateSriToken(file, getIntegrity())) {
+            // for reference, file hashes computed by owner
+            final Fingerprint hashes = (owner != null ? owner : this).getFingerprint();
+            if (!DigestUtils.validateSriToken(hashes, getIntegrity())) {
                 final String alg = DigestUtils.parseSri(getIntegrity()).getAlg();
-                final String validSri = DigestUtils.buildSri(file, alg);
-                System.out.println("Loaded file deleted because of integrity tag validation fail: "
-                        + file.getAbsolutePath());
-                // delete invalid file
-                file.delete();
+                final String validSri = hashes.sri(alg);
+                // file might be already used by other pages (reference)
+                if (owner == null) {
+                    System.out.println("Loaded file deleted because of integrity tag validation fail: "
+                            + file.getAbsolutePath());
+                    // delete invalid file
+                    file.delete();
+                }
                 throw new IllegalStateException("Integrity check failed for downloaded file " + target
                         + ":\n\tdeclared: " + getIntegrity() + "\n\tactual: " + validSri);
             }
@@ -356,11 +503,98 @@ public abstract class RootResource extends OptimizedEntity implements ResourceIn
             element.removeAttr(INTEGRITY_ATTR);
             recordChange("integrity removed");
         }
-        // downloaded file might match general ignore patterns
-        if (FileUtils.isIgnored(file, getSettings().getBaseDir(), getSettings().getIgnore())) {
-            System.out.println("Downloaded file ignored: "
-                    + FileUtils.relative(getSettings().getBaseDir(), file));
-            ignore("downloaded ignored");
+    }
+
+    /**
+     * When optimizing into output directory, file might be missing in output directory because it was removed by
+     * previous (incremental) processing (e.g. original file removed after minification). In this case file is
+     * copied from source directory.
+     *
+     * @param file missing file
+     */
+    private void restoreFromSource(final File file) {
+        final File output = getSettings().getOutputDir();
+        if (output != null) {
+            final Path path = file.toPath().toAbsolutePath().normalize();
+            final Path base = getSettings().getBaseDir().toPath().toAbsolutePath().normalize();
+            if (path.startsWith(base)) {
+                final File source = new File(getSettings().getSourceDir(), base.relativize(path).toString());
+                if (source.exists()) {
+                    FileUtils.copyFile(source, file);
+                }
+            }
+        }
+    }
+
+    private void mirrorResolve() {
+        remote = owner.isRemote();
+        file = owner.getFile();
+        sourceMap = owner.getSourceMap();
+        if (remote && file != null) {
+            // own integrity attribute validated and url updated relative to own html
+            postProcessDownloaded(getTarget());
+        }
+        if (owner.isIgnored()) {
+            ignore(owner.getIgnoreReason());
+        }
+        copySize(SizeType.ORIGINAL);
+    }
+
+    private void mirrorMinify() {
+        if (owner.getStats().containsKey(SizeType.MODIFIED)) {
+            changeFile(owner.getFile());
+            sourceMap(owner.getSourceMap());
+            copySize(SizeType.MODIFIED);
+            recordChange("minified");
+        }
+    }
+
+    private void copySize(final SizeType type) {
+        final Long size = owner.getStats().get(type);
+        if (size != null) {
+            recordSize(type, size);
+        }
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private void doMinify() {
+        final long size = file.length();
+        final String name = "Minify " + FileUtils.relative(html.getBaseDir(), file);
+        try {
+            final FileCache cache = getServices().getMinifyCache();
+            final ResourceMinifier minifier = cache == null ? getMinifier()
+                    : new CachingMinifier(getMinifier(), cache, getFingerprint());
+            // minified file is final: digests and compressed files produced while writing it
+            final OutputSink sink = new OutputSink(getFingerprintAlgorithms(),
+                    getSettings().isPrecompress() ? getServices().getPrecompression() : null);
+            final MinifyResult min = minifier.minify(file, getSettings().isGenerateSourceMaps(), sink);
+            // single output for parallel processing (to avoid mixing with other messages)
+            final StringBuilder log = new StringBuilder(name).append(", ")
+                    .append(SizeFormatter.formatChangePercent(size, min.getMinified().length()));
+            if (min.getExtraLog() != null) {
+                log.append('\n').append(min.getExtraLog());
+            }
+            if (min.getSourceMap() != null) {
+                log.append("\n\tSource map generated: ")
+                        .append(FileUtils.relative(getHtml().getFile(), min.getSourceMap()));
+            }
+            System.out.println(log);
+            SourceMapUtils.includeSources(min.getSourceMap());
+            // remove original file
+            System.out.println("\tMinified file source removed: " + file.getName());
+            file.delete();
+
+            changeFile(min.getMinified());
+            if (!min.getDigests().isEmpty()) {
+                getFingerprint().attach(min.getDigests());
+            }
+            sourceMap(min.getSourceMap());
+
+            recordSize(SizeType.MODIFIED, min.getMinified().length());
+            recordChange("minified");
+        } catch (RuntimeException ex) {
+            System.out.println(name + " FAILED");
+            throw ex;
         }
     }
 
@@ -7,8 +7,11 @@ import ru.vyarus.gradle.frontend.core.info.SizeType;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
 import ru.vyarus.gradle.frontend.core.util.ResourceLoader;
 import ru.vyarus.gradle.frontend.core.util.UrlUtils;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Resource, referenced from root css file (web font, image or other css file). Such resources must be also
@@ -41,9 +44,9 @@ public class CssSubResource extends OptimizedEntity implements SubResourceInfo {
      */
     private boolean remote;
     /**
-     * Gzip file (null before gzip generation).
+     * Precompressed files (empty before compression).
      */
-    private File gzip;
+    private final Map<Compression, File> compressed = new EnumMap<>(Compression.class);
 
     public CssSubResource(final CssResource css, final String url) {
         this.css = css;
@@ -84,7 +87,12 @@ public class CssSubResource extends OptimizedEntity implements SubResourceInfo {
 
     @Override
     public File getGzip() {
-        return gzip;
+        return compressed.get(Compression.GZIP);
+    }
+
+    @Override
+    public Map<Compression, File> getCompressed() {
+        return compressed;
     }
 
     /**
@@ -119,12 +127,13 @@ public class CssSubResource extends OptimizedEntity implements SubResourceInfo {
     }
 
     /**
-     * Generate gzip for resource.
+     * Generate precompressed files (gzip and other enabled encodings) for resource.
      */
     public void gzip() {
         if (file != null && file.exists()) {
-            gzip = FileUtils.gzip(file, css.getHtml().getBaseDir());
-            recordSize(SizeType.GZIPPED, gzip.length());
+            compressed.putAll(css.getServices().getPrecompression()
+                    .compress(file, css.getHtml().getBaseDir(), getCompressionSkips()));
+            compressed.forEach((type, res) -> recordSize(type.getSizeType(), res.length()));
         }
     }
 
@@ -151,8 +160,9 @@ public class CssSubResource extends OptimizedEntity implements SubResourceInfo {
                 ignore("ignored");
                 return;
             }
-            file = ResourceLoader.download(target, false, false,
-                    new File(css.getFile().getParentFile(), "resources")).getFile();
+            final File dir = new File(css.getFile().getParentFile(), "resources");
+            file = ResourceLoader.download(
+                    css.getServices().getDownloader(), target, false, false, dir, null).getFile();
             if (file == null) {
                 // leave link as is - no optimizations
                 System.out.println("WARNING: failed to download resource " + target);
@@ -188,14 +198,14 @@ public class CssSubResource extends OptimizedEntity implements SubResourceInfo {
         if (folder == null || folder.trim().isEmpty()) {
             folder = "resources";
         }
-        File target = new File(css.getFile().getParentFile().getAbsolutePath() + "/" + folder + "/" + name);
+        final File target = new File(css.getFile().getParentFile().getAbsolutePath() + "/" + folder + "/" + name);
         final String targetUrl = baseUrl + url;
         try {
-            target = UrlUtils.smartDownload(targetUrl, target);
+            file = UrlUtils.smartDownload(css.getServices().getDownloader(), targetUrl, target);
         } catch (Exception e) {
-            throw new IllegalStateException("Failed to load relative css resource: " + targetUrl + " (" + url + ")", e);
+            throw new IllegalStateException("Failed to load relative css resource: " + targetUrl
+                    + " (" + url + ")", e);
         }
-        file = target;
         this.target = FileUtils.relative(css.getFile(), file);
         recordChange(formatChange(url, this.target));
     }
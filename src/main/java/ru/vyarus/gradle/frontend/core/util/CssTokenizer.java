@@ -0,0 +1,228 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simplified css tokenizer, searching for urls in one linear pass. Recognized urls:
+ * <ul>
+ *     <li>url(...) with quoted or unquoted value</li>
+ *     <li>Strings inside image-set(...) (and -webkit-image-set(...))</li>
+ *     <li>String right after @import (@import "other.css")</li>
+ * </ul>
+ * Comments are skipped (commented urls are not recognized). Strings and escapes are handled, so url-like text inside
+ * strings (e.g. in content property) is not recognized.
+ * <p>
+ * Url position always points to the url value (without quotes and surrounding spaces) so it could be replaced
+ * directly.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public final class CssTokenizer {
+
+    private static final String URL = "url";
+    private static final String IMPORT = "@import";
+    private static final String[] IMAGE_SET = {"image-set", "-webkit-image-set"};
+
+    private final String content;
+    private final List<CssUtils.Link> urls = new ArrayList<>();
+    private int pos;
+    // parentheses depth of the currently opened image-set function (0 when outside), only direct strings are urls
+    private int imageSetDepth;
+    private int depth;
+    private boolean afterImport;
+
+    private CssTokenizer(final String content) {
+        this.content = content;
+    }
+
+    /**
+     * Search for urls in css. Data urls are ignored.
+     *
+     * @param content css content
+     * @return found urls with positions (in order of appearance) or empty list
+     */
+    public static List<CssUtils.Link> findUrls(final String content) {
+        final CssTokenizer tokenizer = new CssTokenizer(content);
+        tokenizer.tokenize();
+        return tokenizer.urls;
+    }
+
+    @SuppressWarnings({"checkstyle:CyclomaticComplexity", "PMD.CognitiveComplexity"})
+    private void tokenize() {
+        final int length = content.length();
+        while (pos < length) {
+            final char c = content.charAt(pos);
+            if (c == '/' && content.startsWith("/*", pos)) {
+                final int end = content.indexOf("*/", pos + 2);
+                pos = end < 0 ? length : end + 2;
+            } else if (c == '"' || c == '\'') {
+                final int start = pos + 1;
+                pos = skipString(start, c);
+                if (afterImport || imageSetDepth > 0 && depth == imageSetDepth) {
+                    addUrl(start, pos - 1);
+                }
+                afterImport = false;
+            } else if (c == '\\') {
+                // escaped char could not start anything
+                pos += 2;
+            } else if (c == '@' && content.regionMatches(true, pos, IMPORT, 0, IMPORT.length())) {
+                pos += IMPORT.length();
+                afterImport = true;
+            } else if (isNameStart(c) && (pos == 0 || !isNameChar(content.charAt(pos - 1)))) {
+                readIdentifier();
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (depth == imageSetDepth) {
+                        imageSetDepth = 0;
+                    }
+                    depth = Math.max(0, depth - 1);
+                }
+                if (!Character.isWhitespace(c)) {
+                    afterImport = false;
+                }
+                pos++;
+            }
+        }
+    }
+
+    private void readIdentifier() {
+        final int start = pos;
+        while (pos < content.length() && isNameChar(content.charAt(pos))) {
+            pos++;
+        }
+        afterImport = false;
+        final int next = skipWhitespace(pos);
+        if (next >= content.length() || content.charAt(next) != '(') {
+            return;
+        }
+        final String name = content.substring(start, pos);
+        if (URL.equalsIgnoreCase(name)) {
+            readUrl(next + 1);
+        } else if (imageSetDepth == 0 && isImageSet(name)) {
+            pos = next + 1;
+            depth++;
+            imageSetDepth = depth;
+        }
+    }
+
+    private void readUrl(final int from) {
+        final int start = skipWhitespace(from);
+        if (start >= content.length()) {
+            pos = start;
+            return;
+        }
+        final char quote = content.charAt(start);
+        if (quote == '"' || quote == '\'') {
+            pos = skipString(start + 1, quote);
+            addUrl(start + 1, pos - 1);
+            // go to function end
+            while (pos < content.length() && content.charAt(pos) != ')') {
+                pos++;
+            }
+            pos++;
+        } else {
+            pos = start;
+            while (pos < content.length() && content.charAt(pos) != ')') {
+                pos += content.charAt(pos) == '\\' ? 2 : 1;
+            }
+            pos = Math.min(pos, content.length());
+            addUrl(start, pos);
+            pos++;
+        }
+    }
+
+    /**
+     * @param from position after string opening quote
+     * @param quote quote character
+     * @return position after closing quote
+     */
+    private int skipString(final int from, final char quote) {
+        int i = from;
+        while (i < content.length()) {
+            final char c = content.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == quote || c == '\n') {
+                // new line ends string (bad string)
+                return i + 1;
+            }
+            i++;
+        }
+        return content.length() + 1;
+    }
+
+    private void addUrl(final int from, final int to) {
+        int start = from;
+        int end = Math.min(to, content.length());
+        while (start < end && Character.isWhitespace(content.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(content.charAt(end - 1))) {
+            end--;
+        }
+        final String url = unescape(content.substring(start, end));
+        // for example, buefy 3 contains "url(checkmark(var(...))"
+        if (!url.isEmpty() && !url.startsWith("data:") && !url.contains("(")) {
+            urls.add(new CssUtils.Link(url, start, end));
+        }
+    }
+
+    private int skipWhitespace(final int from) {
+        int i = from;
+        while (i < content.length() && Character.isWhitespace(content.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String unescape(final String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        final StringBuilder res = new StringBuilder(value.length());
+        int i = 0;
+        while (i < value.length()) {
+            final char c = value.charAt(i++);
+            if (c != '\\' || i == value.length()) {
+                res.append(c);
+                continue;
+            }
+            int hexEnd = i;
+            while (hexEnd < value.length() && hexEnd - i < 6 && Character.digit(value.charAt(hexEnd), 16) >= 0) {
+                hexEnd++;
+            }
+            if (hexEnd > i) {
+                final int code = Integer.parseInt(value.substring(i, hexEnd), 16);
+                res.appendCodePoint(Character.isValidCodePoint(code) ? code : '\uFFFD');
+                // single whitespace after hex escape is a part of escape
+                i = hexEnd < value.length() && Character.isWhitespace(value.charAt(hexEnd)) ? hexEnd + 1 : hexEnd;
+            } else {
+                res.append(value.charAt(i++));
+            }
+        }
+        return res.toString();
+    }
+
+    private static boolean isImageSet(final String name) {
+        for (String fn : IMAGE_SET) {
+            if (fn.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNameStart(final char c) {
+        return Character.isLetter(c) || c == '-' || c == '_';
+    }
+
+    private static boolean isNameChar(final char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+}
@@ -5,8 +5,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * CSS utilities.
@@ -16,12 +15,6 @@ import java.util.regex.Pattern;
  */
 public final class CssUtils {
 
-    /**
-     * Url extractor pattern (inside CSS).
-     */
-    public static final Pattern URL_PATTERN = Pattern.compile(
-            "url\\s*\\(\\s*['\"]?(?<url>[^'\")]*)\\s*['\"]?", Pattern.DOTALL);
-
     private CssUtils() {
     }
 
@@ -49,15 +42,78 @@ public final class CssUtils {
      */
     public static List<String> findLinks(final String content) {
         final List<String> res = new ArrayList<>();
-        final Matcher matcher = URL_PATTERN.matcher(content);
-        while (matcher.find()) {
-            final String url = matcher.group("url");
-            // for example, buefy 3 contains "url(checkmark(var(...))"
-            if (!url.startsWith("data:") && !url.contains("(")) {
-                res.add(url.trim());
+        findLinkPositions(content).forEach(link -> res.add(link.getUrl()));
+        return res;
+    }
+
+    /**
+     * Searches for remote urls in css file with exact url positions. Data urls ignored.
+     * See {@link CssTokenizer} for recognized urls.
+     *
+     * @param content css file content
+     * @return found urls with positions or empty list
+     */
+    public static List<Link> findLinkPositions(final String content) {
+        return CssTokenizer.findUrls(content);
+    }
+
+    /**
+     * Replace urls inside css in one pass. Only exact url tokens (inside "url(...)") are replaced, so url which is
+     * a part of another url could not be corrupted.
+     *
+     * @param content      css file content
+     * @param replacements replacement urls (original url - new url)
+     * @return css content with replaced urls (or the same instance if nothing replaced)
+     */
+    public static String replaceLinks(final String content, final Map<String, String> replacements) {
+        final StringBuilder res = new StringBuilder(content.length());
+        int pos = 0;
+        for (Link link : findLinkPositions(content)) {
+            final String target = replacements.get(link.getUrl());
+            if (target != null) {
+                res.append(content, pos, link.getStart()).append(target);
+                pos = link.getEnd();
             }
         }
+        if (pos == 0) {
+            return content;
+        }
+        return res.append(content, pos, content.length()).toString();
+    }
 
-        return res;
+    /**
+     * Url found in css.
+     */
+    public static class Link {
+        private final String url;
+        private final int start;
+        private final int end;
+
+        public Link(final String url, final int start, final int end) {
+            this.url = url;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return url (without quotes)
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return url start position in css
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return url end position in css (exclusive)
+         */
+        public int getEnd() {
+            return end;
+        }
     }
 }
@@ -2,8 +2,6 @@ package ru.vyarus.gradle.frontend.core.util;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.Base64;
 
@@ -50,9 +48,19 @@ public final class DigestUtils {
      * @see <a href="https://developer.mozilla.org/en-US/docs/Web/Security/Subresource_Integrity">docs</a>
      */
     public static boolean validateSriToken(final File file, final String integrity) {
+        return validateSriToken(new Fingerprint(file), integrity);
+    }
+
+    /**
+     * Same as {@link #validateSriToken(File, String)}, but using (possibly already computed) file fingerprint.
+     *
+     * @param fingerprint file fingerprint
+     * @param integrity   integrity string
+     * @return true if validation token correct (from integrity), false otherwise
+     */
+    public static boolean validateSriToken(final Fingerprint fingerprint, final String integrity) {
         final SriToken token = parseSri(integrity);
-        final byte[] hash = hash(file, token.getAlg());
-        return Arrays.equals(token.getToken(), hash);
+        return Arrays.equals(token.getToken(), fingerprint.digest(token.getAlg()));
     }
 
     /**
@@ -62,9 +70,7 @@ public final class DigestUtils {
      * @see <a href="https://developer.mozilla.org/en-US/docs/Web/Security/Subresource_Integrity">docs</a>
      */
     public static String buildSri(final File file, final String alg) {
-        final byte[] hash = hash(file, alg);
-        final String res = Base64.getEncoder().encodeToString(hash);
-        return alg.replace("-", "").toLowerCase() + "-" + res;
+        return new Fingerprint(file, alg).sri(alg);
     }
 
     /**
@@ -75,18 +81,7 @@ public final class DigestUtils {
      * @return hash bytes (better for further manipulations, comparing to pure string)
      */
     public static byte[] hash(final File file, final String alg) {
-        final byte[] data;
-        try {
-            data = Files.readAllBytes(file.toPath());
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to read file " + file.getAbsolutePath(), e);
-        }
-        try {
-            return MessageDigest.getInstance(alg).digest(data);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to calculate " + alg + " hash for file "
-                    + file.getAbsolutePath(), e);
-        }
+        return new Fingerprint(file, alg).digest(alg);
     }
 
     /**
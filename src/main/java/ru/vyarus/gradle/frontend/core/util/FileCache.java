@@ -0,0 +1,396 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Persistent files cache (shared between builds). Used for downloads (the same remote resources are not
+ * downloaded again on each clean build; versioned cdn urls are immutable, so there is no need for re-validation)
+ * and minification results (see {@link ru.vyarus.gradle.frontend.core.util.minify.CachingMinifier}).
+ * <p>
+ * Entry is stored as two files: content (named by SHA-256 of key, e.g. url) and SHA-256 hash of content
+ * (".sha256" file, written last). Content is verified on each cache hit (damaged entries are ignored and removed).
+ * Hashes are computed while copying files (content is never loaded into memory).
+ * <p>
+ * Cache could be used by multiple concurrent builds: entry is loaded and published under entry lock (jvm lock
+ * plus entry lock file), so operations with different entries are not blocked. Stored content is copied (and
+ * hashed) into temporary files without locking and published with atomic moves, so readers never see partial
+ * entries. Only eviction locks entire cache directory.
+ * <p>
+ * Eviction: entries, not used longer than max age, are removed and, if cache size is still above max size,
+ * the least recently used entries are removed.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public class FileCache {
+
+    /**
+     * Default maximum cache size (512 MB).
+     */
+    public static final long DEFAULT_MAX_SIZE = 512L * 1024 * 1024;
+    /**
+     * Default maximum age of not used cache entry.
+     */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+
+    private static final String HASH_EXT = ".sha256";
+    private static final String LOCK_EXT = ".lock";
+    private static final String TMP_EXT = ".tmp";
+    private static final String SHA_256 = "SHA-256";
+    // temp files of interrupted stores
+    private static final Duration TMP_MAX_AGE = Duration.ofHours(1);
+    // file locks are held by jvm, so threads of the same jvm must be synchronized separately
+    private static final Map<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] ENTRY_LOCKS = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            ENTRY_LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private final File dir;
+    private final long maxSize;
+    private final Duration maxAge;
+
+    /**
+     * Create cache with default limits.
+     *
+     * @param dir cache directory
+     */
+    public FileCache(final File dir) {
+        this(dir, DEFAULT_MAX_SIZE, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * Create cache.
+     *
+     * @param dir     cache directory
+     * @param maxSize maximum cache size in bytes
+     * @param maxAge  maximum age of not used cache entry
+     */
+    public FileCache(final File dir, final long maxSize, final Duration maxAge) {
+        this.dir = dir.getAbsoluteFile();
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @return cache directory
+     */
+    public File getDir() {
+        return dir;
+    }
+
+    /**
+     * Load cached content into target file. Cached content verified (streamed hash) while copying.
+     * <p>
+     * Performed under entry lock, so entry could not be modified or removed by concurrent store (or eviction) in
+     * the middle of verification.
+     *
+     * @param id     entry key (e.g. url)
+     * @param target target file (overridden)
+     * @return true if cached content found and copied into target file, false otherwise
+     */
+    public boolean load(final String id, final File target) {
+        final String key = sha256(id.getBytes(StandardCharsets.UTF_8));
+        final File hash = new File(dir, key + HASH_EXT);
+        // quick check without locking
+        if (!hash.exists()) {
+            return false;
+        }
+        return lockedEntry(key, () -> loadEntry(id, hash, target));
+    }
+
+    /**
+     * Read cached content into memory (for small entries, which content is anyway required in memory). Content
+     * is verified before use (under entry lock).
+     *
+     * @param id entry key
+     * @return cached content or null if not found (or damaged)
+     */
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    public byte[] read(final String id) {
+        final String key = sha256(id.getBytes(StandardCharsets.UTF_8));
+        final File hash = new File(dir, key + HASH_EXT);
+        if (!hash.exists()) {
+            return null;
+        }
+        return lockedEntry(key, () -> readEntry(id, hash));
+    }
+
+    /**
+     * @param id entry key (e.g. url)
+     * @return true if cache contains entry (content is not verified)
+     */
+    public boolean contains(final String id) {
+        return new File(dir, sha256(id.getBytes(StandardCharsets.UTF_8)) + HASH_EXT).exists();
+    }
+
+    /**
+     * Store file in cache. Content hash is computed while copying (file is read once). Content is copied into
+     * temporary files without locking and only published (moved) under entry lock.
+     *
+     * @param id     entry key (e.g. downloaded url)
+     * @param source file to store
+     */
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    public void store(final String id, final File source) {
+        final String key = sha256(id.getBytes(StandardCharsets.UTF_8));
+        File tmp = null;
+        File tmpHash = null;
+        try {
+            dir.mkdirs();
+            tmp = File.createTempFile(key, TMP_EXT, dir);
+            tmpHash = File.createTempFile(key, TMP_EXT, dir);
+            final String sha = copy(source, tmp);
+            Files.writeString(tmpHash.toPath(), sha, StandardCharsets.UTF_8);
+            publish(key, tmp, tmpHash);
+        } catch (IOException | IllegalStateException ex) {
+            // cache failure must not fail build
+            System.out.println("WARNING: failed to store " + id + " in cache: " + ex.getMessage());
+        } finally {
+            // not existing after successful publication
+            if (tmp != null) {
+                tmp.delete();
+            }
+            if (tmpHash != null) {
+                tmpHash.delete();
+            }
+        }
+    }
+
+    /**
+     * Remove outdated entries and least recently used entries (if cache exceeds max size). Also removes temp files
+     * of interrupted stores and lock files of removed entries.
+     */
+    public void evict() {
+        if (!dir.exists()) {
+            return;
+        }
+        locked(() -> {
+            removeStaleFiles();
+            final File[] files = dir.listFiles((d, name) -> name.endsWith(HASH_EXT));
+            final List<File> entries = new ArrayList<>();
+            final long outdated = System.currentTimeMillis() - maxAge.toMillis();
+            long size = 0;
+            for (File hash : files == null ? new File[0] : files) {
+                if (hash.lastModified() < outdated) {
+                    remove(hash);
+                } else {
+                    entries.add(hash);
+                    size += getContent(hash).length();
+                }
+            }
+            if (size > maxSize) {
+                entries.sort(Comparator.comparingLong(File::lastModified));
+                for (File hash : entries) {
+                    if (size <= maxSize) {
+                        break;
+                    }
+                    size -= getContent(hash).length();
+                    remove(hash);
+                }
+            }
+            return null;
+        });
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private <T> T locked(final Supplier<T> action) {
+        dir.mkdirs();
+        final ReentrantLock lock = LOCKS.computeIfAbsent(dir.getAbsolutePath(), key -> new ReentrantLock());
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(new File(dir, ".lock").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            return action.get();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to lock cache " + dir.getAbsolutePath(), ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lock single entry: striped jvm lock (threads of the same jvm) and entry lock file (other builds).
+     *
+     * @param key    entry key
+     * @param action action to perform under lock
+     * @param <T>    result type
+     * @return action result
+     */
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private <T> T lockedEntry(final String key, final Supplier<T> action) {
+        dir.mkdirs();
+        final ReentrantLock lock = ENTRY_LOCKS[Math.floorMod(key.hashCode(), STRIPES)];
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(new File(dir, key + LOCK_EXT).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            return action.get();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to lock cache entry " + key, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(final String key, final File tmp, final File tmpHash) {
+        lockedEntry(key, () -> {
+            try {
+                Files.move(tmp.toPath(), new File(dir, key).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmpHash.toPath(), new File(dir, key + HASH_EXT).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+            return null;
+        });
+    }
+
+    private Void remove(final File hash) {
+        final String name = hash.getName();
+        // under entry lock to not remove just stored entry partially
+        return lockedEntry(name.substring(0, name.length() - HASH_EXT.length()), () -> removeEntry(hash));
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private Void removeEntry(final File hash) {
+        // hash first to "disable" entry
+        hash.delete();
+        getContent(hash).delete();
+        return null;
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private void removeStaleFiles() {
+        final long outdated = System.currentTimeMillis() - TMP_MAX_AGE.toMillis();
+        final File[] tmps = dir.listFiles((d, name) -> name.endsWith(TMP_EXT));
+        for (File tmp : tmps == null ? new File[0] : tmps) {
+            // recent files could be used by concurrent store
+            if (tmp.lastModified() < outdated) {
+                tmp.delete();
+            }
+        }
+        final File[] locks = dir.listFiles((d, name) -> name.endsWith(LOCK_EXT) && name.length() > LOCK_EXT.length());
+        for (File lock : locks == null ? new File[0] : locks) {
+            final String name = lock.getName();
+            if (lock.lastModified() < outdated
+                    && !new File(dir, name.substring(0, name.length() - LOCK_EXT.length())).exists()) {
+                lock.delete();
+            }
+        }
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private boolean loadEntry(final String id, final File hash, final File target) {
+        try {
+            if (!hash.exists()) {
+                // removed by concurrent eviction
+                return false;
+            }
+            final String expected = Files.readString(hash.toPath(), StandardCharsets.UTF_8).trim();
+            target.getParentFile().mkdirs();
+            if (!expected.equals(copy(getContent(hash), target))) {
+                System.out.println("WARNING: damaged cache entry removed: " + id);
+                target.delete();
+                removeEntry(hash);
+                return false;
+            }
+            // last access time used for eviction
+            hash.setLastModified(System.currentTimeMillis());
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    private byte[] readEntry(final String id, final File hash) {
+        try {
+            if (!hash.exists()) {
+                // removed by concurrent eviction
+                return null;
+            }
+            final String expected = Files.readString(hash.toPath(), StandardCharsets.UTF_8).trim();
+            final byte[] data = Files.readAllBytes(getContent(hash).toPath());
+            if (!expected.equals(sha256(data))) {
+                System.out.println("WARNING: damaged cache entry removed: " + id);
+                removeEntry(hash);
+                return null;
+            }
+            // last access time used for eviction
+            hash.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Copy file, computing SHA-256 of its content.
+     *
+     * @param source source file
+     * @param target target file (overridden)
+     * @return SHA-256 hash of copied content in hex form
+     * @throws IOException on copy error
+     */
+    private static String copy(final File source, final File target) throws IOException {
+        final MessageDigest md = createDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source.toPath()), md)) {
+            Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return toHex(md.digest());
+    }
+
+    private File getContent(final File hash) {
+        final String name = hash.getName();
+        return new File(hash.getParentFile(), name.substring(0, name.length() - HASH_EXT.length()));
+    }
+
+    private static String sha256(final byte[] data) {
+        return toHex(createDigest().digest(data));
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(SHA_256);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to calculate " + SHA_256 + " hash", ex);
+        }
+    }
+
+    private static String toHex(final byte[] hash) {
+        final StringBuilder res = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            res.append(String.format("%02x", b));
+        }
+        return res.toString();
+    }
+}
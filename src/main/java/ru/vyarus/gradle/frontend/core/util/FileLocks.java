@@ -0,0 +1,63 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import java.io.File;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * File locks for parallel optimization. The same resource (or download directory) might be referenced from multiple
+ * html pages, processed concurrently, and so file modifications must be serialized.
+ * <p>
+ * Striped locks used (lock selected by path hash) to avoid unlimited locks map growth. Locks are re-entrant, but
+ * must not be nested for different files (different files might share the same lock and nesting might lead
+ * to deadlock).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public final class FileLocks {
+
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private FileLocks() {
+    }
+
+    /**
+     * Execute action under file lock.
+     *
+     * @param file   file (or directory) to lock
+     * @param action action to execute
+     */
+    public static void withLock(final File file, final Runnable action) {
+        withLock(file, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Execute action under file lock.
+     *
+     * @param file   file (or directory) to lock
+     * @param action action to execute
+     * @param <T>    result type
+     * @return action result
+     */
+    public static <T> T withLock(final File file, final Supplier<T> action) {
+        final ReentrantLock lock = LOCKS[Math.floorMod(
+                file.getAbsoluteFile().toPath().normalize().hashCode(), STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -2,20 +2,19 @@ package ru.vyarus.gradle.frontend.core.util;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.io.input.ReversedLinesFileReader;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
+import ru.vyarus.gradle.frontend.core.util.compress.Precompression;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.security.MessageDigest;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * File utilities.
@@ -71,6 +70,31 @@ public final class FileUtils {
         return new File(dir, target);
     }
 
+    /**
+     * Same as {@link #selectNotExistingFile(File, String)}, but selected file is created (empty) under directory
+     * lock, so concurrent threads would never select the same name. Lock is held only for name selection, so file
+     * content could be written (e.g. downloaded) without blocking other threads, writing into the same directory.
+     *
+     * @param dir  file directory
+     * @param name file name
+     * @return created (empty) file
+     */
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    public static File reserveNotExistingFile(final File dir, final String name) {
+        return FileLocks.withLock(dir, () -> {
+            dir.mkdirs();
+            final File res = selectNotExistingFile(dir, name);
+            try {
+                if (!res.createNewFile()) {
+                    throw new IOException("File already exists");
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to create file " + res.getAbsolutePath(), ex);
+            }
+            return res;
+        });
+    }
+
     /**
      * Common convention to have ".min" before file extension (indicates minified file).
      *
@@ -151,19 +175,27 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * Copy file (overwriting existing target file). Modification date is preserved.
+     *
+     * @param source source file
+     * @param target target file
+     */
+    public static void copyFile(final File source, final File target) {
+        try {
+            org.apache.commons.io.FileUtils.copyFile(source, target);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to copy file " + source.getAbsolutePath() + " into "
+                    + target.getAbsolutePath(), e);
+        }
+    }
+
     /**
      * @param file file
      * @return md5 of file content
      */
     public static String computeMd5(final File file) {
-        final byte[] data;
-        try {
-            data = Files.readAllBytes(file.toPath());
-            final byte[] hash = MessageDigest.getInstance("MD5").digest(data);
-            return new BigInteger(1, hash).toString(16);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to calculate MD5 for file " + file.getAbsolutePath(), e);
-        }
+        return new Fingerprint(file, Fingerprint.MD5).md5();
     }
 
     /**
@@ -191,33 +223,18 @@ public final class FileUtils {
     /**
      * Create gzip file for specified source: "sourcefilename.gz'. Avoids gzip generation if gzip file already exists
      * (and not older than source file).
+     * <p>
+     * Gzip generation is synchronized on file because the same file might be referenced from multiple pages
+     * (processed in parallel).
      *
      * @param source  source file for gzip
      * @param baseDir "context" base directory to show file paths in logs relative to its location
      * @return gzip file (could be already existing)
+     * @see Precompression for other encodings
      */
     public static File gzip(final File source, final File baseDir) {
-        final File target = new File(source.getAbsolutePath() + ".gz");
-        if (target.exists() && target.lastModified() >= source.lastModified()) {
-            // avoid redundant re-generation
-            return target;
-        }
-        if (baseDir != null) {
-            System.out.print("Gzip " + relative(baseDir, source));
-        }
-        try {
-            final File gzip = gzip(source);
-            if (baseDir != null) {
-                System.out.println(", " + SizeFormatter.formatChangePercent(source.length(), gzip.length()));
-            }
-            return gzip;
-        } catch (RuntimeException ex) {
-            if (baseDir != null) {
-                // newline
-                System.out.println();
-            }
-            throw ex;
-        }
+        return new Precompression(Collections.singletonList(Compression.GZIP.create(
+                Compression.GZIP.getDefaultLevel()))).compress(source, baseDir).get(Compression.GZIP);
     }
 
     /**
@@ -227,17 +244,12 @@ public final class FileUtils {
      * @return gzip file
      */
     public static File gzip(final File source) {
-        final File target = new File(source.getAbsolutePath() + ".gz");
+        final File target = Compression.GZIP.getTarget(source);
         if (target.exists() && target.lastModified() > source.lastModified()) {
             // avoid redundant  re-generation
             return target;
         }
-        try (CustomGzipStream gos = new CustomGzipStream(Files.newOutputStream(target.toPath()))) {
-            Files.copy(source.toPath(), gos);
-        } catch (Exception ex) {
-            throw new IllegalStateException("Failed to gzip file " + source.getAbsolutePath(), ex);
-        }
-        return target;
+        return Precompression.compress(Compression.GZIP.create(Compression.GZIP.getDefaultLevel()), source);
     }
 
     /**
@@ -281,15 +293,4 @@ public final class FileUtils {
         }
         return false;
     }
-
-    /**
-     * Gzip output stream with max gzip compression level.
-     */
-    private static class CustomGzipStream extends GZIPOutputStream {
-
-        CustomGzipStream(final OutputStream out) throws IOException {
-            super(out);
-            def.setLevel(9);
-        }
-    }
 }
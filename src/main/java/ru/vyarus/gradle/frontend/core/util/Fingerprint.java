@@ -0,0 +1,175 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * File content fingerprint: all required digests (e.g. MD5 for anti-cache and SHA-384 for integrity) are computed
+ * with a single file read (streamed, without loading entire file into memory).
+ * <p>
+ * Computed digests are memoized until file content changes. Content change is detected by file size and last
+ * modification date, but entity modifying file directly should also call {@link #invalidate()} (modification
+ * date precision might be not enough).
+ * <p>
+ * When a digest, not declared in constructor, is requested, file is read again (and all declared digests computed
+ * too, if not computed yet).
+ * <p>
+ * Digests, computed during file writing, could be attached directly with {@link #attach(Map)}.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class Fingerprint {
+
+    /**
+     * MD5 algorithm (used for anti-cache).
+     */
+    public static final String MD5 = "MD5";
+    /**
+     * SHA-384 algorithm (used for integrity tokens).
+     */
+    public static final String SHA_384 = "SHA-384";
+    /**
+     * SHA-256 algorithm (used for minification cache).
+     */
+    public static final String SHA_256 = "SHA-256";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final Set<String> algorithms;
+    private final Map<String, byte[]> digests = new HashMap<>();
+    private long length = -1;
+    private long modified = -1;
+
+    /**
+     * Create fingerprint.
+     *
+     * @param file       file
+     * @param algorithms digest algorithms, computed together (on first digest request)
+     */
+    public Fingerprint(final File file, final String... algorithms) {
+        this(file, Arrays.asList(algorithms));
+    }
+
+    /**
+     * Create fingerprint.
+     *
+     * @param file       file
+     * @param algorithms digest algorithms, computed together (on first digest request)
+     */
+    public Fingerprint(final File file, final Collection<String> algorithms) {
+        this.file = file;
+        this.algorithms = new LinkedHashSet<>(algorithms);
+    }
+
+    /**
+     * @return fingerprinted file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @param alg digest algorithm (e.g. SHA-384)
+     * @return file content digest
+     */
+    public synchronized byte[] digest(final String alg) {
+        if (file.length() != length || file.lastModified() != modified) {
+            invalidate();
+        }
+        if (!digests.containsKey(alg)) {
+            algorithms.add(alg);
+            compute();
+        }
+        return digests.get(alg);
+    }
+
+    /**
+     * @return MD5 of file content (hex)
+     */
+    public String md5() {
+        return new BigInteger(1, digest(MD5)).toString(16);
+    }
+
+    /**
+     * @param alg token algorithm (e.g. SHA-384)
+     * @return integrity token
+     * @see <a href="https://developer.mozilla.org/en-US/docs/Web/Security/Subresource_Integrity">docs</a>
+     */
+    public String sri(final String alg) {
+        return alg.replace("-", "").toLowerCase() + "-" + Base64.getEncoder().encodeToString(digest(alg));
+    }
+
+    /**
+     * Use digests, computed while file was written (see {@link OutputSink}), so file would not be read back.
+     * Must be called right after file writing.
+     *
+     * @param computed computed digests (algorithm - digest)
+     */
+    public synchronized void attach(final Map<String, byte[]> computed) {
+        digests.clear();
+        digests.putAll(computed);
+        algorithms.addAll(computed.keySet());
+        length = file.length();
+        modified = file.lastModified();
+    }
+
+    /**
+     * Reset computed digests (must be called after file modification).
+     */
+    public synchronized void invalidate() {
+        digests.clear();
+        length = -1;
+        modified = -1;
+    }
+
+    private void compute() {
+        final List<String> required = new ArrayList<>();
+        final List<MessageDigest> mds = new ArrayList<>();
+        try {
+            for (String alg : algorithms) {
+                if (!digests.containsKey(alg)) {
+                    required.add(alg);
+                    mds.add(MessageDigest.getInstance(alg));
+                }
+            }
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unsupported hash algorithm for file " + file.getAbsolutePath(), ex);
+        }
+        final long fileLength = file.length();
+        final long fileModified = file.lastModified();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read = in.read(buffer);
+            while (read >= 0) {
+                for (MessageDigest md : mds) {
+                    md.update(buffer, 0, read);
+                }
+                read = in.read(buffer);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to calculate " + required + " hash for file "
+                    + file.getAbsolutePath(), ex);
+        }
+        for (int i = 0; i < required.size(); i++) {
+            digests.put(required.get(i), mds.get(i).digest());
+        }
+        length = fileLength;
+        modified = fileModified;
+    }
+}
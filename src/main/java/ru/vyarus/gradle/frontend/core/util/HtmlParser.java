@@ -11,7 +11,6 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -29,7 +28,8 @@ public final class HtmlParser {
      * Parse html file (or template, containing html tags). Jsoup is good at parsing html-like structures - it would
      * correctly find resource tags. But, for non-html templates, jsoup can't be used to modify resource tags
      * (because it may corrupt template by redundant tags addition or damaging template-specific constructs).
-     * To work around it, exact source tag declaration is extracted so later updated tag could be simply replaced.
+     * To work around it, exact source tag declaration is extracted (with its position in file content) so later
+     * updated tag could be simply replaced.
      * <p>
      * Currently, there is problem with end &lt;/script&gt; tag detection: source string would not contain it
      * (must be counted in further replacements).
@@ -38,72 +38,96 @@ public final class HtmlParser {
      * @return parse result (with detected resource tags)
      */
     public static ParseResult parse(final File file) {
+        final String content = readHtml(file);
+        final Parser parser = Parser.htmlParser();
+        // required to extract exact source location
+        parser.setTrackPosition(true);
+        // without parser.setTrackErrors() parser will NEVER fail with error
+        final Document doc = Jsoup.parse(content, file.getAbsolutePath(), parser);
+        final List<SourceElement> css = new ArrayList<>();
+        // ignore icon links
+        doc.select("link[href]").forEach(element -> {
+            if ("stylesheet".equalsIgnoreCase(element.attr("rel"))) {
+                css.add(sourceElement(content, element));
+            }
+        });
+
+        final List<SourceElement> js = new ArrayList<>();
+        doc.select("script[src]").forEach(element -> js.add(sourceElement(content, element)));
+
+        return new ParseResult(doc, content, css, js);
+    }
+
+    /**
+     * Lightweight alternative to {@link #parse(File)}: resource tags are detected by streaming scanner without
+     * document tree building (see {@link TagScanner}). Parse result would not contain document.
+     *
+     * @param file html (template) file
+     * @return scan result (with detected resource tags)
+     */
+    public static ParseResult scan(final File file) {
+        return TagScanner.scan(readHtml(file));
+    }
+
+    /**
+     * Read html file content exactly as it is (without line endings normalization), so tag positions, detected by
+     * parser, could be used for content modification. File is read only once: the same content is parsed by jsoup,
+     * used for tags source extraction and later for tags replacement.
+     *
+     * @param file html (template) file
+     * @return file content
+     */
+    public static String readHtml(final File file) {
         try {
-            final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
-            final Parser parser = Parser.htmlParser();
-            // required to extract exact source location
-            parser.setTrackPosition(true);
-            // without parser.setTrackErrors() parser will NEVER fail with error
-            final Document doc = Jsoup.parse(file, StandardCharsets.UTF_8.name(), file.getAbsolutePath(), parser);
-            final List<SourceElement> css = new ArrayList<>();
-            // ignore icon links
-            doc.select("link[href]").forEach(element -> {
-                if ("stylesheet".equalsIgnoreCase(element.attr("rel"))) {
-                    css.add(new SourceElement(element, elementSource(lines, element)));
-                }
-            });
-
-            final List<SourceElement> js = new ArrayList<>();
-            doc.select("script[src]").forEach(element -> js.add(
-                    new SourceElement(element, elementSource(lines, element))));
-
-            return new ParseResult(doc, css, js);
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to parse html: " + file.getAbsolutePath(), e);
         }
     }
 
-    private static String elementSource(final List<String> lines, final Element element) {
-        final Range.Position start = element.sourceRange().start();
+    private static SourceElement sourceElement(final String content, final Element element) {
         // it should be endSourceRange() for elements with closing tags (script), but jsoup does not track it
-        final Range.Position end = element.sourceRange().end();
-        // going from end because it is simpler to cut-off line end first (when both points on the same line)
-        int endLine = end.lineNumber() - 1;
-        final List<String> res = new ArrayList<>();
-        res.add(lines.get(endLine).substring(0, end.columnNumber() - 1));
-
-        while (endLine > start.lineNumber() - 1) {
-            // adding lines between start and end (-1 not required!)
-            res.add(lines.get(--endLine));
-        }
-
-        final String startLine = res.remove(res.size() - 1);
-        res.add(startLine.substring(start.columnNumber() - 1));
-        Collections.reverse(res);
-        return String.join(System.lineSeparator(), res);
+        final Range range = element.sourceRange();
+        final int start = range.start().pos();
+        final int end = range.end().pos();
+        return new SourceElement(element, content.substring(start, end), start, end);
     }
 
     /**
-     * Html parse result: contains jsoup document tree and extracted js and css elements.
+     * Html parse result: contains jsoup document tree, file content and extracted js and css elements.
      */
     public static class ParseResult {
         private final Document document;
+        private final String content;
         private final List<SourceElement> css;
         private final List<SourceElement> js;
 
-        public ParseResult(final Document document, final List<SourceElement> css, final List<SourceElement> js) {
+        public ParseResult(final Document document,
+                           final String content,
+                           final List<SourceElement> css,
+                           final List<SourceElement> js) {
             this.document = document;
+            this.content = content;
             this.css = css;
             this.js = js;
         }
 
         /**
-         * @return parsed jsoup document
+         * @return parsed jsoup document or null if streaming scanner used
          */
         public Document getDocument() {
             return document;
         }
 
+        /**
+         * Elements positions are relative to this content.
+         *
+         * @return parsed file content (exactly as in file)
+         */
+        public String getContent() {
+            return content;
+        }
+
         /**
          * @return css resource reference tags
          */
@@ -125,10 +149,14 @@ public final class HtmlParser {
     public static class SourceElement {
         private final Element element;
         private final String source;
+        private final int start;
+        private final int end;
 
-        public SourceElement(final Element element, final String source) {
+        public SourceElement(final Element element, final String source, final int start, final int end) {
             this.element = element;
             this.source = source;
+            this.start = start;
+            this.end = end;
         }
 
         /**
@@ -146,5 +174,19 @@ public final class HtmlParser {
         public String getSource() {
             return source;
         }
+
+        /**
+         * @return tag declaration start position in file content
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return tag declaration end position in file content (exclusive)
+         */
+        public int getEnd() {
+            return end;
+        }
     }
 }
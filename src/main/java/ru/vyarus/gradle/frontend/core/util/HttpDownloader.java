@@ -0,0 +1,300 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Download engine based on {@link HttpClient}: connections are pooled and re-used (keep-alive) and HTTP/2
+ * multiplexing is used when supported by server (most CDNs support it). Number of simultaneous requests to the
+ * same host is limited (like browsers do) in order to not be throttled by CDN.
+ * <p>
+ * Sync methods could be called from multiple threads. Async methods are useful for downloads fan-out (e.g. for
+ * source map sources).
+ * <p>
+ * Redirects are followed manually to be able to resolve actual url (see {@link #followRedirects(String)}).
+ * <p>
+ * When {@link FileCache} configured, cache is checked before downloading (and downloaded files stored in cache).
+ * Redirects are not cached because urls with redirects are usually not versioned (e.g. "latest version" links):
+ * content, downloaded after redirect, is not stored in cache. So cached url is known to have no redirects (see
+ * {@link #isCached(String)}).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public class HttpDownloader implements AutoCloseable {
+
+    /**
+     * Default maximum number of simultaneous requests to the same host.
+     */
+    public static final int DEFAULT_HOST_CONCURRENCY = 6;
+
+    private static final HttpDownloader DEFAULT = new HttpDownloader(DEFAULT_HOST_CONCURRENCY);
+    private static final String USER_AGENT = "User-Agent";
+    private static final String LOCATION = "Location";
+    private static final int MAX_REDIRECTS = 10;
+    private static final int REDIRECT_TIMEOUT = 10;
+    private static final int HTTP_ERROR = 400;
+
+    private final int hostConcurrency;
+    private final FileCache cache;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Create downloader without cache.
+     *
+     * @param hostConcurrency maximum number of simultaneous requests to the same host
+     * @throws java.lang.IllegalStateException if provided value is less than 1
+     */
+    public HttpDownloader(final int hostConcurrency) throws IllegalStateException {
+        this(hostConcurrency, null);
+    }
+
+    /**
+     * Create downloader.
+     *
+     * @param hostConcurrency maximum number of simultaneous requests to the same host
+     * @param cache           downloads cache (may be null)
+     * @throws java.lang.IllegalStateException if provided value is less than 1
+     */
+    public HttpDownloader(final int hostConcurrency, final FileCache cache) throws IllegalStateException {
+        if (hostConcurrency < 1) {
+            throw new IllegalStateException("Download concurrency must be a positive number: " + hostConcurrency);
+        }
+        this.hostConcurrency = hostConcurrency;
+        this.cache = cache;
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "frontend-download-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(3))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Shared instance, used by static download utilities (when no downloader provided directly).
+     *
+     * @return default downloader instance
+     */
+    public static HttpDownloader getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return maximum number of simultaneous requests to the same host
+     */
+    public int getHostConcurrency() {
+        return hostConcurrency;
+    }
+
+    /**
+     * @return downloads cache or null
+     */
+    public FileCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Only urls without redirects are cached, so for cached url there is no need to check redirects.
+     *
+     * @param url url to check
+     * @return true if url content is cached (download would not require network access)
+     */
+    public boolean isCached(final String url) {
+        if (cache == null) {
+            return false;
+        }
+        try {
+            return cache.contains(new URI(url).normalize().toString());
+        } catch (URISyntaxException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Follows url redirects in order to know the actual url. HEAD requests used to avoid body downloading (GET used
+     * only if server rejects HEAD request; response body is not read).
+     *
+     * @param url url to check redirects on
+     * @return url after the last redirect or original url if no redirects required
+     * @throws java.lang.IllegalStateException on error
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public String followRedirects(final String url) throws IllegalStateException {
+        try {
+            // remove ../ parts in url
+            URI target = new URI(url).normalize();
+            for (int i = 0; i < MAX_REDIRECTS; i++) {
+                final String location = getRedirect(probe(target));
+                if (location == null) {
+                    return i == 0 ? url : target.toString();
+                }
+                final URI next = target.resolve(location);
+                System.out.println("Redirect resolved: " + target + " --> " + next);
+                target = next;
+            }
+            throw new IllegalStateException("Too many redirects");
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to check redirect on url: " + url, e);
+        }
+    }
+
+    /**
+     * Download url into local file. Overwrites already existing file. Redirects are followed (content, loaded
+     * after redirect, is not cached).
+     *
+     * @param url       file url
+     * @param file      local file to store in
+     * @param logPrefix prefix for all messages (used to show "in context" of something)
+     * @throws IOException        on download error
+     * @throws URISyntaxException on invalid url
+     */
+    public void download(final String url, final File file, final String logPrefix)
+            throws IOException, URISyntaxException {
+        // single output line for parallel processing (to avoid mixing with other messages)
+        String log = logPrefix + "Download " + url;
+        try {
+            final long time = System.currentTimeMillis();
+            // remove ../ parts in url
+            URI target = new URI(url).normalize();
+            log = logPrefix + "Download " + target;
+            final String key = target.toString();
+            if (cache != null && cache.load(key, file)) {
+                System.out.println(log + ", cached (" + FileUtils.byteCountToDisplaySize(file.length()) + ")");
+                return;
+            }
+            file.getParentFile().mkdirs();
+            final Path path = file.toPath();
+            for (int i = 0; ; i++) {
+                final HttpResponse<Path> response = send(HttpRequest.newBuilder(target)
+                        .header(USER_AGENT, "Mozilla")
+                        .build(), info -> info.statusCode() / 100 == 2
+                        ? HttpResponse.BodySubscribers.ofFile(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                        : HttpResponse.BodySubscribers.replacing(null));
+                final String location = getRedirect(response);
+                if (location == null) {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IOException("Server returned HTTP response code: " + response.statusCode()
+                                + " for URL: " + target);
+                    }
+                    break;
+                }
+                if (i >= MAX_REDIRECTS) {
+                    throw new IOException("Too many redirects for URL: " + url);
+                }
+                target = target.resolve(location);
+            }
+            // redirected urls are usually not versioned, so content must not be pinned in cache
+            if (cache != null && key.equals(target.toString())) {
+                cache.store(key, file);
+            }
+            System.out.println(log + ", took " + DurationFormatter.format(System.currentTimeMillis() - time) + " ("
+                    + FileUtils.byteCountToDisplaySize(file.length()) + ")");
+        } catch (IOException | URISyntaxException | RuntimeException ex) {
+            System.out.println(log + ", FAILED");
+            throw ex;
+        }
+    }
+
+    /**
+     * Async version of {@link #download(String, File, String)}: download performed in a separate thread (but
+     * with the same per-host limit).
+     *
+     * @param url       file url
+     * @param file      local file to store in
+     * @param logPrefix prefix for all messages (used to show "in context" of something)
+     * @return future, completed after download (exceptionally on download error)
+     */
+    public CompletableFuture<Void> downloadAsync(final String url, final File file, final String logPrefix) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                download(url, file, logPrefix);
+            } catch (IOException | URISyntaxException ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    /**
+     * Stop download threads. Instance can't be used after closing.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> HttpResponse<T> send(final HttpRequest request, final HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        final String host = request.uri().getHost();
+        final Semaphore limit = hosts.computeIfAbsent(host == null ? "" : host.toLowerCase(Locale.ROOT),
+                key -> new Semaphore(hostConcurrency));
+        try {
+            limit.acquire();
+            try {
+                return client.send(request, handler);
+            } finally {
+                limit.release();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download interrupted: " + request.uri());
+        }
+    }
+
+    private HttpResponse<?> probe(final URI target) throws IOException {
+        final HttpResponse<Void> head = send(HttpRequest.newBuilder(target)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(REDIRECT_TIMEOUT))
+                .header(USER_AGENT, "Mozilla")
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (head.statusCode() < HTTP_ERROR) {
+            return head;
+        }
+        // HEAD might be not supported by server
+        final HttpResponse<InputStream> get = send(HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(REDIRECT_TIMEOUT))
+                .header(USER_AGENT, "Mozilla")
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+        // only status and headers required
+        get.body().close();
+        return get;
+    }
+
+    private String getRedirect(final HttpResponse<?> response) {
+        final int status = response.statusCode();
+        if (status / 100 == 3 && status != 304) {
+            return response.headers().firstValue(LOCATION).orElse(null);
+        }
+        return null;
+    }
+}
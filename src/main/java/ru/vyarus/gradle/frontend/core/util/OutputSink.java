@@ -0,0 +1,152 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import ru.vyarus.gradle.frontend.core.util.compress.Precompression;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fused output for generated (minified) content: content is written into file and, in the same pass, digested
+ * (for anti-cache and integrity) and compressed (precompressed files for all enabled encodings).
+ * This way, generated file is not read back for hashes and compression.
+ * <p>
+ * Must be used only for final file content (not modified after writing): precompressed files would be considered
+ * up-to-date by precompression stage. Computed digests should be attached to file {@link Fingerprint}.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class OutputSink {
+
+    /**
+     * Sink simply writing file (without digests and compression).
+     */
+    public static final OutputSink PLAIN = new OutputSink(Collections.emptyList(), null);
+
+    private final Collection<String> algorithms;
+    private final Precompression precompression;
+
+    /**
+     * Create sink.
+     *
+     * @param algorithms     digest algorithms to compute (e.g. MD5, SHA-384)
+     * @param precompression precompression to generate compressed files with or null
+     */
+    public OutputSink(final Collection<String> algorithms, final Precompression precompression) {
+        this.algorithms = new LinkedHashSet<>(algorithms);
+        this.precompression = precompression != null && precompression.isEnabled() ? precompression : null;
+    }
+
+    /**
+     * Write file content (UTF-8) together with digests calculation and compression.
+     *
+     * @param target  target file
+     * @param content file content
+     * @return computed digests (algorithm - digest; empty if no digests required)
+     */
+    public Map<String, byte[]> write(final File target, final String content) {
+        return write(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write file content together with digests calculation and compression. Content size is known before
+     * writing, so compression policy could be applied before compression.
+     *
+     * @param target  target file
+     * @param content file content
+     * @return computed digests (algorithm - digest; empty if no digests required)
+     */
+    public Map<String, byte[]> write(final File target, final byte[] content) {
+        final Map<String, MessageDigest> digests = createDigests(target);
+        final List<OutputStream> outputs = new ArrayList<>();
+        try {
+            if (precompression != null) {
+                outputs.addAll(precompression.open(target, content.length));
+            }
+            try (OutputStream file = Files.newOutputStream(target.toPath())) {
+                new TeeStream(file, digests.values(), outputs).write(content, 0, content.length);
+            }
+            // compressed files closed after target file, so they would not be considered outdated
+            for (OutputStream out : outputs) {
+                out.close();
+            }
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly(outputs);
+            if (precompression != null) {
+                precompression.discard(target);
+            }
+            throw new IllegalStateException("Failed to write into file: " + target.getAbsolutePath(), ex);
+        }
+        final Map<String, byte[]> res = new LinkedHashMap<>();
+        digests.forEach((alg, md) -> res.put(alg, md.digest()));
+        return res;
+    }
+
+    @SuppressWarnings("PMD.EmptyCatchBlock")
+    private static void closeQuietly(final List<OutputStream> outputs) {
+        for (OutputStream out : outputs) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // partially written file would be removed anyway
+            }
+        }
+    }
+
+    private Map<String, MessageDigest> createDigests(final File target) {
+        final Map<String, MessageDigest> res = new LinkedHashMap<>();
+        try {
+            for (String alg : algorithms) {
+                res.put(alg, MessageDigest.getInstance(alg));
+            }
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Unsupported hash algorithm for file " + target.getAbsolutePath(), ex);
+        }
+        return res;
+    }
+
+    /**
+     * Stream, writing the same bytes into file, digests and compressing streams.
+     */
+    private static class TeeStream extends OutputStream {
+        private final OutputStream file;
+        private final Collection<MessageDigest> digests;
+        private final List<OutputStream> outputs;
+
+        TeeStream(final OutputStream file,
+                  final Collection<MessageDigest> digests,
+                  final List<OutputStream> outputs) {
+            this.file = file;
+            this.digests = digests;
+            this.outputs = outputs;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            file.write(b, off, len);
+            for (MessageDigest md : digests) {
+                md.update(b, off, len);
+            }
+            for (OutputStream out : outputs) {
+                out.write(b, off, len);
+            }
+        }
+    }
+}
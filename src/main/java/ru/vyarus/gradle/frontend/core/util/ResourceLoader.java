@@ -1,6 +1,8 @@
 package ru.vyarus.gradle.frontend.core.util;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Load remote resource. For CDN links could load minified version instead together with source maps.
@@ -54,8 +56,31 @@ public final class ResourceLoader {
                                       final boolean sourceMaps,
                                       final File targetDir,
                                       final String requiredExtension) {
-        // check redirects only when target file is unknown (folder references)
-        final String realUrl = UrlUtils.hasExtension(url) ? url : UrlUtils.followRedirects(url);
+        return download(HttpDownloader.getDefault(), url, preferMinified, sourceMaps, targetDir, requiredExtension);
+    }
+
+    /**
+     * Same as {@link #download(String, boolean, boolean, java.io.File, String)}, but with custom download engine.
+     *
+     * @param downloader        download engine
+     * @param url               remote resource url
+     * @param preferMinified    true to load minified version first
+     * @param sourceMaps        true to load source map for minified version
+     * @param targetDir         target directory to store loaded files
+     * @param requiredExtension required target extension (might be null)
+     * @return resulting object with local file representing loaded resource or null if load failed and source map
+     * if it was loaded
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public static LoadResult download(final HttpDownloader downloader,
+                                      final String url,
+                                      final boolean preferMinified,
+                                      final boolean sourceMaps,
+                                      final File targetDir,
+                                      final String requiredExtension) {
+        // check redirects only when target file is unknown (folder references); cached urls have no redirects
+        final String realUrl = UrlUtils.hasExtension(url) || downloader.isCached(url)
+                ? url : downloader.followRedirects(url);
         final String name = requiredExtension != null
                 ? UrlUtils.selectFilename(realUrl, requiredExtension) : UrlUtils.getFileName(realUrl);
         File res = null;
@@ -65,25 +90,28 @@ public final class ResourceLoader {
             final String minName = FileUtils.getMinName(name);
             if (!name.equals(minName) && preferMinified) {
                 // trying to load min version directly (for many cdns .min.js|.min.css is a common convention)
-                res = tryLoadMin(realUrl.replace(name, minName), minName, targetDir);
+                res = tryLoadMin(downloader, realUrl.replace(name, minName), minName, targetDir);
             }
         }
         if (res == null) {
             // try to load as-is (load failure is OK)
-            res = tryLoad(realUrl, name, targetDir);
+            res = tryLoad(downloader, realUrl, name, targetDir);
         }
 
         File sourceMap = null;
         if (res != null && sourceMaps) {
-            sourceMap = loadSourceMap(res, realUrl);
+            sourceMap = loadSourceMap(downloader, res, realUrl);
         }
         return new LoadResult(res, sourceMap);
     }
 
-    private static File tryLoadMin(final String url, final String name, final File targetDir) {
+    private static File tryLoadMin(final HttpDownloader downloader,
+                                   final String url,
+                                   final String name,
+                                   final File targetDir) {
         File res = null;
         try {
-            res = UrlUtils.smartDownload(url, new File(targetDir, name));
+            res = UrlUtils.smartDownload(downloader, url, new File(targetDir, name));
             if (res.exists() && res.length() > 0) {
                 System.out.println("\tMinified version found and downloaded");
             }
@@ -95,16 +123,21 @@ public final class ResourceLoader {
         return res;
     }
 
-    private static File tryLoad(final String url, final String name, final File targetDir) {
+    private static File tryLoad(final HttpDownloader downloader,
+                                final String url,
+                                final String name,
+                                final File targetDir) {
         try {
-            return UrlUtils.smartDownload(url, new File(targetDir, name));
+            return UrlUtils.smartDownload(downloader, url, new File(targetDir, name));
         } catch (Exception ex) {
             System.out.println("ERROR: Failed to load resource '" + url + "': " + ex.getMessage() + ". Skipping");
             return null;
         }
     }
 
-    private static File loadSourceMap(final File resource, final String downloadUrl) {
+    private static File loadSourceMap(final HttpDownloader downloader,
+                                      final File resource,
+                                      final String downloadUrl) {
         File res = null;
         final String sourceMapUrl = SourceMapUtils.getSourceMapReference(resource);
         if (sourceMapUrl == null) {
@@ -119,10 +152,23 @@ public final class ResourceLoader {
             final String targetUrl = urlBase + sourceMapUrl;
             try {
                 // will override existing file (assuming it would be downloaded AFTER main file
-                res = new File(resource.getParent(), fileName);
-                UrlUtils.download(targetUrl, res);
-                // load and append sources inside source map file
-                SourceMapUtils.includeRemoteSources(res, urlBase);
+                final File target = new File(resource.getParent(), fileName);
+                // name is referenced from resource, so, if file exists, it is downloaded under reserved name
+                // (without locking) and then moved
+                final File tmp = FileUtils.reserveNotExistingFile(target.getParentFile(), fileName);
+                try {
+                    downloader.download(targetUrl, tmp, "");
+                    // load and append sources inside source map file
+                    SourceMapUtils.includeRemoteSources(downloader, tmp, urlBase);
+                    if (!tmp.equals(target)) {
+                        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    res = target;
+                } finally {
+                    if (res == null) {
+                        Files.deleteIfExists(tmp.toPath());
+                    }
+                }
             } catch (Exception ex) {
                 System.out.println("ERROR: Failed to load source mapping file '" + targetUrl + "': "
                         + ex.getMessage() + ". Skipping");
@@ -12,6 +12,8 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -72,35 +74,55 @@ public final class SourceMapUtils {
      * @param sourceMap source map file
      * @param baseUrl   base url for source map (from where source map was downloaded)
      */
-    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
     public static void includeRemoteSources(final File sourceMap, final String baseUrl) {
+        includeRemoteSources(HttpDownloader.getDefault(), sourceMap, baseUrl);
+    }
+
+    /**
+     * Download sources, declared in source map and add them directly inside map. Do nothing if source map
+     * already contain embedded sources. All sources are downloaded concurrently.
+     *
+     * @param downloader download engine
+     * @param sourceMap  source map file
+     * @param baseUrl    base url for source map (from where source map was downloaded)
+     */
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public static void includeRemoteSources(final HttpDownloader downloader,
+                                            final File sourceMap,
+                                            final String baseUrl) {
         final SourceMap map = parse(sourceMap);
         if (map.getSourcesContent() != null && !map.getSourcesContent().isEmpty()) {
             System.out.println("\tSource map " + sourceMap.getName() + " already contain sources");
             // do nothing - content already included
             return;
         }
-        final File tmp;
-        try {
-            tmp = Files.createTempFile("sourceMapSource", "download").toFile();
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to create tmp file for download", e);
-        }
-
         final String base = baseUrl + (map.getSourceRoot() == null ? "" : map.getSourceRoot());
-        final List<String> content = new ArrayList<>();
-        for (String src : map.getSources()) {
-            try {
-                UrlUtils.download(base + src, tmp, "\t");
+        final List<File> files = new ArrayList<>();
+        final List<CompletableFuture<Void>> downloads = new ArrayList<>();
+        try {
+            for (String src : map.getSources()) {
+                final File tmp = Files.createTempFile("sourceMapSource", "download").toFile();
+                files.add(tmp);
+                downloads.add(downloader.downloadAsync(base + src, tmp, "\t"));
+            }
+            final List<String> content = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                final File tmp = files.get(i);
+                downloads.get(i).join();
                 content.add(Files.readString(tmp.toPath(), StandardCharsets.UTF_8));
-                System.out.println("\t" + src + " (" + FileUtils.byteCountToDisplaySize(tmp.length())
-                        + ") embedded into " + sourceMap.getName());
-            } catch (Exception e) {
-                throw new IllegalStateException("Failed to load source files for source map " + sourceMap.getName(), e);
+                System.out.println("\t" + map.getSources().get(i) + " ("
+                        + FileUtils.byteCountToDisplaySize(tmp.length()) + ") embedded into " + sourceMap.getName());
             }
+            map.setSourcesContent(content);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load source files for source map " + sourceMap.getName(),
+                    e instanceof CompletionException ? e.getCause() : e);
+        } finally {
+            // wait for not finished downloads before files removal
+            CompletableFuture.allOf(downloads.toArray(new CompletableFuture[0])).handle((res, ex) -> null).join();
+            files.forEach(File::delete);
         }
-        tmp.delete();
-        map.setSourcesContent(content);
         write(map, sourceMap);
         System.out.println("\tSource map updated: " + sourceMap.getName() + " ("
                 + FileUtils.byteCountToDisplaySize(sourceMap.length()) + ")");
@@ -7,10 +7,19 @@ import ru.vyarus.gradle.frontend.core.info.resources.OptimizedEntityInfo;
 import ru.vyarus.gradle.frontend.core.info.resources.root.ResourceInfo;
 import ru.vyarus.gradle.frontend.core.info.resources.root.sub.SubResourceInfo;
 import ru.vyarus.gradle.frontend.core.info.SizeType;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Optimization statistics printer.
@@ -20,6 +29,16 @@ import java.util.Map;
  */
 public final class StatsPrinter {
 
+    private static final Map<SizeType, String> COLUMNS = new EnumMap<>(SizeType.class);
+
+    static {
+        COLUMNS.put(SizeType.ORIGINAL, "original");
+        COLUMNS.put(SizeType.MODIFIED, "minified");
+        COLUMNS.put(SizeType.GZIPPED, "gzipped");
+        COLUMNS.put(SizeType.BROTLI, "brotli");
+        COLUMNS.put(SizeType.ZSTD, "zstd");
+    }
+
     private StatsPrinter() {
     }
 
@@ -33,64 +52,96 @@ public final class StatsPrinter {
     public static String print(final OptimizationInfo result) {
         final File baseDir = result.getSettings().getBaseDir();
         final String basePath = baseDir.getAbsolutePath() + File.separator;
-        final String line = repeat('-', 70 + 15 * 3 + 1) + "\n";
-        final String sumLine = repeat('-', 15 * 3) + "\n";
+        // gzip column always shown (even when disabled), other encodings only when enabled
+        final List<SizeType> columns = new ArrayList<>(Arrays.asList(
+                SizeType.ORIGINAL, SizeType.MODIFIED, SizeType.GZIPPED));
+        result.getSettings().getCompressions().stream()
+                .map(Compression::getSizeType)
+                .filter(type -> !columns.contains(type))
+                .forEach(columns::add);
+        final String line = repeat('-', 70 + 15 * columns.size() + 1) + "\n";
+        final String sumLine = repeat('-', 15 * columns.size()) + "\n";
         final StringBuilder res = new StringBuilder(200).append('\n');
         if (!result.getHtmls().isEmpty()) {
-            res.append(String.format("%-70s %-15s%-15s%-15s%n", "", "original", "minified", "gzipped"))
-                    .append(line);
+            res.append(String.format("%-70s ", ""));
+            columns.forEach(type -> res.append(String.format("%-15s", COLUMNS.get(type))));
+            res.append('\n').append(line);
         } else {
             res.append("No optimizations performed\n")
                     .append(line);
         }
         for (HtmlInfo html : result.getHtmls()) {
             res.append(String.format("%-70s %s%n",
-                    html.getFile().getAbsolutePath().replace(basePath, ""), formatSizes(html)));
+                    html.getFile().getAbsolutePath().replace(basePath, ""), formatSizes(html, columns)));
             final boolean debug = result.getSettings().isDebug();
             writeChanges(debug, html, "", res);
 
             for (ResourceInfo js : html.getJs()) {
-                res.append(String.format("%-70s %s%n", "  " + UrlUtils.clearParams(js.getTarget()), formatSizes(js)));
+                res.append(String.format("%-70s %s%n",
+                        "  " + UrlUtils.clearParams(js.getTarget()), formatSizes(js, columns)));
                 writeChanges(debug, js, "  ", res);
             }
             for (ResourceInfo css : html.getCss()) {
-                res.append(String.format("%-70s %s%n", "  " + UrlUtils.clearParams(css.getTarget()), formatSizes(css)));
+                res.append(String.format("%-70s %s%n",
+                        "  " + UrlUtils.clearParams(css.getTarget()), formatSizes(css, columns)));
                 writeChanges(debug, css, "  ", res);
                 for (SubResourceInfo resource : css.getSubResources()) {
                     res.append(String.format("%-70s   %s%n",
-                            "    " + UrlUtils.clearParams(resource.getTarget()), formatSizes(resource)));
+                            "    " + UrlUtils.clearParams(resource.getTarget()), formatSizes(resource, columns)));
                     writeChanges(debug, resource, "    ", res);
                 }
             }
 
             if (!html.getCss().isEmpty() || html.getJs().isEmpty()) {
                 res.append(String.format("%-70s %s", "", sumLine))
-                        .append(String.format("%-70s %-15s%-15s%-15s%n", "",
-                                sum(html, SizeType.ORIGINAL),
-                                sum(html, SizeType.MODIFIED),
-                                sum(html, SizeType.GZIPPED)));
+                        .append(String.format("%-70s ", ""));
+                columns.forEach(type -> res.append(sum(html, type)));
+                res.append('\n');
             }
         }
+        final long references = countReferences(result);
+        if (references > 0) {
+            res.append('\n').append(references)
+                    .append(" duplicate resource references processed once (shared between pages)\n");
+        }
+        final Map<String, Integer> skips = countCompressionSkips(result);
+        if (!skips.isEmpty()) {
+            res.append('\n').append(skips.values().stream().mapToInt(Integer::intValue).sum())
+                    .append(" files not precompressed by compression policy (")
+                    .append(skips.entrySet().stream().map(entry -> entry.getKey() + ": " + entry.getValue())
+                            .collect(Collectors.joining(", "))).append(")\n");
+        }
         return res.toString();
     }
 
-    private static String formatSizes(final OptimizedEntityInfo file) {
+    private static String formatSizes(final OptimizedEntityInfo file, final List<SizeType> columns) {
         if (file.isIgnored()) {
             return file.getIgnoreReason();
         }
-        return formatSizes(file.getStats(), SizeType.ORIGINAL, SizeType.MODIFIED, SizeType.GZIPPED);
-    }
-
-    private static String formatSizes(final Map<SizeType, Long> stats, final SizeType... sequence) {
+        final Map<SizeType, Long> stats = file.getStats();
         final StringBuilder res = new StringBuilder();
-        for (SizeType stat : sequence) {
-            // use whitespace to keep table columns for files without minification
-            res.append(String.format("%-15s", stats.containsKey(stat)
-                    ? FileUtils.byteCountToDisplaySize(stats.get(stat)) : ""));
+        for (SizeType stat : columns) {
+            final String value;
+            if (stats.containsKey(stat)) {
+                value = FileUtils.byteCountToDisplaySize(stats.get(stat));
+            } else {
+                // use whitespace to keep table columns for files without minification
+                value = isSkipped(file, stat) ? "skipped" : "";
+            }
+            res.append(String.format("%-15s", value));
         }
         return res.toString();
     }
 
+    private static boolean isSkipped(final OptimizedEntityInfo file, final SizeType stat) {
+        for (Compression type : file.getCompressionSkips().keySet()) {
+            if (type.getSizeType() == stat) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static String sum(final HtmlInfo html, final SizeType stat) {
         long res = getStat(html, stat);
         for (ResourceInfo css : html.getCss()) {
@@ -108,11 +159,56 @@ public final class StatsPrinter {
         return String.format("%-15s", FileUtils.byteCountToDisplaySize(res));
     }
 
+    private static long countReferences(final OptimizationInfo result) {
+        long res = 0;
+        for (HtmlInfo html : result.getHtmls()) {
+            res += html.getJs().stream().filter(js -> js.getOwner() != null).count();
+            res += html.getCss().stream().filter(css -> css.getOwner() != null).count();
+        }
+        return res;
+    }
+
+    /**
+     * Shared resources and sub resources are counted once.
+     *
+     * @param result optimization info
+     * @return number of files, skipped by compression policy, by skip reason
+     */
+    private static Map<String, Integer> countCompressionSkips(final OptimizationInfo result) {
+        final Map<String, Integer> res = new TreeMap<>();
+        final Set<File> counted = new HashSet<>();
+        final Consumer<OptimizedEntityInfo> count = item -> {
+            // file skipped for all encodings (type or size) or only for some (no gain): count first reason only
+            final String reason = item.getCompressionSkips().values().stream().findFirst().orElse(null);
+            if (reason != null) {
+                res.merge(reason, 1, Integer::sum);
+            }
+        };
+        for (HtmlInfo html : result.getHtmls()) {
+            count.accept(html);
+            final List<ResourceInfo> resources = new ArrayList<>(html.getJs());
+            resources.addAll(html.getCss());
+            for (ResourceInfo resource : resources) {
+                if (resource.getFile() != null && counted.add(resource.getFile())) {
+                    count.accept(resource);
+                }
+                for (SubResourceInfo sub : resource.getSubResources()) {
+                    if (sub.getFile() != null && counted.add(sub.getFile())) {
+                        count.accept(sub);
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
     private static long getStat(final OptimizedEntityInfo item, final SizeType stat) {
         SizeType target = stat;
         // going backward for stats because something might be missing (e.g. minification if file already minimized)
+        // compressed sizes are not related to each other, so going directly to minified size
         while (!item.getStats().containsKey(target)) {
-            target = SizeType.values()[target.ordinal() - 1];
+            target = target.ordinal() > SizeType.MODIFIED.ordinal()
+                    ? SizeType.MODIFIED : SizeType.values()[target.ordinal() - 1];
         }
         return item.getStats().get(target);
     }
@@ -0,0 +1,204 @@
+package ru.vyarus.gradle.frontend.core.util;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lightweight streaming alternative for jsoup html parsing. Scanner does not build document tree: it only detects
+ * resource tags (stylesheet links and scripts with src) with their exact positions. Only detected resource tags
+ * are represented as (detached) jsoup elements, so resource tags could be modified the same way as for parsed html.
+ * <p>
+ * Intended for templates (jsp, freemarker, jte etc.), where full html document tree is not required (and can't be
+ * used for modifications anyway).
+ * <p>
+ * Scanner skips comments and raw text elements content (script, style, textarea, title) the same way as html
+ * parser, so tags inside inline scripts or commented tags are not detected.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public final class TagScanner {
+
+    private static final String[] RAW_TEXT = {"script", "style", "textarea", "title"};
+    private static final String COMMENT_START = "<!--";
+    private static final String COMMENT_END = "-->";
+
+    private TagScanner() {
+    }
+
+    /**
+     * Scan html (template) content for resource tags.
+     *
+     * @param content html content
+     * @return scan result (without document)
+     */
+    public static HtmlParser.ParseResult scan(final String content) {
+        final List<HtmlParser.SourceElement> css = new ArrayList<>();
+        final List<HtmlParser.SourceElement> js = new ArrayList<>();
+        int pos = content.indexOf('<');
+        while (pos >= 0) {
+            if (content.startsWith(COMMENT_START, pos)) {
+                final int end = content.indexOf(COMMENT_END, pos + COMMENT_START.length());
+                pos = end < 0 ? -1 : content.indexOf('<', end + COMMENT_END.length());
+                continue;
+            }
+            final int nameEnd = tagNameEnd(content, pos + 1);
+            if (nameEnd < 0) {
+                // closing tag, doctype, template directive or just text
+                pos = content.indexOf('<', pos + 1);
+                continue;
+            }
+            final String name = content.substring(pos + 1, nameEnd).toLowerCase(Locale.ROOT);
+            final boolean resource = "link".equals(name) || "script".equals(name);
+            final Element element = resource ? new Element(name) : null;
+            final int end = readAttributes(content, nameEnd, element);
+            if (end < 0) {
+                // not closed tag
+                break;
+            }
+            if (resource) {
+                if ("link".equals(name)) {
+                    if (element.hasAttr("href") && "stylesheet".equalsIgnoreCase(element.attr("rel"))) {
+                        css.add(new HtmlParser.SourceElement(element, content.substring(pos, end), pos, end));
+                    }
+                } else if (element.hasAttr("src")) {
+                    js.add(new HtmlParser.SourceElement(element, content.substring(pos, end), pos, end));
+                }
+            }
+            pos = isRawText(name) ? skipRawText(content, end, name) : content.indexOf('<', end);
+        }
+        return new HtmlParser.ParseResult(null, content, css, js);
+    }
+
+    /**
+     * @param content html content
+     * @param from    position after '&lt;'
+     * @return tag name end position or -1 if not a start tag
+     */
+    private static int tagNameEnd(final String content, final int from) {
+        if (from >= content.length() || !isAsciiLetter(content.charAt(from))) {
+            return -1;
+        }
+        int pos = from + 1;
+        while (pos < content.length()) {
+            final char c = content.charAt(pos);
+            if (isWhitespace(c) || c == '/' || c == '>') {
+                return pos;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != ':' && c != '_' && c != '.') {
+                return -1;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * Read tag attributes (quotes aware).
+     *
+     * @param content html content
+     * @param from    position after tag name
+     * @param element element to store attributes in or null to simply skip tag
+     * @return position after tag end or -1 if tag not closed
+     */
+    @SuppressWarnings({"checkstyle:CyclomaticComplexity", "PMD.CognitiveComplexity"})
+    private static int readAttributes(final String content, final int from, final Element element) {
+        final int length = content.length();
+        int pos = from;
+        while (pos < length) {
+            final char c = content.charAt(pos);
+            if (c == '>') {
+                return pos + 1;
+            }
+            if (isWhitespace(c) || c == '/') {
+                pos++;
+                continue;
+            }
+            final int nameStart = pos;
+            while (pos < length && !isWhitespace(content.charAt(pos)) && "/=>".indexOf(content.charAt(pos)) < 0) {
+                pos++;
+            }
+            final String name = content.substring(nameStart, pos).toLowerCase(Locale.ROOT);
+            pos = skipWhitespace(content, pos);
+            String value = "";
+            if (pos < length && content.charAt(pos) == '=') {
+                pos = skipWhitespace(content, pos + 1);
+                if (pos >= length) {
+                    return -1;
+                }
+                final char quote = content.charAt(pos);
+                final int valueStart;
+                if (quote == '"' || quote == '\'') {
+                    valueStart = pos + 1;
+                    pos = content.indexOf(quote, valueStart);
+                    if (pos < 0) {
+                        return -1;
+                    }
+                    value = content.substring(valueStart, pos);
+                    pos++;
+                } else {
+                    valueStart = pos;
+                    while (pos < length && !isWhitespace(content.charAt(pos)) && content.charAt(pos) != '>') {
+                        pos++;
+                    }
+                    value = content.substring(valueStart, pos);
+                }
+            }
+            // first declaration wins (as in html parser)
+            if (element != null && !name.isEmpty() && !element.hasAttr(name)) {
+                element.attr(name, Parser.unescapeEntities(value, true));
+            }
+        }
+        return -1;
+    }
+
+    private static int skipRawText(final String content, final int from, final String name) {
+        int pos = content.indexOf("</", from);
+        while (pos >= 0 && !isEndTag(content, pos + 2, name)) {
+            pos = content.indexOf("</", pos + 2);
+        }
+        return pos;
+    }
+
+    private static boolean isEndTag(final String content, final int pos, final String name) {
+        if (!content.regionMatches(true, pos, name, 0, name.length())) {
+            return false;
+        }
+        // name must not be just a prefix (like "</scripts")
+        final int end = pos + name.length();
+        if (end >= content.length()) {
+            return true;
+        }
+        final char next = content.charAt(end);
+        return isWhitespace(next) || next == '/' || next == '>';
+    }
+
+    private static int skipWhitespace(final String content, final int from) {
+        int pos = from;
+        while (pos < content.length() && isWhitespace(content.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isRawText(final String name) {
+        for (String tag : RAW_TEXT) {
+            if (tag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiLetter(final char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+}
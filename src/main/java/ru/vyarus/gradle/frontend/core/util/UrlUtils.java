@@ -1,16 +1,9 @@
 package ru.vyarus.gradle.frontend.core.util;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.apache.commons.io.FileUtils;
-
 import java.io.File;
-import java.io.FileOutputStream;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URL;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -26,7 +19,6 @@ import java.util.regex.Pattern;
 public final class UrlUtils {
 
     private static final Pattern URL_BASE = Pattern.compile("https?://[^/:]+(:\\d+)?");
-    private static final List<Integer> REDIRECT_STATUS = Arrays.asList(301, 302, 303, 307, 308);
 
     private UrlUtils() {
     }
@@ -40,33 +32,7 @@ public final class UrlUtils {
      * @return url after the last redirect or original url if no redirects required
      */
     public static String followRedirects(final String url) {
-        try {
-            // remove ../ parts in url
-            final URL target = new URI(url).normalize().toURL();
-            final HttpURLConnection conn = (HttpURLConnection) target.openConnection();
-            conn.setInstanceFollowRedirects(false);
-            conn.setReadTimeout(1000);
-            conn.addRequestProperty("User-Agent", "Mozilla");
-
-            final boolean redirect = REDIRECT_STATUS.contains(conn.getResponseCode());
-            conn.getInputStream().close();
-            conn.disconnect();
-
-            String res = url;
-            if (redirect) {
-                res = conn.getHeaderField("Location");
-                if (!res.startsWith("http")) {
-                    res = getServerRoot(url) + res;
-                }
-                System.out.println("Redirect resolved: " + target + " --> " + res);
-                // might be multiple redirects
-                res = followRedirects(res);
-            }
-
-            return res;
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to check redirect on url: " + url, e);
-        }
+        return HttpDownloader.getDefault().followRedirects(url);
     }
 
     /**
@@ -207,9 +173,35 @@ public final class UrlUtils {
      * @throws Exception on load error
      */
     public static File smartDownload(final String url, final File target) throws Exception {
+        return smartDownload(HttpDownloader.getDefault(), url, target);
+    }
+
+    /**
+     * Download file, renaming if file already exists. After download compares with existing file (MD5) and removes
+     * duplicate.
+     * <p>
+     * Target file name is reserved under directory lock (see
+     * {@link ru.vyarus.gradle.frontend.core.util.FileUtils#reserveNotExistingFile(File, String)}) and download
+     * performed without lock, so parallel downloads into the same directory are not serialized.
+     *
+     * @param downloader download engine
+     * @param url        file url
+     * @param target     local file to download into
+     * @return downloaded (local) file
+     * @throws Exception on load error
+     */
+    public static File smartDownload(final HttpDownloader downloader,
+                                     final String url,
+                                     final File target) throws Exception {
         File res = ru.vyarus.gradle.frontend.core.util.FileUtils
-                .selectNotExistingFile(target.getParentFile(), target.getName());
-        download(url, res);
+                .reserveNotExistingFile(target.getParentFile(), target.getName());
+        try {
+            downloader.download(url, res, "");
+        } catch (Exception ex) {
+            // release reserved name
+            Files.deleteIfExists(res.toPath());
+            throw ex;
+        }
         if (!res.getName().equals(target.getName())) {
             if (ru.vyarus.gradle.frontend.core.util.FileUtils.removeDuplicate(res, target, "\t")) {
                 res = target;
@@ -241,32 +233,10 @@ public final class UrlUtils {
      * @param file      local file to store in
      * @param logPrefix prefix for all messages (used to show "in context" of something)
      * @throws Exception on download error
+     * @see HttpDownloader
      */
-    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
-    @SuppressWarnings({"checkstyle:VariableDeclarationUsageDistance", "PMD.AvoidFileStream"})
     public static void download(final String urlStr, final File file, final String logPrefix) throws Exception {
-        System.out.print(logPrefix + "Download ");
-        try {
-            final long time = System.currentTimeMillis();
-            // remove ../ parts in url
-            final URL url = new URI(urlStr).normalize().toURL();
-            System.out.print(url);
-            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setConnectTimeout(3000);
-            connection.addRequestProperty("User-Agent", "Mozilla");
-            final ReadableByteChannel rbc = Channels.newChannel(connection.getInputStream());
-            file.getParentFile().mkdirs();
-            final FileOutputStream fos = new FileOutputStream(file);
-            fos.getChannel().transferFrom(rbc, 0, Long.MAX_VALUE);
-            fos.close();
-            rbc.close();
-            connection.disconnect();
-            System.out.println(", took " + DurationFormatter.format(System.currentTimeMillis() - time) + " ("
-                    + FileUtils.byteCountToDisplaySize(file.length()) + ")");
-        } catch (Exception ex) {
-            System.out.println(", FAILED");
-            throw ex;
-        }
+        HttpDownloader.getDefault().download(urlStr, file, logPrefix);
     }
 
     /**
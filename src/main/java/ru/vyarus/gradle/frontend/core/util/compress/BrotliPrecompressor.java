@@ -0,0 +1,37 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Brotli encoder (native brotli library through brotli4j).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class BrotliPrecompressor implements Precompressor {
+
+    private final int level;
+
+    public BrotliPrecompressor(final int level) {
+        if (!Brotli4jLoader.isAvailable()) {
+            throw new IllegalStateException("Brotli native library is not available for current platform",
+                    Brotli4jLoader.getUnavailabilityCause());
+        }
+        this.level = level;
+    }
+
+    @Override
+    public Compression getType() {
+        return Compression.BROTLI;
+    }
+
+    @Override
+    public OutputStream wrap(final OutputStream out) throws IOException {
+        return new BrotliOutputStream(out, new Encoder.Parameters().setQuality(level));
+    }
+}
@@ -0,0 +1,108 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import ru.vyarus.gradle.frontend.core.info.SizeType;
+
+import java.io.File;
+
+/**
+ * Supported precompression encodings. Precompressed file is stored near the source file with encoding extension
+ * ("file.js.gz", "file.js.br", "file.js.zst") so http server could serve it directly.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public enum Compression {
+
+    /**
+     * Gzip (levels 1-9).
+     */
+    GZIP("Gzip", "gz", SizeType.GZIPPED, 1, 9, 9),
+    /**
+     * Brotli (levels 0-11).
+     */
+    BROTLI("Brotli", "br", SizeType.BROTLI, 0, 11, 11),
+    /**
+     * Zstandard (levels 1-22).
+     */
+    ZSTD("Zstd", "zst", SizeType.ZSTD, 1, 22, 19);
+
+    private final String title;
+    private final String extension;
+    private final SizeType sizeType;
+    private final int minLevel;
+    private final int maxLevel;
+    private final int defaultLevel;
+
+    Compression(final String title, final String extension, final SizeType sizeType,
+                final int minLevel, final int maxLevel, final int defaultLevel) {
+        this.title = title;
+        this.extension = extension;
+        this.sizeType = sizeType;
+        this.minLevel = minLevel;
+        this.maxLevel = maxLevel;
+        this.defaultLevel = defaultLevel;
+    }
+
+    /**
+     * @return encoding name for logs
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return compressed file extension (without dot)
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return size type for compressed file size statistics
+     */
+    public SizeType getSizeType() {
+        return sizeType;
+    }
+
+    /**
+     * @return default (max) compression level
+     */
+    public int getDefaultLevel() {
+        return defaultLevel;
+    }
+
+    /**
+     * @param source source file
+     * @return compressed file location
+     */
+    public File getTarget(final File source) {
+        return new File(source.getAbsolutePath() + "." + extension);
+    }
+
+    /**
+     * @param level compression level
+     * @throws IllegalStateException if level is not supported
+     */
+    public void checkLevel(final int level) throws IllegalStateException {
+        if (level < minLevel || level > maxLevel) {
+            throw new IllegalStateException(String.format("%s compression level must be in range %s-%s: %s",
+                    title, minLevel, maxLevel, level));
+        }
+    }
+
+    /**
+     * @param level compression level
+     * @return compressor instance
+     */
+    public Precompressor create(final int level) {
+        checkLevel(level);
+        switch (this) {
+            case BROTLI:
+                return new BrotliPrecompressor(level);
+            case ZSTD:
+                return new ZstdPrecompressor(level);
+            default:
+                return new GzipPrecompressor(level);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import java.io.File;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Precompression policy: decides what files are worth compressing. Already compressed formats (fonts, images,
+ * video) would not become smaller (or even become larger), so there is no need to waste time on compression and
+ * ship useless files.
+ * <p>
+ * Rules:
+ * <ul>
+ *     <li>Skip by file extension ("woff2") or mime type ("image/png" or "video/*"). Mime type is resolved from file
+ *     name (jdk file name map)</li>
+ *     <li>Skip files smaller than minimal size</li>
+ *     <li>Remove compressed file if it is not at least N% smaller than source</li>
+ * </ul>
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class CompressionPolicy {
+
+    /**
+     * Default skip rules: already compressed formats.
+     */
+    public static final List<String> DEFAULT_SKIP = Collections.unmodifiableList(Arrays.asList(
+            "woff", "woff2", "png", "jpg", "jpeg", "gif", "webp", "avif",
+            "zip", "gz", "br", "zst", "video/*", "audio/*"));
+
+    /**
+     * Skip reason: already compressed file type.
+     */
+    public static final String SKIP_TYPE = "compressed type";
+    /**
+     * Skip reason: file smaller than min size.
+     */
+    public static final String SKIP_SIZE = "too small";
+    /**
+     * Skip reason: compressed file is not smaller enough.
+     */
+    public static final String SKIP_GAIN = "no gain";
+
+    /**
+     * Policy without restrictions (compress everything).
+     */
+    public static final CompressionPolicy NONE = new CompressionPolicy(Collections.emptyList(), 0, 0);
+
+    private final Set<String> extensions = new HashSet<>();
+    private final List<String> mimeTypes = new ArrayList<>();
+    private final long minSize;
+    private final int minSavings;
+
+    /**
+     * Create policy.
+     *
+     * @param skip       file extensions or mime types (with '/') to avoid compression for
+     * @param minSize    minimal file size (bytes) to compress (0 to compress all)
+     * @param minSavings minimal size decrease (percent) to keep compressed file (0 to keep all)
+     */
+    public CompressionPolicy(final List<String> skip, final long minSize, final int minSavings) {
+        for (String rule : skip) {
+            final String value = rule.trim().toLowerCase(Locale.ROOT);
+            if (value.indexOf('/') > 0) {
+                mimeTypes.add(value);
+            } else if (!value.isEmpty()) {
+                extensions.add(value.startsWith(".") ? value.substring(1) : value);
+            }
+        }
+        this.minSize = minSize;
+        this.minSavings = minSavings;
+    }
+
+    /**
+     * Check if file should be compressed.
+     *
+     * @param source file to compress
+     * @return skip reason or null if file must be compressed
+     */
+    public String check(final File source) {
+        return check(source.getName(), source.length());
+    }
+
+    /**
+     * Check if file should be compressed (for file not yet written).
+     *
+     * @param fileName file name
+     * @param size     file size
+     * @return skip reason or null if file must be compressed
+     */
+    public String check(final String fileName, final long size) {
+        final String name = fileName.toLowerCase(Locale.ROOT);
+        final int dot = name.lastIndexOf('.');
+        if (dot > 0 && extensions.contains(name.substring(dot + 1)) || isSkippedMime(name)) {
+            return SKIP_TYPE;
+        }
+        if (size < minSize) {
+            return SKIP_SIZE;
+        }
+        return null;
+    }
+
+    /**
+     * @param original   source file size
+     * @param compressed compressed file size
+     * @return true if compressed file must be kept
+     */
+    public boolean isWorthKeeping(final long original, final long compressed) {
+        return minSavings <= 0 || (original - compressed) * 100 >= original * minSavings;
+    }
+
+    /**
+     * @return minimal size decrease (percent) to keep compressed file
+     */
+    public int getMinSavings() {
+        return minSavings;
+    }
+
+    private boolean isSkippedMime(final String name) {
+        if (mimeTypes.isEmpty()) {
+            return false;
+        }
+        final String mime = URLConnection.getFileNameMap().getContentTypeFor(name);
+        if (mime == null) {
+            return false;
+        }
+        final String type = mime.toLowerCase(Locale.ROOT);
+        for (String rule : mimeTypes) {
+            if (rule.endsWith("/*") ? type.startsWith(rule.substring(0, rule.length() - 1)) : rule.equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
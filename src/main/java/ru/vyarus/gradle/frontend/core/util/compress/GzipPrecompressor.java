@@ -0,0 +1,30 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Gzip encoder (jdk deflate). Large files are compressed by blocks in parallel
+ * (see {@link ParallelGzipOutputStream}).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class GzipPrecompressor implements Precompressor {
+
+    private final int level;
+
+    public GzipPrecompressor(final int level) {
+        this.level = level;
+    }
+
+    @Override
+    public Compression getType() {
+        return Compression.GZIP;
+    }
+
+    @Override
+    public OutputStream wrap(final OutputStream out) throws IOException {
+        return new ParallelGzipOutputStream(out, level);
+    }
+}
@@ -0,0 +1,173 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Parallel (pigz-like) gzip stream. Input is split into fixed blocks, compressed independently on fork-join pool
+ * and written in order as one standard gzip member. Each block uses the last 32KB of the previous block as
+ * a dictionary (so compression ratio is almost the same as for sequential compression) and ends with sync
+ * flush (byte-aligned empty stored block), so compressed blocks could be simply concatenated. Only the last block
+ * is final.
+ * <p>
+ * Small files (less than one block) are compressed in the current thread without any overhead. For large
+ * files, number of blocks in flight is limited (memory bounded).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * Input block size (the same as in pigz).
+     */
+    public static final int BLOCK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final OutputStream out;
+    private final int level;
+    private final ForkJoinPool pool;
+    private final int maxPending;
+    private final Deque<ForkJoinTask<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength;
+    // previous (full) block, used as dictionary for the next block
+    private byte[] previous;
+    private long total;
+    private boolean closed;
+
+    /**
+     * Create stream, using common fork-join pool.
+     *
+     * @param out   target stream
+     * @param level compression level
+     * @throws IOException on header write error
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int level) throws IOException {
+        this(out, level, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create stream.
+     *
+     * @param out   target stream
+     * @param level compression level
+     * @param pool  pool to compress blocks on
+     * @throws IOException on header write error
+     */
+    public ParallelGzipOutputStream(final OutputStream out, final int level, final ForkJoinPool pool)
+            throws IOException {
+        this.out = out;
+        this.level = level;
+        this.pool = pool;
+        this.maxPending = Math.max(2, pool.getParallelism() * 2);
+        // header: magic, deflate method, no flags, no mtime, compression flag, unknown os
+        final int xfl = level == Deflater.BEST_COMPRESSION ? 2 : level == Deflater.BEST_SPEED ? 4 : 0;
+        out.write(new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, (byte) xfl, (byte) 0xff});
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        crc.update(b, off, len);
+        total += len;
+        int pos = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int chunk = Math.min(remaining, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, pos, block, blockLength, chunk);
+            blockLength += chunk;
+            pos += chunk;
+            remaining -= chunk;
+            if (blockLength == BLOCK_SIZE) {
+                submitBlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            // last block compressed in current thread (while other blocks might still be in progress)
+            final byte[] tail = deflate(block, blockLength, previous, true);
+            while (!pending.isEmpty()) {
+                writeFirst();
+            }
+            out.write(tail);
+            writeInt((int) crc.getValue());
+            writeInt((int) total);
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] data = block;
+        final byte[] dictionary = previous;
+        pending.add(pool.submit(() -> deflate(data, BLOCK_SIZE, dictionary, false)));
+        previous = data;
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+        while (pending.size() > maxPending) {
+            writeFirst();
+        }
+    }
+
+    private void writeFirst() throws IOException {
+        out.write(pending.poll().join());
+    }
+
+    private byte[] deflate(final byte[] data, final int length, final byte[] dictionary, final boolean last) {
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, BLOCK_SIZE - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(data, 0, length);
+            final ByteArrayOutputStream res = new ByteArrayOutputStream(length / 2 + 64);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    res.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // sync flush aligns block end to byte boundary so the next block could be simply appended
+                int size;
+                do {
+                    size = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    res.write(buffer, 0, size);
+                } while (size == buffer.length);
+            }
+            return res.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeInt(final int value) throws IOException {
+        out.write(value & 0xff);
+        out.write(value >>> 8 & 0xff);
+        out.write(value >>> 16 & 0xff);
+        out.write(value >>> 24 & 0xff);
+    }
+}
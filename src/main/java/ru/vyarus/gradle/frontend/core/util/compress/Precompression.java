@@ -0,0 +1,234 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import ru.vyarus.gradle.frontend.core.util.FileLocks;
+import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.SizeFormatter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompression stage: creates compressed versions of file for all configured encodings (gzip, brotli, zstd),
+ * so http server could serve precompressed files directly (avoiding hot compression).
+ * <p>
+ * Files not worth compressing are skipped according to {@link CompressionPolicy}.
+ * <p>
+ * Compression is synchronized on file because the same file might be referenced from multiple pages
+ * (processed in parallel).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings("PMD.SystemPrintln")
+public class Precompression {
+
+    private final List<Precompressor> compressors;
+    private final CompressionPolicy policy;
+    // compressed files, written together with source file (not yet reported)
+    private final Set<File> prepared = ConcurrentHashMap.newKeySet();
+
+    public Precompression(final List<Precompressor> compressors) {
+        this(compressors, CompressionPolicy.NONE);
+    }
+
+    public Precompression(final List<Precompressor> compressors, final CompressionPolicy policy) {
+        this.compressors = compressors;
+        this.policy = policy;
+    }
+
+    /**
+     * @return true if at least one encoding configured
+     */
+    public boolean isEnabled() {
+        return !compressors.isEmpty();
+    }
+
+    /**
+     * Shortcut for {@link #compress(File, File, Map)} without skips tracking.
+     *
+     * @param source  source file
+     * @param baseDir "context" base directory to show file paths in logs relative to its location (null to avoid
+     *                logging)
+     * @return compressed files (could be already existing)
+     */
+    public Map<Compression, File> compress(final File source, final File baseDir) {
+        return compress(source, baseDir, null);
+    }
+
+    /**
+     * Create compressed files for specified source: "sourcefilename.gz", "sourcefilename.br" etc. Avoids
+     * compression if compressed file already exists (and not older than source file).
+     * <p>
+     * Compression policy is applied: file might be not compressed at all (already compressed type or too small)
+     * or compressed file removed (if size decrease is too small). Previously generated files are also removed
+     * for skipped encodings.
+     *
+     * @param source  source file
+     * @param baseDir "context" base directory to show file paths in logs relative to its location (null to avoid
+     *                logging)
+     * @param skipped map to store encodings skipped by compression policy (with reason) or null
+     * @return compressed files (could be already existing)
+     */
+    public Map<Compression, File> compress(final File source, final File baseDir,
+                                           final Map<Compression, String> skipped) {
+        return FileLocks.withLock(source, () -> {
+            final Map<Compression, File> res = new EnumMap<>(Compression.class);
+            final String reason = policy.check(source);
+            if (reason != null && baseDir != null && !compressors.isEmpty()) {
+                System.out.println("Precompression skipped for " + FileUtils.relative(baseDir, source)
+                        + ": " + reason);
+            }
+            for (Precompressor compressor : compressors) {
+                final File target = compressor.getType().getTarget(source);
+                if (reason != null) {
+                    skip(compressor.getType(), target, reason, skipped);
+                    continue;
+                }
+                // avoid redundant re-generation
+                if (!target.exists() || target.lastModified() < source.lastModified()) {
+                    compress(compressor, source, target, baseDir);
+                } else if (prepared.remove(target)) {
+                    // compressed while writing source file
+                    log(compressor, source, target, baseDir);
+                }
+                if (policy.isWorthKeeping(source.length(), target.length())) {
+                    res.put(compressor.getType(), target);
+                } else {
+                    if (baseDir != null) {
+                        System.out.println(compressor.getType().getTitle() + " "
+                                + FileUtils.relative(baseDir, source) + " removed: size decrease is less than "
+                                + policy.getMinSavings() + "%");
+                    }
+                    skip(compressor.getType(), target, CompressionPolicy.SKIP_GAIN, skipped);
+                }
+            }
+            return res;
+        });
+    }
+
+    /**
+     * Open compressing streams for all encodings to compress file content while it is being written (avoid
+     * reading file back for compression). Streams must be closed after source file writing (otherwise compressed
+     * files would be considered outdated).
+     * <p>
+     * Compression policy (file type and min size) is checked before opening streams: no streams returned for
+     * skipped file. Min size decrease could be checked only after compression, so it is applied later, in
+     * {@link #compress(File, File, Map)} (which would use already prepared files and remove not worth keeping).
+     *
+     * @param source file being written
+     * @param size   written content size (bytes)
+     * @return compressing streams (writing into compressed files) or empty list if file must not be compressed
+     * @throws IOException on files creation error
+     */
+    public List<OutputStream> open(final File source, final long size) throws IOException {
+        final List<OutputStream> res = new ArrayList<>();
+        if (policy.check(source.getName(), size) != null) {
+            // skip would be reported by compression stage
+            return res;
+        }
+        try {
+            for (Precompressor compressor : compressors) {
+                final File target = compressor.getType().getTarget(source);
+                prepared.add(target);
+                res.add(compressor.wrap(Files.newOutputStream(target.toPath()), target));
+            }
+        } catch (IOException ex) {
+            for (OutputStream out : res) {
+                out.close();
+            }
+            discard(source);
+            throw ex;
+        }
+        return res;
+    }
+
+    /**
+     * Remove partially written compressed files (after source file writing error).
+     *
+     * @param source source file
+     */
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    public void discard(final File source) {
+        for (Precompressor compressor : compressors) {
+            final File target = compressor.getType().getTarget(source);
+            if (prepared.remove(target)) {
+                // release remembered compression stats
+                compressor.compare(source, target);
+                if (target.exists()) {
+                    target.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Create compressed file (without check for already existing file).
+     *
+     * @param compressor encoder
+     * @param source     file to compress
+     * @return compressed file
+     */
+    public static File compress(final Precompressor compressor, final File source) {
+        return compress(compressor, source, false);
+    }
+
+    private static File compress(final Precompressor compressor, final File source, final boolean compare) {
+        final File target = compressor.getType().getTarget(source);
+        // compression stats remembered only if comparison would be requested
+        try (OutputStream out = compare ? compressor.wrap(Files.newOutputStream(target.toPath()), target)
+                : compressor.wrap(Files.newOutputStream(target.toPath()))) {
+            Files.copy(source.toPath(), out);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to " + compressor.getType().getTitle().toLowerCase(Locale.ROOT)
+                    + " file " + source.getAbsolutePath(), ex);
+        }
+        return target;
+    }
+
+    private void compress(final Precompressor compressor, final File source, final File target,
+                          final File baseDir) {
+        try {
+            compress(compressor, source, true);
+            log(compressor, source, target, baseDir);
+        } catch (RuntimeException ex) {
+            if (baseDir != null) {
+                System.out.println(compressor.getType().getTitle() + " " + FileUtils.relative(baseDir, source)
+                        + " FAILED");
+            }
+            throw ex;
+        }
+    }
+
+    private void log(final Precompressor compressor, final File source, final File target, final File baseDir) {
+        // called even without logging to release remembered compression stats
+        final String comparison = compressor.compare(source, target);
+        if (baseDir != null) {
+            System.out.println(compressor.getType().getTitle() + " " + FileUtils.relative(baseDir, source) + ", "
+                    + SizeFormatter.formatChangePercent(source.length(), target.length())
+                    + (comparison == null ? "" : " (" + comparison + ")"));
+        }
+    }
+
+    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private void skip(final Compression type, final File target, final String reason,
+                      final Map<Compression, String> skipped) {
+        prepared.remove(target);
+        // remove file, generated before (e.g. with different policy)
+        if (target.exists()) {
+            target.delete();
+        }
+        if (skipped != null) {
+            skipped.put(type, reason);
+        }
+    }
+}
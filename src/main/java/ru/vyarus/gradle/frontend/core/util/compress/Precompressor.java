@@ -0,0 +1,52 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Precompression encoder. Implementations must be thread-safe (the same instance used for all files).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public interface Precompressor {
+
+    /**
+     * @return compression type
+     */
+    Compression getType();
+
+    /**
+     * @param out target file stream
+     * @return compressing stream, writing into target stream
+     * @throws IOException on stream creation error
+     */
+    OutputStream wrap(OutputStream out) throws IOException;
+
+    /**
+     * Same as {@link #wrap(OutputStream)}, but with known target file (encoder could remember compression stats
+     * for {@link #compare(File, File)}). Comparison must be requested for each file, compressed with this method
+     * (remembered stats are released on comparison).
+     *
+     * @param out    target file stream
+     * @param target target file
+     * @return compressing stream, writing into target stream
+     * @throws IOException on stream creation error
+     */
+    default OutputStream wrap(final OutputStream out, final File target) throws IOException {
+        return wrap(out);
+    }
+
+    /**
+     * Optional comparison with default encoding (for logs). Releases stats, remembered by
+     * {@link #wrap(OutputStream, File)}.
+     *
+     * @param source source file
+     * @param target compressed file
+     * @return comparison info or null
+     */
+    default String compare(final File source, final File target) {
+        return null;
+    }
+}
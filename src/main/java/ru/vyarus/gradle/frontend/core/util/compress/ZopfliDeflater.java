@@ -0,0 +1,847 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Exhaustive deflate encoder, based on zopfli ideas. Produces standard deflate stream (decodable by any inflater),
+ * usually 3-8% smaller than deflate with level 9, but much (100 times) slower. Intended for static resources,
+ * compressed once and served many times.
+ * <p>
+ * Algorithm:
+ * <ul>
+ *     <li>All possible matches (with the smallest distance for each length) are found once for the whole input</li>
+ *     <li>Greedy parsing result is used to split input into blocks (each block would have its own huffman
+ *     trees)</li>
+ *     <li>For each block, optimal parsing is performed multiple times (iterations): shortest path search with
+ *     symbol costs, calculated from the previous iteration statistics</li>
+ *     <li>The smallest result is written as dynamic, fixed or stored block (whatever is smaller)</li>
+ * </ul>
+ * Result is deterministic (the same input and iterations count always produce the same output).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@SuppressWarnings({"checkstyle:MagicNumber", "PMD.AvoidUsingShortType", "PMD.GodClass", "PMD.TooManyMethods"})
+public final class ZopfliDeflater {
+
+    private static final int WINDOW = 32_768;
+    private static final int WINDOW_MASK = WINDOW - 1;
+    private static final int MIN_MATCH = 3;
+    private static final int MAX_MATCH = 258;
+    private static final int MAX_CHAIN = 8192;
+    private static final int HASH_BITS = 16;
+    private static final int MAX_BLOCKS = 32;
+    private static final int MAX_STORED = 65_535;
+    private static final int LITLEN_CODES = 288;
+    private static final int DIST_CODES = 30;
+    private static final int END_OF_BLOCK = 256;
+    private static final int MAX_BITS = 15;
+    private static final int MAX_CL_BITS = 7;
+
+    private static final int[] LENGTH_BASE = {3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51,
+            59, 67, 83, 99, 115, 131, 163, 195, 227, 258};
+    private static final int[] LENGTH_EXTRA = {0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4,
+            4, 4, 5, 5, 5, 5, 0};
+    private static final int[] DIST_BASE = {1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385,
+            513, 769, 1025, 1537, 2049, 3073, 4097, 6145, 8193, 12_289, 16_385, 24_577};
+    private static final int[] DIST_EXTRA = {0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10,
+            10, 11, 11, 12, 12, 13, 13};
+    private static final int[] CL_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+    // length (3-258) -> index in LENGTH_BASE
+    private static final int[] LENGTH_INDEX = new int[MAX_MATCH + 1];
+    private static final int[] FIXED_LITLEN = new int[LITLEN_CODES];
+    private static final int[] FIXED_DIST = new int[DIST_CODES];
+
+    static {
+        int idx = 0;
+        for (int len = MIN_MATCH; len <= MAX_MATCH; len++) {
+            while (idx < LENGTH_BASE.length - 1 && LENGTH_BASE[idx + 1] <= len) {
+                idx++;
+            }
+            LENGTH_INDEX[len] = idx;
+        }
+        for (int i = 0; i < LITLEN_CODES; i++) {
+            FIXED_LITLEN[i] = i < 144 ? 8 : i < END_OF_BLOCK ? 9 : i < 280 ? 7 : 8;
+        }
+        Arrays.fill(FIXED_DIST, 5);
+    }
+
+    private final byte[] data;
+    private final int iterations;
+    // matches for each position: pairs (length, distance) with growing length (and distance), for any length
+    // smaller than pair length, pair distance is the smallest possible distance
+    private final int[] matchStart;
+    private int[] matches = new int[1024];
+    private int matchesSize;
+
+    private ZopfliDeflater(final byte[] data, final int iterations) {
+        this.data = data;
+        this.iterations = iterations;
+        this.matchStart = new int[data.length + 1];
+    }
+
+    /**
+     * Compress data into raw deflate stream.
+     *
+     * @param data       data to compress
+     * @param iterations optimization iterations per block (more iterations - better compression, but slower)
+     * @return deflate stream
+     */
+    public static byte[] deflate(final byte[] data, final int iterations) {
+        final ZopfliDeflater deflater = new ZopfliDeflater(data, Math.max(1, iterations));
+        final BitWriter out = new BitWriter(data.length / 3 + 64);
+        deflater.compress(out);
+        return out.toByteArray();
+    }
+
+    private void compress(final BitWriter out) {
+        if (data.length == 0) {
+            // final fixed block with end of block symbol only
+            out.write(1, 1);
+            out.write(1, 2);
+            out.writeCode(0, 7);
+            out.align();
+            return;
+        }
+        findMatches();
+        final Symbols greedy = greedyParse();
+        final int[] splits = split(greedy);
+        for (int i = 0; i < splits.length - 1; i++) {
+            final int from = greedy.pos[splits[i]];
+            final int to = splits[i + 1] == greedy.size ? data.length : greedy.pos[splits[i + 1]];
+            final Symbols block = optimize(from, to, greedy.stats(splits[i], splits[i + 1]));
+            writeBlock(out, block, from, to, i == splits.length - 2);
+        }
+        out.align();
+    }
+
+    // ---------------------------------------------------------------------------------------- matches search
+
+    private void findMatches() {
+        final int[] head = new int[1 << HASH_BITS];
+        Arrays.fill(head, -1);
+        final int[] prev = new int[WINDOW];
+        final int length = data.length;
+        for (int pos = 0; pos < length; pos++) {
+            matchStart[pos] = matchesSize;
+            if (pos + MIN_MATCH > length) {
+                continue;
+            }
+            final int hash = hash(pos);
+            final int maxLen = Math.min(MAX_MATCH, length - pos);
+            int cand = head[hash];
+            int best = MIN_MATCH - 1;
+            int chain = 0;
+            while (cand >= 0 && pos - cand <= WINDOW && chain++ < MAX_CHAIN) {
+                if (data[cand + best] == data[pos + best]) {
+                    int len = 0;
+                    while (len < maxLen && data[cand + len] == data[pos + len]) {
+                        len++;
+                    }
+                    if (len > best) {
+                        best = len;
+                        addMatch(len, pos - cand);
+                        if (len == maxLen) {
+                            break;
+                        }
+                    }
+                }
+                final int next = prev[cand & WINDOW_MASK];
+                if (next >= cand) {
+                    break;
+                }
+                cand = next;
+            }
+            prev[pos & WINDOW_MASK] = head[hash];
+            head[hash] = pos;
+        }
+        matchStart[length] = matchesSize;
+    }
+
+    private int hash(final int pos) {
+        final int val = (data[pos] & 0xff) << 16 | (data[pos + 1] & 0xff) << 8 | data[pos + 2] & 0xff;
+        return val * 0x9E37_79B1 >>> (32 - HASH_BITS);
+    }
+
+    private void addMatch(final int length, final int dist) {
+        if (matchesSize + 2 > matches.length) {
+            matches = Arrays.copyOf(matches, matches.length * 2);
+        }
+        matches[matchesSize++] = length;
+        matches[matchesSize++] = dist;
+    }
+
+    // ---------------------------------------------------------------------------------------- parsing
+
+    private Symbols greedyParse() {
+        final Symbols res = new Symbols(data.length / 4 + 16);
+        int pos = 0;
+        while (pos < data.length) {
+            final int last = matchStart[pos + 1] - 2;
+            if (last >= matchStart[pos]) {
+                res.add(matches[last], matches[last + 1], pos);
+                pos += matches[last];
+            } else {
+                res.add(data[pos] & 0xff, 0, pos);
+                pos++;
+            }
+        }
+        return res;
+    }
+
+    private Symbols optimize(final int from, final int to, final Stats initial) {
+        final Random random = new Random(1);
+        Stats stats = initial;
+        Symbols best = null;
+        long bestSize = Long.MAX_VALUE;
+        long lastSize = -1;
+        for (int i = 0; i < iterations; i++) {
+            final Symbols res = optimalParse(from, to, new CostModel(stats));
+            final Stats resStats = res.stats(0, res.size);
+            final long size = dynamicSize(resStats);
+            if (size < bestSize) {
+                best = res;
+                bestSize = size;
+            }
+            stats = resStats;
+            if (size == lastSize) {
+                // stuck: randomize statistics to escape local minimum
+                stats.randomize(random);
+            }
+            lastSize = size;
+        }
+        return best;
+    }
+
+    /**
+     * Shortest path search: minimal (estimated) bits cost for block encoding.
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private Symbols optimalParse(final int from, final int to, final CostModel model) {
+        final int length = to - from;
+        final double[] cost = new double[length + 1];
+        final int[] stepLen = new int[length + 1];
+        final int[] stepDist = new int[length + 1];
+        Arrays.fill(cost, Double.MAX_VALUE);
+        cost[0] = 0;
+        for (int i = 0; i < length; i++) {
+            final int pos = from + i;
+            final double base = cost[i];
+            final double literal = base + model.literal[data[pos] & 0xff];
+            if (literal < cost[i + 1]) {
+                cost[i + 1] = literal;
+                stepLen[i + 1] = 1;
+                stepDist[i + 1] = 0;
+            }
+            final int maxLen = to - pos;
+            int prevLen = MIN_MATCH - 1;
+            for (int m = matchStart[pos]; m < matchStart[pos + 1] && prevLen < maxLen; m += 2) {
+                final int upTo = Math.min(matches[m], maxLen);
+                final int dist = matches[m + 1];
+                final double distCost = base + model.dist(dist);
+                for (int len = prevLen + 1; len <= upTo; len++) {
+                    final double val = distCost + model.length[len];
+                    if (val < cost[i + len]) {
+                        cost[i + len] = val;
+                        stepLen[i + len] = len;
+                        stepDist[i + len] = dist;
+                    }
+                }
+                prevLen = upTo;
+            }
+        }
+        // backtrack
+        int count = 0;
+        for (int i = length; i > 0; i -= stepLen[i]) {
+            count++;
+        }
+        final Symbols res = new Symbols(count);
+        res.size = count;
+        int idx = count;
+        for (int i = length; i > 0; i -= stepLen[i]) {
+            idx--;
+            final int start = i - stepLen[i];
+            res.pos[idx] = from + start;
+            if (stepDist[i] == 0) {
+                res.litlen[idx] = data[from + start] & 0xff;
+            } else {
+                res.litlen[idx] = stepLen[i];
+                res.dist[idx] = stepDist[i];
+            }
+        }
+        return res;
+    }
+
+    // ---------------------------------------------------------------------------------------- block splitting
+
+    /**
+     * Recursive block splitting (on greedy parse result): split is applied if it reduces estimated size.
+     *
+     * @param symbols greedy parse result
+     * @return split points (symbol indexes), including 0 and symbols count
+     */
+    private int[] split(final Symbols symbols) {
+        final boolean[] points = new boolean[symbols.size + 1];
+        points[0] = true;
+        points[symbols.size] = true;
+        final int[] count = {1};
+        splitRange(symbols, 0, symbols.size, points, count);
+        final int[] res = new int[count[0] + 1];
+        int idx = 0;
+        for (int i = 0; i <= symbols.size; i++) {
+            if (points[i]) {
+                res[idx++] = i;
+            }
+        }
+        return res;
+    }
+
+    private void splitRange(final Symbols symbols, final int start, final int end,
+                            final boolean[] points, final int[] count) {
+        if (end - start < 64 || count[0] >= MAX_BLOCKS) {
+            return;
+        }
+        final long whole = dynamicSize(symbols.stats(start, end));
+        // narrowing search of split point with minimal total size
+        int low = start + 1;
+        int high = end - 1;
+        int best = -1;
+        long bestSize = Long.MAX_VALUE;
+        int step;
+        do {
+            step = Math.max(1, (high - low) / 10);
+            for (int point = low; point <= high; point += step) {
+                final long size = dynamicSize(symbols.stats(start, point)) + dynamicSize(symbols.stats(point, end));
+                if (size < bestSize) {
+                    bestSize = size;
+                    best = point;
+                }
+            }
+            low = Math.max(start + 1, best - step);
+            high = Math.min(end - 1, best + step);
+        } while (step > 1);
+        if (bestSize < whole) {
+            points[best] = true;
+            count[0]++;
+            splitRange(symbols, start, best, points, count);
+            splitRange(symbols, best, end, points, count);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------- output
+
+    private void writeBlock(final BitWriter out, final Symbols block, final int from, final int to,
+                            final boolean last) {
+        final Stats stats = block.stats(0, block.size);
+        final long dynamic = dynamicSize(stats);
+        final long fixed = stats.dataSize(FIXED_LITLEN, FIXED_DIST) + 3;
+        final long stored = storedSize(to - from);
+        if (stored < dynamic && stored < fixed) {
+            writeStored(out, from, to, last);
+            return;
+        }
+        out.write(last ? 1 : 0, 1);
+        final int[] litlenLens;
+        final int[] distLens;
+        if (fixed <= dynamic) {
+            out.write(1, 2);
+            litlenLens = FIXED_LITLEN;
+            distLens = FIXED_DIST;
+        } else {
+            out.write(2, 2);
+            litlenLens = stats.litlenLengths();
+            distLens = stats.distLengths();
+            writeTrees(out, litlenLens, distLens);
+        }
+        final int[] litlenCodes = canonicalCodes(litlenLens);
+        final int[] distCodes = canonicalCodes(distLens);
+        for (int i = 0; i < block.size; i++) {
+            final int dist = block.dist[i];
+            if (dist == 0) {
+                out.writeCode(litlenCodes[block.litlen[i]], litlenLens[block.litlen[i]]);
+            } else {
+                final int len = block.litlen[i];
+                final int li = LENGTH_INDEX[len];
+                out.writeCode(litlenCodes[257 + li], litlenLens[257 + li]);
+                out.write(len - LENGTH_BASE[li], LENGTH_EXTRA[li]);
+                final int di = distIndex(dist);
+                out.writeCode(distCodes[di], distLens[di]);
+                out.write(dist - DIST_BASE[di], DIST_EXTRA[di]);
+            }
+        }
+        out.writeCode(litlenCodes[END_OF_BLOCK], litlenLens[END_OF_BLOCK]);
+    }
+
+    private void writeStored(final BitWriter out, final int from, final int to, final boolean last) {
+        int pos = from;
+        do {
+            final int len = Math.min(MAX_STORED, to - pos);
+            out.write(last && pos + len == to ? 1 : 0, 1);
+            out.write(0, 2);
+            out.align();
+            out.write(len, 16);
+            out.write(~len & 0xffff, 16);
+            out.writeBytes(data, pos, len);
+            pos += len;
+        } while (pos < to);
+    }
+
+    private static void writeTrees(final BitWriter out, final int[] litlenLens, final int[] distLens) {
+        final int hlit = usedLength(litlenLens, 257);
+        final int hdist = usedLength(distLens, 1);
+        final int[] rle = rle(litlenLens, hlit, distLens, hdist);
+        final int[] clFreq = new int[19];
+        for (int i = 0; i < rle.length; i += 2) {
+            clFreq[rle[i]]++;
+        }
+        final int[] clLens = codeLengthLengths(clFreq);
+        final int[] clCodes = canonicalCodes(clLens);
+        int hclen = 19;
+        while (hclen > 4 && clLens[CL_ORDER[hclen - 1]] == 0) {
+            hclen--;
+        }
+        out.write(hlit - 257, 5);
+        out.write(hdist - 1, 5);
+        out.write(hclen - 4, 4);
+        for (int i = 0; i < hclen; i++) {
+            out.write(clLens[CL_ORDER[i]], 3);
+        }
+        for (int i = 0; i < rle.length; i += 2) {
+            final int sym = rle[i];
+            out.writeCode(clCodes[sym], clLens[sym]);
+            if (sym >= 16) {
+                out.write(rle[i + 1], sym == 16 ? 2 : sym == 17 ? 3 : 7);
+            }
+        }
+    }
+
+    private static long treesSize(final int[] litlenLens, final int[] distLens) {
+        final int hlit = usedLength(litlenLens, 257);
+        final int hdist = usedLength(distLens, 1);
+        final int[] rle = rle(litlenLens, hlit, distLens, hdist);
+        final int[] clFreq = new int[19];
+        for (int i = 0; i < rle.length; i += 2) {
+            clFreq[rle[i]]++;
+        }
+        final int[] clLens = codeLengthLengths(clFreq);
+        int hclen = 19;
+        while (hclen > 4 && clLens[CL_ORDER[hclen - 1]] == 0) {
+            hclen--;
+        }
+        long res = 5 + 5 + 4 + 3L * hclen;
+        for (int i = 0; i < 19; i++) {
+            res += (long) clFreq[i] * clLens[i];
+        }
+        return res + clFreq[16] * 2L + clFreq[17] * 3L + clFreq[18] * 7L;
+    }
+
+    /**
+     * Run-length encoding of code lengths.
+     *
+     * @return pairs (symbol, extra bits value)
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private static int[] rle(final int[] litlenLens, final int hlit, final int[] distLens, final int hdist) {
+        final int total = hlit + hdist;
+        final int[] lens = new int[total];
+        System.arraycopy(litlenLens, 0, lens, 0, hlit);
+        System.arraycopy(distLens, 0, lens, hlit, hdist);
+        final int[] res = new int[total * 2];
+        int size = 0;
+        int i = 0;
+        while (i < total) {
+            final int val = lens[i];
+            int run = 1;
+            while (i + run < total && lens[i + run] == val) {
+                run++;
+            }
+            i += run;
+            if (val == 0) {
+                while (run >= 11) {
+                    final int part = Math.min(run, 138);
+                    res[size++] = 18;
+                    res[size++] = part - 11;
+                    run -= part;
+                }
+                if (run >= 3) {
+                    res[size++] = 17;
+                    res[size++] = run - 3;
+                    run = 0;
+                }
+            } else {
+                res[size++] = val;
+                res[size++] = 0;
+                run--;
+                while (run >= 3) {
+                    final int part = Math.min(run, 6);
+                    res[size++] = 16;
+                    res[size++] = part - 3;
+                    run -= part;
+                }
+            }
+            while (run > 0) {
+                res[size++] = val;
+                res[size++] = 0;
+                run--;
+            }
+        }
+        return Arrays.copyOf(res, size);
+    }
+
+    private static int[] codeLengthLengths(final int[] clFreq) {
+        final int[] res = huffmanLengths(clFreq, MAX_CL_BITS);
+        int used = 0;
+        for (int len : res) {
+            if (len > 0) {
+                used++;
+            }
+        }
+        // incomplete code lengths code is not allowed: add second symbol
+        if (used == 1) {
+            res[res[0] == 0 ? 0 : 1] = 1;
+        }
+        return res;
+    }
+
+    private static int usedLength(final int[] lens, final int min) {
+        int res = lens.length;
+        while (res > min && lens[res - 1] == 0) {
+            res--;
+        }
+        return res;
+    }
+
+    private static long storedSize(final int length) {
+        final int blocks = (length + MAX_STORED - 1) / MAX_STORED;
+        return blocks * 40L + length * 8L;
+    }
+
+    private static long dynamicSize(final Stats stats) {
+        final int[] litlenLens = stats.litlenLengths();
+        final int[] distLens = stats.distLengths();
+        return 3 + treesSize(litlenLens, distLens) + stats.dataSize(litlenLens, distLens);
+    }
+
+    // ---------------------------------------------------------------------------------------- huffman
+
+    /**
+     * Huffman code lengths, limited by max length.
+     *
+     * @param freq    symbol frequencies
+     * @param maxBits maximum code length
+     * @return code lengths (0 for unused symbols)
+     */
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    static int[] huffmanLengths(final int[] freq, final int maxBits) {
+        final int[] res = new int[freq.length];
+        int used = 0;
+        for (int f : freq) {
+            if (f > 0) {
+                used++;
+            }
+        }
+        if (used == 0) {
+            return res;
+        }
+        // symbols sorted by frequency (ascending), ties by symbol for determinism
+        final long[] sorted = new long[used];
+        int idx = 0;
+        for (int i = 0; i < freq.length; i++) {
+            if (freq[i] > 0) {
+                sorted[idx++] = (long) freq[i] << 16 | i;
+            }
+        }
+        Arrays.sort(sorted);
+        if (used == 1) {
+            res[(int) (sorted[0] & 0xffff)] = 1;
+            return res;
+        }
+        // two-queue huffman tree build: leaves 0..used-1, internal nodes used..2*used-2
+        final long[] weight = new long[2 * used - 1];
+        final int[] parent = new int[2 * used - 1];
+        for (int i = 0; i < used; i++) {
+            weight[i] = sorted[i] >>> 16;
+        }
+        int leaf = 0;
+        int node = used;
+        int next = used;
+        while (next < 2 * used - 1) {
+            final int[] pick = new int[2];
+            for (int k = 0; k < 2; k++) {
+                if (leaf < used && (node >= next || weight[leaf] <= weight[node])) {
+                    pick[k] = leaf++;
+                } else {
+                    pick[k] = node++;
+                }
+            }
+            weight[next] = weight[pick[0]] + weight[pick[1]];
+            parent[pick[0]] = next;
+            parent[pick[1]] = next;
+            next++;
+        }
+        final int[] depth = new int[2 * used - 1];
+        final int[] count = new int[Math.max(maxBits, 2 * used) + 1];
+        for (int i = 2 * used - 3; i >= 0; i--) {
+            depth[i] = depth[parent[i]] + 1;
+        }
+        for (int i = 0; i < used; i++) {
+            count[depth[i]]++;
+        }
+        // limit code length (sum of 2^-len must remain 1)
+        for (int i = maxBits + 1; i < count.length; i++) {
+            count[maxBits] += count[i];
+            count[i] = 0;
+        }
+        long total = 0;
+        for (int i = maxBits; i > 0; i--) {
+            total += (long) count[i] << (maxBits - i);
+        }
+        while (total > 1L << maxBits) {
+            count[maxBits]--;
+            for (int i = maxBits - 1; i > 0; i--) {
+                if (count[i] > 0) {
+                    count[i]--;
+                    count[i + 1] += 2;
+                    break;
+                }
+            }
+            total--;
+        }
+        // longest codes for the rarest symbols
+        int len = maxBits;
+        for (int i = 0; i < used; i++) {
+            while (count[len] == 0) {
+                len--;
+            }
+            res[(int) (sorted[i] & 0xffff)] = len;
+            count[len]--;
+        }
+        return res;
+    }
+
+    private static int[] canonicalCodes(final int[] lens) {
+        final int[] count = new int[MAX_BITS + 1];
+        for (int len : lens) {
+            count[len]++;
+        }
+        count[0] = 0;
+        final int[] nextCode = new int[MAX_BITS + 1];
+        int code = 0;
+        for (int bits = 1; bits <= MAX_BITS; bits++) {
+            code = (code + count[bits - 1]) << 1;
+            nextCode[bits] = code;
+        }
+        final int[] res = new int[lens.length];
+        for (int i = 0; i < lens.length; i++) {
+            if (lens[i] > 0) {
+                res[i] = nextCode[lens[i]]++;
+            }
+        }
+        return res;
+    }
+
+    private static int distIndex(final int dist) {
+        int res = DIST_BASE.length - 1;
+        while (DIST_BASE[res] > dist) {
+            res--;
+        }
+        return res;
+    }
+
+    /**
+     * Parsing result (deflate symbols).
+     */
+    private static class Symbols {
+        // literal value or match length
+        private int[] litlen;
+        // 0 for literal
+        private int[] dist;
+        // symbol position in source data
+        private int[] pos;
+        private int size;
+
+        Symbols(final int capacity) {
+            litlen = new int[capacity];
+            dist = new int[capacity];
+            pos = new int[capacity];
+        }
+
+        void add(final int value, final int distance, final int position) {
+            if (size == litlen.length) {
+                final int cap = size * 2 + 16;
+                litlen = Arrays.copyOf(litlen, cap);
+                dist = Arrays.copyOf(dist, cap);
+                pos = Arrays.copyOf(pos, cap);
+            }
+            litlen[size] = value;
+            dist[size] = distance;
+            pos[size] = position;
+            size++;
+        }
+
+        Stats stats(final int from, final int to) {
+            final Stats res = new Stats();
+            for (int i = from; i < to; i++) {
+                if (dist[i] == 0) {
+                    res.litlen[litlen[i]]++;
+                } else {
+                    final int li = LENGTH_INDEX[litlen[i]];
+                    res.litlen[257 + li]++;
+                    res.lengthExtra += LENGTH_EXTRA[li];
+                    final int di = distIndex(dist[i]);
+                    res.dist[di]++;
+                    res.distExtra += DIST_EXTRA[di];
+                }
+            }
+            res.litlen[END_OF_BLOCK] = 1;
+            return res;
+        }
+    }
+
+    /**
+     * Symbol statistics.
+     */
+    private static class Stats {
+        private final int[] litlen = new int[LITLEN_CODES];
+        private final int[] dist = new int[DIST_CODES];
+        private long lengthExtra;
+        private long distExtra;
+
+        int[] litlenLengths() {
+            return huffmanLengths(litlen, MAX_BITS);
+        }
+
+        int[] distLengths() {
+            final int[] res = huffmanLengths(dist, MAX_BITS);
+            // at least two distance codes (some decoders fail on incomplete distance tree)
+            int used = 0;
+            for (int len : res) {
+                if (len > 0) {
+                    used++;
+                }
+            }
+            if (used < 2) {
+                if (res[0] == 0) {
+                    res[0] = 1;
+                } else {
+                    res[1] = 1;
+                }
+                if (used == 0) {
+                    res[1] = 1;
+                }
+            }
+            return res;
+        }
+
+        long dataSize(final int[] litlenLens, final int[] distLens) {
+            long res = lengthExtra + distExtra;
+            for (int i = 0; i < LITLEN_CODES; i++) {
+                res += (long) litlen[i] * litlenLens[i];
+            }
+            for (int i = 0; i < DIST_CODES; i++) {
+                res += (long) dist[i] * distLens[i];
+            }
+            return res;
+        }
+
+        void randomize(final Random random) {
+            randomize(litlen, random);
+            randomize(dist, random);
+            litlen[END_OF_BLOCK] = 1;
+        }
+
+        private static void randomize(final int[] freq, final Random random) {
+            for (int i = 0; i < freq.length; i++) {
+                if (random.nextInt(3) == 0) {
+                    freq[i] = freq[random.nextInt(freq.length)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Symbol costs (in bits) for optimal parsing, based on symbol statistics.
+     */
+    private static class CostModel {
+        private final double[] literal = new double[END_OF_BLOCK];
+        private final double[] length = new double[MAX_MATCH + 1];
+        private final double[] distance = new double[DIST_CODES];
+
+        CostModel(final Stats stats) {
+            final double[] litlenCost = entropy(stats.litlen);
+            final double[] distCost = entropy(stats.dist);
+            System.arraycopy(litlenCost, 0, literal, 0, END_OF_BLOCK);
+            for (int len = MIN_MATCH; len <= MAX_MATCH; len++) {
+                final int li = LENGTH_INDEX[len];
+                length[len] = litlenCost[257 + li] + LENGTH_EXTRA[li];
+            }
+            for (int i = 0; i < DIST_CODES; i++) {
+                distance[i] = distCost[i] + DIST_EXTRA[i];
+            }
+        }
+
+        double dist(final int dist) {
+            return distance[distIndex(dist)];
+        }
+
+        private static double[] entropy(final int[] freq) {
+            long sum = 0;
+            for (int f : freq) {
+                sum += f;
+            }
+            final double log2sum = Math.log(sum == 0 ? freq.length : sum) / Math.log(2);
+            final double[] res = new double[freq.length];
+            for (int i = 0; i < freq.length; i++) {
+                // unused symbols are expensive, but still possible
+                res[i] = freq[i] == 0 ? log2sum : log2sum - Math.log(freq[i]) / Math.log(2);
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Deflate bits writer (least significant bit first).
+     */
+    private static class BitWriter {
+        private final ByteArrayOutputStream out;
+        private long buffer;
+        private int bits;
+
+        BitWriter(final int capacity) {
+            out = new ByteArrayOutputStream(capacity);
+        }
+
+        void write(final int value, final int count) {
+            buffer |= (long) value << bits;
+            bits += count;
+            while (bits >= 8) {
+                out.write((int) buffer & 0xff);
+                buffer >>>= 8;
+                bits -= 8;
+            }
+        }
+
+        // huffman codes are written starting from the most significant bit
+        void writeCode(final int code, final int length) {
+            write(Integer.reverse(code) >>> (32 - length), length);
+        }
+
+        void writeBytes(final byte[] bytes, final int from, final int length) {
+            out.write(bytes, from, length);
+        }
+
+        void align() {
+            if (bits > 0) {
+                out.write((int) buffer & 0xff);
+                buffer = 0;
+                bits = 0;
+            }
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
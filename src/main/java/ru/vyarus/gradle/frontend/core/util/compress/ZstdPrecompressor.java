@@ -0,0 +1,31 @@
+package ru.vyarus.gradle.frontend.core.util.compress;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Zstandard encoder (native zstd library through zstd-jni).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class ZstdPrecompressor implements Precompressor {
+
+    private final int level;
+
+    public ZstdPrecompressor(final int level) {
+        this.level = level;
+    }
+
+    @Override
+    public Compression getType() {
+        return Compression.ZSTD;
+    }
+
+    @Override
+    public OutputStream wrap(final OutputStream out) throws IOException {
+        return new ZstdOutputStream(out, level);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.vyarus.gradle.frontend.core.util.minify;
+
+import ru.vyarus.gradle.frontend.core.util.FileCache;
+import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.Fingerprint;
+import ru.vyarus.gradle.frontend.core.util.OutputSink;
+
+import java.io.File;
+import java.math.BigInteger;
+
+/**
+ * Minifier decorator, caching minification results: minification (especially js) is the most expensive part of
+ * optimization, but the same files (e.g. not changed application files or local copies of libraries) are minified
+ * on each clean build.
+ * <p>
+ * Cache key is built from source content hash, minifier identity (tool version and options), source maps flag and
+ * file name (source name is stored inside minified file and source map). Content hash is taken from source file
+ * {@link Fingerprint} (streamed, so source file is not loaded into memory). On cache hit source map is simply copied
+ * from cache and minified content is written with output sink (so digests and compressed files are produced the
+ * same way as for actual minification).
+ * <p>
+ * NOTE: minifier warnings are not cached, so they are shown only for the first minification.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class CachingMinifier implements ResourceMinifier {
+
+    private final ResourceMinifier minifier;
+    private final FileCache cache;
+    private final Fingerprint fingerprint;
+
+    /**
+     * Create caching minifier.
+     *
+     * @param minifier    actual minifier
+     * @param cache       minification results cache
+     * @param fingerprint fingerprint of file to minify
+     */
+    public CachingMinifier(final ResourceMinifier minifier, final FileCache cache, final Fingerprint fingerprint) {
+        this.minifier = minifier;
+        this.cache = cache;
+        this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public MinifyResult minify(final File file, final boolean sourceMap, final OutputSink sink) {
+        final File target = new File(file.getParentFile(), FileUtils.getMinName(file.getName()));
+        final File map = sourceMap ? new File(target.getAbsolutePath() + ".map") : null;
+        final String key = buildKey(file, sourceMap);
+
+        final byte[] minified = cache.read(key + "#min");
+        if (minified != null && (map == null || cache.load(key + "#map", map))) {
+            // written with sink to compute digests and produce compressed files
+            return new MinifyResult(target, map, "\tMinification result loaded from cache",
+                    sink.write(target, minified));
+        }
+
+        final MinifyResult res = minifier.minify(file, sourceMap, sink);
+        cache.store(key + "#min", res.getMinified());
+        if (res.getSourceMap() != null) {
+            cache.store(key + "#map", res.getSourceMap());
+        }
+        return res;
+    }
+
+    @Override
+    public String getIdentity() {
+        return minifier.getIdentity();
+    }
+
+    private String buildKey(final File file, final boolean sourceMap) {
+        return String.format("%064x", new BigInteger(1, fingerprint.digest(Fingerprint.SHA_256))) + "|"
+                + getIdentity() + "|" + (sourceMap ? "map" : "nomap") + "|" + file.getName();
+    }
+}
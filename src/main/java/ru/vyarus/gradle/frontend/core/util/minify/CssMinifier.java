@@ -1,18 +1,15 @@
 package ru.vyarus.gradle.frontend.core.util.minify;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.graalvm.polyglot.Context;
-import org.graalvm.polyglot.Source;
-import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.PolyglotException;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.OutputSink;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +22,8 @@ import java.util.stream.Collectors;
  * <p>
  * Csso js is bundled inside jar. The latest csso version could be loaded from
  * <a href="https://cdn.jsdelivr.net/npm/csso">cdn</a>.
+ * <p>
+ * Csso is executed in pooled contexts (see {@link CssoPool}) to avoid csso parsing and warm-up for each file.
  *
  * @author Vyacheslav Rusakov
  * @since 31.01.2023
@@ -32,82 +31,60 @@ import java.util.stream.Collectors;
 public class CssMinifier implements ResourceMinifier {
 
     /**
-     * Csso tool name (copied nearby to processed file).
+     * Bundled csso version (must be updated together with csso.js).
+     */
+    private static final String CSSO_VERSION = "5.0.5";
+
+    private final CssoPool pool;
+
+    /**
+     * Create minifier with default (shared) csso pool.
      */
-    private static final String LOCAL_CSSO = "__csso.js";
+    public CssMinifier() {
+        this(CssoPool.getDefault());
+    }
+
+    /**
+     * Create minifier.
+     *
+     * @param pool csso contexts pool
+     */
+    public CssMinifier(final CssoPool pool) {
+        this.pool = pool;
+    }
 
     /**
      * Minify css file.
      *
      * @param file       file to minify
      * @param sourceMaps true to generate source map
+     * @param sink       minified file output
      * @return minification result
      */
-    @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
     @Override
-    public MinifyResult minify(final File file, final boolean sourceMaps) {
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public MinifyResult minify(final File file, final boolean sourceMaps, final OutputSink sink) {
         final File target = new File(file.getParentFile(), FileUtils.getMinName(file.getName()));
         final File sourceMap = sourceMaps ? new File(target.getAbsolutePath() + ".map") : null;
 
-        File localCsso = null;
-        final ByteArrayOutputStream output = new ByteArrayOutputStream();
-        try (Context context = Context.newBuilder("js")
-                .currentWorkingDirectory(file.getParentFile().toPath())
-                .out(output)
-                .err(output)
-                .allowIO(true)
-                .option("engine.WarnInterpreterOnly", "false")
-                .build()) {
-
-            // local csso file to simplify referencing
-            localCsso = copyCsso(target);
-
-            final Value jsBindings = context.getBindings("js");
-            // read entire source into variable because it would be loaded in any case - simpler to do in java
-            jsBindings.putMember("css", Files.readString(file.toPath()));
-
-            final String jsExecution = buildExecutionCode(file.getName(), sourceMaps);
-            final Value res = context.eval(Source.newBuilder("js", jsExecution, "cssmin.mjs").build());
-
-            writeFiles(target, sourceMap, res);
-        } catch (IOException ex) {
-            throw new IllegalStateException("Failed to minify css: " + file.getAbsolutePath() + "\n"
-                    + formatOutput(output), ex);
-        } finally {
-            // remove temporary lib
-            if (localCsso != null && localCsso.exists()) {
-                localCsso.delete();
-            }
-        }
-        return new MinifyResult(target, sourceMaps ? sourceMap : null, formatOutput(output));
-    }
-
-    private File copyCsso(final File target) throws IOException {
-        final File localCsso = new File(target.getParentFile(), LOCAL_CSSO);
-        try (InputStream in = CssMinifier.class.getResourceAsStream("/csso.js")) {
-            Files.write(localCsso.toPath(), in.readAllBytes());
+        final CssoPool.Result res;
+        final Map<String, byte[]> digests;
+        try {
+            res = pool.minify(Files.readString(file.toPath()), file.getName(), sourceMaps);
+            digests = writeFiles(target, sourceMap, res, sink);
+        } catch (IOException | PolyglotException ex) {
+            throw new IllegalStateException("Failed to minify css: " + file.getAbsolutePath(), ex);
         }
-        return localCsso;
+        return new MinifyResult(target, sourceMaps ? sourceMap : null, formatOutput(res.getOutput()), digests);
     }
 
-    private String buildExecutionCode(final String sourceFileName, final boolean generateSourceMap) {
-        final String options;
-        if (generateSourceMap) {
-            options = "{ sourceMap: true, filename: '" + sourceFileName + "'}";
-        } else {
-            options = "{}";
-        }
-
-        return "import { minify } from '" + LOCAL_CSSO + "';"
-                + "var res = minify(css, " + options + ");"
-                + "if (res.map) {"
-                + "   res.sourceMap = res.map.toString();"
-                + "}"
-                + "res;";
+    @Override
+    public String getIdentity() {
+        return "csso " + CSSO_VERSION;
     }
 
-    private String formatOutput(final ByteArrayOutputStream stream) {
-        String out = stream.toString(StandardCharsets.UTF_8);
+    private String formatOutput(final String output) {
+        String out = output;
         if (!out.isEmpty()) {
             out = Arrays.stream(out.split("\n"))
                     .map(s -> "\t" + s).collect(Collectors.joining("\n"));
@@ -115,16 +92,18 @@ public class CssMinifier implements ResourceMinifier {
         return out;
     }
 
-    private void writeFiles(final File target, final File sourceMap, final Value res) throws IOException {
-        String minified = res.getMember("css").asString();
-        final String sourceMapContent = res.getMember("sourceMap") != null
-                ? res.getMember("sourceMap").asString() : null;
+    private Map<String, byte[]> writeFiles(final File target,
+                                           final File sourceMap,
+                                           final CssoPool.Result res,
+                                           final OutputSink sink) throws IOException {
+        String minified = res.getCss();
+        final String sourceMapContent = res.getSourceMap();
 
         if (sourceMapContent != null) {
             minified += "\n/*# sourceMappingURL=" + sourceMap.getName() + "*/";
             Files.writeString(sourceMap.toPath(), sourceMapContent, StandardCharsets.UTF_8);
         }
 
-        Files.writeString(target.toPath(), minified, StandardCharsets.UTF_8);
+        return sink.write(target, minified);
     }
 }
@@ -0,0 +1,237 @@
+package ru.vyarus.gradle.frontend.core.util.minify;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Pool of <a href="https://github.com/css/csso">csso</a> execution contexts. All contexts use the same shared
+ * graalvm {@link Engine} and the same cached sources, so csso code is parsed (and optimized) only once and re-used
+ * for all minified files (instead of full warm-up for each file).
+ * <p>
+ * Graalvm context can't be used concurrently, so each context is used by one thread at a time. Contexts are created
+ * lazily (up to pool size); when all contexts are busy, minification waits for released context.
+ * <p>
+ * Csso is loaded from in-memory source (bundled esm module is converted into script), so contexts do not need
+ * file system access at all (no temporary files).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public class CssoPool implements AutoCloseable {
+
+    /**
+     * Context initialization: minification function declaration.
+     */
+    private static final Source INIT = Source.newBuilder("js",
+            "globalThis.cssoMinify = function(css, filename, sourceMap) {"
+            + "   var res = csso.minify(css, sourceMap ? { sourceMap: true, filename: filename } : {});"
+            + "   return { css: res.css, sourceMap: res.map ? res.map.toString() : null };"
+            + "};", "cssoinit.js").buildLiteral();
+
+    /**
+     * Exports declaration of bundled csso module (at the end of file).
+     */
+    private static final Pattern EXPORTS = Pattern.compile("export\\s*\\{([^}]*)}\\s*;?\\s*$");
+
+    private static final CssoPool DEFAULT = new CssoPool(Runtime.getRuntime().availableProcessors());
+
+    private final Semaphore limit;
+    private final Queue<PooledContext> idle = new ConcurrentLinkedQueue<>();
+    private final Queue<PooledContext> all = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create pool.
+     *
+     * @param size maximum number of contexts (simultaneous minifications)
+     * @throws java.lang.IllegalStateException if provided value is less than 1
+     */
+    public CssoPool(final int size) throws IllegalStateException {
+        if (size < 1) {
+            throw new IllegalStateException("Csso pool size must be a positive number: " + size);
+        }
+        this.limit = new Semaphore(size);
+    }
+
+    /**
+     * Shared instance, used by {@link CssMinifier} when no pool provided directly.
+     *
+     * @return default pool instance
+     */
+    public static CssoPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Minify css content.
+     *
+     * @param css       css content
+     * @param fileName  source file name (for source map)
+     * @param sourceMap true to generate source map
+     * @return minification result
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public Result minify(final String css, final String fileName, final boolean sourceMap) {
+        limit.acquireUninterruptibly();
+        try {
+            PooledContext context = idle.poll();
+            if (context == null) {
+                context = create();
+            }
+            final Result res;
+            try {
+                res = context.minify(css, fileName, sourceMap);
+            } catch (RuntimeException ex) {
+                // context state is unknown after error
+                all.remove(context);
+                context.close();
+                throw ex;
+            }
+            idle.add(context);
+            return res;
+        } finally {
+            limit.release();
+        }
+    }
+
+    /**
+     * Close all contexts.
+     */
+    @Override
+    public void close() {
+        idle.clear();
+        all.forEach(PooledContext::close);
+        all.clear();
+    }
+
+    private PooledContext create() {
+        final PooledContext context = new PooledContext();
+        all.add(context);
+        return context;
+    }
+
+    /**
+     * Bundled csso is an esm module, which could be imported only from file system. Instead, module exports
+     * declaration is replaced with global variable assignment, so csso could be loaded as a simple script.
+     *
+     * @return csso script source
+     */
+    private static Source loadCsso() {
+        final String content;
+        try (InputStream in = CssoPool.class.getResourceAsStream("/csso.js")) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to load csso", ex);
+        }
+        final Matcher matcher = EXPORTS.matcher(content);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected csso.js format: exports declaration not found");
+        }
+        // "X0 as minify" -> "minify: X0"
+        final String exports = Arrays.stream(matcher.group(1).split(","))
+                .map(String::trim)
+                .map(export -> {
+                    final String[] parts = export.split("\\s+as\\s+");
+                    return parts[parts.length - 1] + ": " + parts[0];
+                })
+                .collect(Collectors.joining(", "));
+        // module code is always strict
+        return Source.newBuilder("js", "globalThis.csso = (function() { 'use strict'; "
+                + content.substring(0, matcher.start()) + "\nreturn { " + exports + " }; })();", "csso.js")
+                .buildLiteral();
+    }
+
+    /**
+     * Shared engine and csso source holder (lazy initialization).
+     */
+    private static final class EngineHolder {
+        static final Engine ENGINE = Engine.newBuilder()
+                .option("engine.WarnInterpreterOnly", "false")
+                .build();
+        static final Source CSSO = loadCsso();
+    }
+
+    /**
+     * Csso execution context.
+     */
+    private static final class PooledContext {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final Context context;
+        private final Value function;
+
+        PooledContext() {
+            context = Context.newBuilder("js")
+                    .engine(EngineHolder.ENGINE)
+                    .out(output)
+                    .err(output)
+                    // no file system access required
+                    .allowIO(false)
+                    .build();
+            context.eval(EngineHolder.CSSO);
+            context.eval(INIT);
+            function = context.getBindings("js").getMember("cssoMinify");
+        }
+
+        Result minify(final String css, final String fileName, final boolean sourceMap) {
+            output.reset();
+            final Value res = function.execute(css, fileName, sourceMap);
+            final Value map = res.getMember("sourceMap");
+            return new Result(res.getMember("css").asString(),
+                    map == null || map.isNull() ? null : map.asString(),
+                    output.toString(StandardCharsets.UTF_8));
+        }
+
+        void close() {
+            context.close();
+        }
+    }
+
+    /**
+     * Csso minification result.
+     */
+    public static class Result {
+        private final String css;
+        private final String sourceMap;
+        private final String output;
+
+        public Result(final String css, final String sourceMap, final String output) {
+            this.css = css;
+            this.sourceMap = sourceMap;
+            this.output = output;
+        }
+
+        /**
+         * @return minified css
+         */
+        public String getCss() {
+            return css;
+        }
+
+        /**
+         * @return source map content or null
+         */
+        public String getSourceMap() {
+            return sourceMap;
+        }
+
+        /**
+         * @return csso console output (warnings)
+         */
+        public String getOutput() {
+            return output;
+        }
+    }
+}
@@ -15,32 +15,44 @@ import com.google.javascript.jscomp.SourceMap;
 import com.google.javascript.jscomp.WarningLevel;
 import com.google.javascript.jscomp.deps.ModuleLoader;
 import ru.vyarus.gradle.frontend.core.util.FileUtils;
+import ru.vyarus.gradle.frontend.core.util.OutputSink;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Js minification with <a href="https://github.com/google/closure-compiler">closure-compiler</a>.
+ * <p>
+ * Built-in browser externs are loaded (unpacked from compiler jar) only once and shared by all compilations.
+ * Compiler options are mutable (and modified by compiler), so they are created for each compilation.
  *
  * @author Vyacheslav Rusakov
  * @since 31.01.2023
  */
 public class JsMinifier implements ResourceMinifier {
 
+    /**
+     * Minification options description (must be updated with {@link #buildOptions()} changes).
+     */
+    private static final String OPTIONS = "SIMPLE_OPTIMIZATIONS;BROWSER;removeDeadCode=false;commonJS=false";
+
     /**
      * Minify js file.
      *
      * @param file       file to minify
      * @param sourceMaps true to generate source map
+     * @param sink       minified file output
      * @return minification result
      */
     @Override
-    public MinifyResult minify(final File file, final boolean sourceMaps) {
+    public MinifyResult minify(final File file, final boolean sourceMaps, final OutputSink sink) {
         final File target = new File(file.getParentFile(), FileUtils.getMinName(file.getName()));
         final File sourceMap = sourceMaps ? new File(target.getAbsolutePath() + ".map") : null;
 
@@ -48,23 +60,28 @@ public class JsMinifier implements ResourceMinifier {
         // hide errors from log (log manually from result)
         final ErrorManager errors = new ErrorManager(compiler);
         compiler.setErrorManager(errors);
-        final CompilerOptions options = buildOptions(target, sourceMap);
-        final List<SourceFile> externs = buildExterns(options);
+        final CompilerOptions options = buildOptions();
+        configureOutput(options, target, sourceMap);
+        final List<SourceFile> externs = buildExterns();
 
         final Result result = compiler.compile(
                 externs, Collections.singletonList(SourceFile.fromFile(file.getAbsolutePath())), options);
 
         final String errorsLog = prepareErrorsLog(errors.getMessages());
 
-        if (result.success) {
-            writeFiles(target, sourceMap, compiler.toSource(), result);
-        } else {
+        if (!result.success) {
             throw new IllegalStateException("Failed to minify js: " + file.getAbsolutePath() + "\n" + errorsLog);
         }
-        return new MinifyResult(target, sourceMap, errorsLog.isEmpty() ? null : errorsLog);
+        final Map<String, byte[]> digests = writeFiles(target, sourceMap, compiler.toSource(), result, sink);
+        return new MinifyResult(target, sourceMap, errorsLog.isEmpty() ? null : errorsLog, digests);
+    }
+
+    @Override
+    public String getIdentity() {
+        return "closure-compiler " + Compiler.getReleaseVersion() + " " + OPTIONS;
     }
 
-    private CompilerOptions buildOptions(final File target, final File sourceMap) {
+    private CompilerOptions buildOptions() {
         final CompilerOptions options = new CompilerOptions();
         options.setEnvironment(CompilerOptions.Environment.BROWSER);
 
@@ -84,7 +101,10 @@ public class JsMinifier implements ResourceMinifier {
 
         options.setModuleResolutionMode(ModuleLoader.ResolutionMode.BROWSER);
         options.setProcessCommonJSModules(false);
+        return options;
+    }
 
+    private void configureOutput(final CompilerOptions options, final File target, final File sourceMap) {
         if (sourceMap != null) {
             options.setSourceMapOutputPath(sourceMap.getAbsolutePath());
             // avoid absolute paths in source map
@@ -94,13 +114,22 @@ public class JsMinifier implements ResourceMinifier {
                             // reversed, and the following reverse is required for proper matching
                             target.getParentFile().getAbsolutePath().replace("\\", "/") + "/", "")));
         }
+    }
 
-        return options;
+    private List<SourceFile> buildExterns() {
+        // source files are not shared between (possibly parallel) compilations, only loaded content
+        return ExternsHolder.EXTERNS.entrySet().stream()
+                .map(entry -> SourceFile.fromCode(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
     }
 
-    private List<SourceFile> buildExterns(final CompilerOptions options) {
+    private static Map<String, String> loadExterns() {
         try {
-            return AbstractCommandLineRunner.getBuiltinExterns(options.getEnvironment());
+            final Map<String, String> res = new LinkedHashMap<>();
+            for (SourceFile file : AbstractCommandLineRunner.getBuiltinExterns(CompilerOptions.Environment.BROWSER)) {
+                res.put(file.getName(), file.getCode());
+            }
+            return res;
         } catch (IOException e) {
             throw new IllegalStateException("Failed to prepare built-in externs for closure compiler", e);
         }
@@ -114,10 +143,11 @@ public class JsMinifier implements ResourceMinifier {
         return extraLog;
     }
 
-    private void writeFiles(final File target,
-                            final File sourceMap,
-                            final String minified,
-                            final Result minificationData) {
+    private Map<String, byte[]> writeFiles(final File target,
+                                           final File sourceMap,
+                                           final String minified,
+                                           final Result minificationData,
+                                           final OutputSink sink) {
         String content = minified;
         if (sourceMap != null) {
             final StringBuilder sm = new StringBuilder();
@@ -129,7 +159,14 @@ public class JsMinifier implements ResourceMinifier {
             FileUtils.writeFile(sourceMap, sm.toString());
             content += "\n//# sourceMappingURL=" + sourceMap.getName();
         }
-        FileUtils.writeFile(target, content);
+        return sink.write(target, content);
+    }
+
+    /**
+     * Built-in externs holder (lazy initialization).
+     */
+    private static final class ExternsHolder {
+        static final Map<String, String> EXTERNS = loadExterns();
     }
 
     /**
@@ -1,6 +1,8 @@
 package ru.vyarus.gradle.frontend.core.util.minify;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * Resource minification result.
@@ -13,11 +15,20 @@ public class MinifyResult {
     private final File minified;
     private final File sourceMap;
     private final String extraLog;
+    private final Map<String, byte[]> digests;
 
     public MinifyResult(final File minified, final File sourceMap, final String extraLog) {
+        this(minified, sourceMap, extraLog, Collections.emptyMap());
+    }
+
+    public MinifyResult(final File minified,
+                        final File sourceMap,
+                        final String extraLog,
+                        final Map<String, byte[]> digests) {
         this.minified = minified;
         this.sourceMap = sourceMap;
         this.extraLog = extraLog;
+        this.digests = digests;
     }
 
     /**
@@ -40,4 +51,11 @@ public class MinifyResult {
     public String getExtraLog() {
         return extraLog;
     }
+
+    /**
+     * @return minified file digests, computed during writing (empty if not computed)
+     */
+    public Map<String, byte[]> getDigests() {
+        return digests;
+    }
 }
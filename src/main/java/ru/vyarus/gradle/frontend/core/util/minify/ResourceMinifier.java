@@ -1,5 +1,7 @@
 package ru.vyarus.gradle.frontend.core.util.minify;
 
+import ru.vyarus.gradle.frontend.core.util.OutputSink;
+
 import java.io.File;
 
 /**
@@ -15,5 +17,26 @@ public interface ResourceMinifier {
      * @param sourceMap true to generate source map
      * @return minification result
      */
-    MinifyResult minify(File file, boolean sourceMap);
+    default MinifyResult minify(final File file, final boolean sourceMap) {
+        return minify(file, sourceMap, OutputSink.PLAIN);
+    }
+
+    /**
+     * Minified file is written with provided sink (digests and compressed files produced together with file
+     * writing). Source map is written as usual because it could be modified after minification.
+     *
+     * @param file      file to minify
+     * @param sourceMap true to generate source map
+     * @param sink      minified file output
+     * @return minification result
+     */
+    MinifyResult minify(File file, boolean sourceMap, OutputSink sink);
+
+    /**
+     * Minifier identity used for minification results caching: must change with any change affecting minification
+     * result (tool version, options).
+     *
+     * @return minifier identity
+     */
+    String getIdentity();
 }
@@ -0,0 +1,41 @@
+package ru.vyarus.gradle.frontend.task;
+
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import ru.vyarus.gradle.frontend.core.SharedServices;
+
+/**
+ * Build service, shared by all optimization tasks in the build (e.g. for multiple webapp sub projects). Owns
+ * downloads and minification caches, downloaders and pooled minifier engines, so the same libraries (used
+ * in different projects) are downloaded and minified once and warmed engines are re-used by all tasks.
+ * <p>
+ * Number of optimization tasks, executed in parallel, is limited by service max parallel usages (configured
+ * with "prodFrontend.maxParallelTasks" gradle property).
+ * <p>
+ * Services are closed (and outdated cache entries evicted) at the end of the build.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public abstract class OptimizationBuildService implements BuildService<BuildServiceParameters.None>,
+        AutoCloseable {
+
+    /**
+     * Gradle property for parallel optimization tasks limit.
+     */
+    public static final String MAX_PARALLEL_TASKS = "prodFrontend.maxParallelTasks";
+
+    private final SharedServices services = new SharedServices(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * @return shared optimization services
+     */
+    public SharedServices getServices() {
+        return services;
+    }
+
+    @Override
+    public void close() {
+        services.close();
+    }
+}
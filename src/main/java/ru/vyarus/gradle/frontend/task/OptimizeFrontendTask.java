@@ -4,21 +4,47 @@ package ru.vyarus.gradle.frontend.task;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Console;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import ru.vyarus.gradle.frontend.core.OptimizationFlow;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
 
+import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Frontend optimization task.
  * <p>
- * NOTE: task always execute, because there is no way to detect UP_TO_DATE state, as files being modified
- * directly inside target directory.
+ * NOTE: by default, task always execute, because there is no way to detect UP_TO_DATE state, as files being
+ * modified directly inside target directory. When output directory configured, optimization results are written
+ * into separate directory: task becomes a usual cacheable task (could be UP_TO_DATE or loaded from build cache).
+ * Note that remote resources are not task inputs (only urls inside html files), so changes of not versioned cdn
+ * urls content would not be detected.
+ * <p>
+ * With output directory, task is incremental: only changed pages and pages, referencing changed files, are
+ * processed (used files of each page are stored in state file).
+ * <p>
+ * Optimization is executed with gradle worker API, so other tasks could run in parallel. Optionally, optimization
+ * could be performed in the separate worker process (process isolation) with configurable heap size: worker
+ * processes are re-used between builds (minifiers stay warm) and gradle daemon heap is not affected.
  * <p>
  * Task supports execution on already processed folder (in this case simply no optimizations would be performed).
  * <p>
@@ -27,6 +53,7 @@ import java.io.File;
  * @author Vyacheslav Rusakov
  * @since 28.01.2023
  */
+@CacheableTask
 public abstract class OptimizeFrontendTask extends DefaultTask {
 
     /**
@@ -39,13 +66,34 @@ public abstract class OptimizeFrontendTask extends DefaultTask {
 
     /**
      * Default: build/webapp.
-     * NOTE that optimization performed directly inside directory.
+     * NOTE that optimization performed directly inside directory (unless output directory configured).
      *
      * @return directory where html files must be found and processed
      */
     @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.RELATIVE)
     public abstract DirectoryProperty getSourceDir();
 
+    /**
+     * Default: not set (optimization performed directly inside source directory).
+     * When set, source directory copied into output directory and optimized there (source directory not modified).
+     *
+     * @return output directory for optimized files
+     */
+    @OutputDirectory
+    @Optional
+    public abstract DirectoryProperty getOutputDir();
+
+    /**
+     * Default: build/prod-frontend/[task name]-state.json when output directory configured (not set otherwise).
+     *
+     * @return incremental processing state file (stores source files used by each page)
+     */
+    @OutputFile
+    @Optional
+    public abstract RegularFileProperty getStateFile();
+
     /**
      * Default: js (inside sourceDir).
      *
@@ -71,6 +119,15 @@ public abstract class OptimizeFrontendTask extends DefaultTask {
     @Input
     public abstract ListProperty<String> getHtmlExtensions();
 
+    /**
+     * Default: none.
+     * Streaming scanner detects resource tags without html document parsing (useful for large templates).
+     *
+     * @return extensions of files to process with streaming tag scanner instead of html parser
+     */
+    @Input
+    public abstract ListProperty<String> getScanExtensions();
+
     /**
      * NOTE: separate ignores also available for download and minification (only).
      *
@@ -109,6 +166,30 @@ public abstract class OptimizeFrontendTask extends DefaultTask {
     @Input
     public abstract ListProperty<String> getDownloadIgnore();
 
+    /**
+     * Default: 6.
+     *
+     * @return maximum number of simultaneous downloads from the same host
+     */
+    @Internal
+    public abstract Property<Integer> getDownloadConcurrency();
+
+    /**
+     * Default: true.
+     *
+     * @return true to use persistent downloads cache
+     */
+    @Internal
+    public abstract Property<Boolean> getDownloadCache();
+
+    /**
+     * Default: caches/prod-frontend inside gradle user home.
+     *
+     * @return persistent caches directory
+     */
+    @Internal
+    public abstract DirectoryProperty getCacheDir();
+
     /**
      * Default: true.
      *
@@ -165,6 +246,14 @@ public abstract class OptimizeFrontendTask extends DefaultTask {
     @Input
     public abstract ListProperty<String> getMinifyIgnore();
 
+    /**
+     * Default: true.
+     *
+     * @return true to use persistent minification results cache
+     */
+    @Internal
+    public abstract Property<Boolean> getMinifyCache();
+
     /**
      * Default: true.
      * This allows to configure forever caching for static resources (except root html).
@@ -193,39 +282,225 @@ public abstract class OptimizeFrontendTask extends DefaultTask {
     @Input
     public abstract Property<Boolean> getGzip();
 
+    /**
+     * Default: 9.
+     *
+     * @return gzip compression level (1-9)
+     */
+    @Input
+    public abstract Property<Integer> getGzipLevel();
+
+    /**
+     * Default: "default".
+     * Zopfli mode produces 3-8% smaller gzip files, but much slower.
+     *
+     * @return gzip mode ("default" or "zopfli")
+     */
+    @Input
+    public abstract Property<String> getGzipMode();
+
+    /**
+     * Default: 15.
+     *
+     * @return zopfli optimization iterations (only for zopfli gzip mode)
+     */
+    @Input
+    public abstract Property<Integer> getZopfliIterations();
+
+    /**
+     * Default: woff, woff2, png, jpg, jpeg, gif, webp, avif, zip, gz, br, zst, video/*, audio/*.
+     *
+     * @return file extensions or mime types to avoid precompression for
+     */
+    @Input
+    public abstract ListProperty<String> getCompressSkip();
+
+    /**
+     * Default: 0.
+     *
+     * @return minimal file size (bytes) for precompression
+     */
+    @Input
+    public abstract Property<Integer> getCompressMinSize();
+
+    /**
+     * Default: 0 (keep all).
+     *
+     * @return minimal size decrease (percent) to keep precompressed file
+     */
+    @Input
+    public abstract Property<Integer> getCompressMinSavings();
+
+    /**
+     * Default: false.
+     * Brotli files size also shown in final report.
+     *
+     * @return true to create .br files for all resources
+     */
+    @Input
+    public abstract Property<Boolean> getBrotli();
+
+    /**
+     * Default: 11.
+     *
+     * @return brotli compression level (0-11)
+     */
+    @Input
+    public abstract Property<Integer> getBrotliLevel();
+
+    /**
+     * Default: false.
+     * Zstd files size also shown in final report.
+     *
+     * @return true to create .zst files for all resources
+     */
+    @Input
+    public abstract Property<Boolean> getZstd();
+
+    /**
+     * Default: 19.
+     *
+     * @return zstd compression level (1-22)
+     */
+    @Input
+    public abstract Property<Integer> getZstdLevel();
+
+    /**
+     * Default: 1.
+     * Parallel processing does not affect optimization result.
+     *
+     * @return number of html pages processed in parallel (1 for sequential processing)
+     */
+    @Internal
+    public abstract Property<Integer> getParallelism();
+
+    /**
+     * Default: 0 (disabled).
+     * Streaming mode limits memory consumption for very large sites (result does not depend on window size).
+     *
+     * @return number of html pages, parsed and processed together (0 to process all pages together)
+     */
+    @Internal
+    public abstract Property<Integer> getStreamingWindow();
+
+    /**
+     * Default: false.
+     * Process isolation requires separate worker process startup (once, as worker processes are re-used between
+     * builds), but minification would not pressure gradle daemon heap.
+     *
+     * @return true to run optimization in the separate worker process
+     */
+    @Internal
+    public abstract Property<Boolean> getProcessIsolation();
+
+    /**
+     * Default: not set (gradle default).
+     * Used only with process isolation.
+     *
+     * @return maximum heap size for worker process (e.g. "512m")
+     */
+    @Internal
+    public abstract Property<String> getWorkerHeapSize();
+
+    /**
+     * Shared by all optimization tasks in build (set by plugin). Not used with process isolation (worker process
+     * would use its own services).
+     *
+     * @return shared optimization services
+     */
+    @Internal
+    public abstract Property<OptimizationBuildService> getBuildService();
+
+    /**
+     * @return gradle worker API executor
+     */
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
     @TaskAction
-    public void run() {
+    public void run(final InputChanges inputChanges) {
         // check target folder
         final File root = getSourceDir().get().getAsFile();
         if (!root.exists()) {
             throw new GradleException("Webapp directory does not exists: " + root.getAbsolutePath());
         }
+        final List<File> changed = getChangedFiles(inputChanges);
+
+        final WorkQueue queue = getProcessIsolation().get()
+                ? getWorkerExecutor().processIsolation(spec -> {
+                    if (getWorkerHeapSize().isPresent()) {
+                        spec.forkOptions(options -> options.setMaxHeapSize(getWorkerHeapSize().get()));
+                    }
+                })
+                : getWorkerExecutor().noIsolation();
 
-        OptimizationFlow.create(root)
-                .jsDir(getJsDir().get())
-                .cssDir(getCssDir().get())
-                .htmlExtensions(getHtmlExtensions().get())
-                .ignore(getIgnore().get())
-
-                .downloadResources(getDownloadResources().get())
-                .preferMinDownload(getPreferMinDownload().get())
-                .downloadSourceMaps(getDownloadSourceMaps().get())
-                .downloadIgnore(getDownloadIgnore().get())
-
-                .minifyJs(getMinifyJs().get())
-                .minifyCss(getMinifyCss().get())
-                .minifyHtml(getMinifyHtml().get())
-                .minifyHtmlCss(getMinifyHtmlCss().get())
-                .minifyHtmlJs(getMinifyHtmlJs().get())
-                .generateSourceMaps(getGenerateSourceMaps().get())
-                .minifyIgnore(getMinifyIgnore().get())
-                
-                .applyAntiCache(getApplyAntiCache().get())
-                .applyIntegrity(getApplyIntegrity().get())
-                .gzip(getGzip().get())
-                .debug(getDebug().get())
-
-                .run()
-                .printStats();
+        // task would complete after work execution (no need to wait here)
+        queue.submit(OptimizeFrontendWork.class, params -> {
+            if (!getProcessIsolation().get()) {
+                params.getBuildService().set(getBuildService());
+            }
+            params.getSourceDir().set(getSourceDir());
+            params.getOutputDir().set(getOutputDir());
+            params.getStateFile().set(getStateFile());
+            params.getIncremental().set(changed != null);
+            if (changed != null) {
+                params.getChangedFiles().from(changed);
+            }
+            params.getJsDir().set(getJsDir());
+            params.getCssDir().set(getCssDir());
+            params.getHtmlExtensions().set(getHtmlExtensions());
+            params.getScanExtensions().set(getScanExtensions());
+            params.getIgnore().set(getIgnore());
+
+            params.getDownloadResources().set(getDownloadResources());
+            params.getPreferMinDownload().set(getPreferMinDownload());
+            params.getDownloadSourceMaps().set(getDownloadSourceMaps());
+            params.getDownloadIgnore().set(getDownloadIgnore());
+            params.getDownloadConcurrency().set(getDownloadConcurrency());
+            if (getDownloadCache().get()) {
+                params.getDownloadCacheDir().set(getCacheDir().dir("downloads"));
+            }
+
+            params.getMinifyJs().set(getMinifyJs());
+            params.getMinifyCss().set(getMinifyCss());
+            params.getMinifyHtml().set(getMinifyHtml());
+            params.getMinifyHtmlCss().set(getMinifyHtmlCss());
+            params.getMinifyHtmlJs().set(getMinifyHtmlJs());
+            params.getGenerateSourceMaps().set(getGenerateSourceMaps());
+            params.getMinifyIgnore().set(getMinifyIgnore());
+            if (getMinifyCache().get()) {
+                params.getMinifyCacheDir().set(getCacheDir().dir("minify"));
+            }
+
+            params.getApplyAntiCache().set(getApplyAntiCache());
+            params.getApplyIntegrity().set(getApplyIntegrity());
+            params.getGzip().set(getGzip());
+            params.getGzipLevel().set(getGzipLevel());
+            params.getGzipMode().set(getGzipMode());
+            params.getZopfliIterations().set(getZopfliIterations());
+            params.getCompressSkip().set(getCompressSkip());
+            params.getCompressMinSize().set(getCompressMinSize());
+            params.getCompressMinSavings().set(getCompressMinSavings());
+            params.getBrotli().set(getBrotli());
+            params.getBrotliLevel().set(getBrotliLevel());
+            params.getZstd().set(getZstd());
+            params.getZstdLevel().set(getZstdLevel());
+            params.getDebug().set(getDebug());
+            params.getParallelism().set(getParallelism());
+            params.getStreamingWindow().set(getStreamingWindow());
+        });
+    }
+
+    private List<File> getChangedFiles(final InputChanges inputChanges) {
+        if (!inputChanges.isIncremental()) {
+            return null;
+        }
+        final List<File> res = new ArrayList<>();
+        for (FileChange change : inputChanges.getFileChanges(getSourceDir())) {
+            if (change.getFileType() != FileType.DIRECTORY) {
+                res.add(change.getFile());
+            }
+        }
+        return res;
     }
 }
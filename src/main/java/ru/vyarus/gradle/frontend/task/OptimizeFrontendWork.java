@@ -0,0 +1,187 @@
+package ru.vyarus.gradle.frontend.task;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import ru.vyarus.gradle.frontend.core.OptimizationFlow;
+import ru.vyarus.gradle.frontend.core.util.compress.Compression;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Optimization unit of work, submitted by {@link OptimizeFrontendTask} into gradle worker API.
+ * <p>
+ * Minification is performed during resources resolution (each page resources are minified right after download),
+ * so the entire optimization flow is executed as one unit of work. Worker might be executed in the gradle daemon
+ * or in the separate (isolated) worker process: worker processes are re-used by gradle between builds and so
+ * already warmed minifiers (loaded closure compiler externs and graalvm engine with parsed csso) are also re-used.
+ * Inside gradle daemon, shared {@link OptimizationBuildService} is used.
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+public abstract class OptimizeFrontendWork implements WorkAction<OptimizeFrontendWork.Parameters> {
+
+    @Override
+    public void execute() {
+        final Parameters params = getParameters();
+        final File downloadCache = params.getDownloadCacheDir().isPresent()
+                ? params.getDownloadCacheDir().get().getAsFile() : null;
+        final File minifyCache = params.getMinifyCacheDir().isPresent()
+                ? params.getMinifyCacheDir().get().getAsFile() : null;
+
+        OptimizationFlow.create(params.getSourceDir().get().getAsFile())
+                .sharedServices(params.getBuildService().isPresent()
+                        ? params.getBuildService().get().getServices() : null)
+                .outputDir(params.getOutputDir().isPresent() ? params.getOutputDir().get().getAsFile() : null)
+                .incremental(params.getStateFile().isPresent() ? params.getStateFile().get().getAsFile() : null,
+                        params.getIncremental().get() ? new ArrayList<>(params.getChangedFiles().getFiles()) : null)
+                .jsDir(params.getJsDir().get())
+                .cssDir(params.getCssDir().get())
+                .htmlExtensions(params.getHtmlExtensions().get())
+                .scanExtensions(params.getScanExtensions().get())
+                .ignore(params.getIgnore().get())
+
+                .downloadResources(params.getDownloadResources().get())
+                .preferMinDownload(params.getPreferMinDownload().get())
+                .downloadSourceMaps(params.getDownloadSourceMaps().get())
+                .downloadIgnore(params.getDownloadIgnore().get())
+                .downloadConcurrency(params.getDownloadConcurrency().get())
+                .downloadCacheDir(downloadCache)
+
+                .minifyJs(params.getMinifyJs().get())
+                .minifyCss(params.getMinifyCss().get())
+                .minifyHtml(params.getMinifyHtml().get())
+                .minifyHtmlCss(params.getMinifyHtmlCss().get())
+                .minifyHtmlJs(params.getMinifyHtmlJs().get())
+                .generateSourceMaps(params.getGenerateSourceMaps().get())
+                .minifyIgnore(params.getMinifyIgnore().get())
+                .minifyCacheDir(minifyCache)
+
+                .applyAntiCache(params.getApplyAntiCache().get())
+                .applyIntegrity(params.getApplyIntegrity().get())
+                .gzip(params.getGzip().get())
+                .brotli(params.getBrotli().get())
+                .zstd(params.getZstd().get())
+                .compressionLevel(Compression.GZIP, params.getGzipLevel().get())
+                .compressionLevel(Compression.BROTLI, params.getBrotliLevel().get())
+                .compressionLevel(Compression.ZSTD, params.getZstdLevel().get())
+                .gzipMode(params.getGzipMode().get())
+                .zopfliIterations(params.getZopfliIterations().get())
+                .compressSkip(params.getCompressSkip().get())
+                .compressMinSize(params.getCompressMinSize().get())
+                .compressMinSavings(params.getCompressMinSavings().get())
+                .debug(params.getDebug().get())
+                .parallelism(params.getParallelism().get())
+                .streamingWindow(params.getStreamingWindow().get())
+
+                .run()
+                .printStats();
+    }
+
+    /**
+     * Optimization parameters (resolved task properties). See {@link OptimizeFrontendTask} for properties
+     * description.
+     */
+    public interface Parameters extends WorkParameters {
+
+        /**
+         * @return shared services (not set for process isolation)
+         */
+        Property<OptimizationBuildService> getBuildService();
+
+        Property<Boolean> getDebug();
+
+        DirectoryProperty getSourceDir();
+
+        DirectoryProperty getOutputDir();
+
+        RegularFileProperty getStateFile();
+
+        /**
+         * @return true when only changed files must be processed (changed files provided)
+         */
+        Property<Boolean> getIncremental();
+
+        ConfigurableFileCollection getChangedFiles();
+
+        Property<String> getJsDir();
+
+        Property<String> getCssDir();
+
+        ListProperty<String> getHtmlExtensions();
+
+        ListProperty<String> getScanExtensions();
+
+        ListProperty<String> getIgnore();
+
+        Property<Boolean> getDownloadResources();
+
+        Property<Boolean> getPreferMinDownload();
+
+        Property<Boolean> getDownloadSourceMaps();
+
+        ListProperty<String> getDownloadIgnore();
+
+        Property<Integer> getDownloadConcurrency();
+
+        /**
+         * @return downloads cache directory (not set when cache disabled)
+         */
+        DirectoryProperty getDownloadCacheDir();
+
+        Property<Boolean> getMinifyJs();
+
+        Property<Boolean> getMinifyCss();
+
+        Property<Boolean> getMinifyHtml();
+
+        Property<Boolean> getMinifyHtmlCss();
+
+        Property<Boolean> getMinifyHtmlJs();
+
+        Property<Boolean> getGenerateSourceMaps();
+
+        ListProperty<String> getMinifyIgnore();
+
+        /**
+         * @return minification results cache directory (not set when cache disabled)
+         */
+        DirectoryProperty getMinifyCacheDir();
+
+        Property<Boolean> getApplyAntiCache();
+
+        Property<Boolean> getApplyIntegrity();
+
+        Property<Boolean> getGzip();
+
+        Property<Integer> getGzipLevel();
+
+        Property<String> getGzipMode();
+
+        Property<Integer> getZopfliIterations();
+
+        ListProperty<String> getCompressSkip();
+
+        Property<Integer> getCompressMinSize();
+
+        Property<Integer> getCompressMinSavings();
+
+        Property<Boolean> getBrotli();
+
+        Property<Integer> getBrotliLevel();
+
+        Property<Boolean> getZstd();
+
+        Property<Integer> getZstdLevel();
+
+        Property<Integer> getParallelism();
+
+        Property<Integer> getStreamingWindow();
+    }
+}
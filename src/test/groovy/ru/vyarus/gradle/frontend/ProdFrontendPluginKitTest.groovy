@@ -75,4 +75,72 @@ index.html                                                             503 bytes
         result.output.contains("Webapp directory does not exists:")
 
     }
-}
\ No newline at end of file
+
+    def "Check plugin execution with output dir"() {
+        setup:
+        build """
+            plugins {
+                id 'ru.vyarus.prod-frontend'
+            }
+            
+            prodFrontend {
+                sourceDir = 'web'
+                outputDir = 'build/web'
+            }
+        """
+        fileFromClasspath('web/index.html', '/cases/bootstrap.html')
+        String source = file('web/index.html').text
+
+        when: "run task"
+        BuildResult result = run('prodFrontend')
+
+        then: "task successful"
+        result.task(':prodFrontend').outcome == TaskOutcome.SUCCESS
+        file('web/index.html').text == source
+        !file('web/js').exists()
+        file('build/web/index.html').text != source
+        file('build/web/js/bootstrap.bundle.min.js').exists()
+        file('build/web/index.html.gz').exists()
+
+        when: "run task again"
+        result = run('prodFrontend')
+
+        then: "task up to date"
+        result.task(':prodFrontend').outcome == TaskOutcome.UP_TO_DATE
+
+        when: "source changed"
+        file('web/index.html').text = source.replace('</body>', '<p>changed</p></body>')
+        result = run('prodFrontend')
+
+        then: "task executed incrementally"
+        result.task(':prodFrontend').outcome == TaskOutcome.SUCCESS
+        result.output.contains('Incremental processing: 1 changed files, 1 affected pages')
+        file('build/web/index.html').text.contains('changed')
+    }
+
+    def "Check plugin execution in worker process"() {
+        setup:
+        build """
+            plugins {
+                id 'ru.vyarus.prod-frontend'
+            }
+            
+            prodFrontend {
+                sourceDir = 'web'
+                processIsolation = true
+                workerHeapSize = '256m'
+            }
+        """
+        fileFromClasspath('web/index.html', '/cases/bootstrap.html')
+        String source = file('web/index.html').text
+
+        when: "run task"
+        BuildResult result = run('prodFrontend')
+
+        then: "task successful"
+        result.task(':prodFrontend').outcome == TaskOutcome.SUCCESS
+        file('web/index.html').text != source
+        file('web/js/bootstrap.bundle.min.js').exists()
+        file('web/index.html.gz').exists()
+    }
+}
@@ -37,37 +37,78 @@ class ProdFrontendPluginTest extends AbstractTest {
         prodFrontend.sourceDir == 'build/webapp'
         prodFrontend.jsDir == 'js'
         prodFrontend.cssDir == 'css'
+        prodFrontend.outputDir == null
+        prodFrontend.scanExtensions == []
         prodFrontend.download.enabled == true
         prodFrontend.download.preferMin == true
         prodFrontend.download.sourceMaps == true
+        prodFrontend.download.concurrency == 6
+        prodFrontend.download.cache == true
         prodFrontend.minify.html == true
         prodFrontend.minify.htmlJs == true
         prodFrontend.minify.htmlCss == true
         prodFrontend.minify.js == true
         prodFrontend.minify.css == true
         prodFrontend.minify.generateSourceMaps == true
+        prodFrontend.minify.cache == true
         prodFrontend.applyAntiCache == true
         prodFrontend.applyIntegrity == true
         prodFrontend.gzip == true
+        prodFrontend.gzipLevel == 9
+        prodFrontend.gzipMode == 'default'
+        prodFrontend.zopfliIterations == 15
+        prodFrontend.compressSkip.contains('woff2')
+        prodFrontend.compressMinSize == 0
+        prodFrontend.compressMinSavings == 0
+        prodFrontend.brotli == false
+        prodFrontend.brotliLevel == 11
+        prodFrontend.zstd == false
+        prodFrontend.zstdLevel == 19
+        prodFrontend.parallelism == 1
+        prodFrontend.streamingWindow == 0
+        prodFrontend.processIsolation == false
+        prodFrontend.workerHeapSize == null
 
         and: "task configured accordingly"
         OptimizeFrontendTask task = project.tasks.getByName('prodFrontend')
         task.debug.get() == false
         unifyString(task.sourceDir.get().toString()).endsWith('build/webapp')
+        !task.outputDir.present
+        !task.stateFile.present
         task.jsDir.get() == 'js'
+        task.scanExtensions.get() == []
         task.cssDir.get() == 'css'
         task.downloadResources.get() == true
         task.preferMinDownload.get() == true
         task.downloadSourceMaps.get() == true
+        task.downloadConcurrency.get() == 6
+        task.downloadCache.get() == true
+        unifyString(task.cacheDir.get().toString()).endsWith('caches/prod-frontend')
         task.minifyHtml.get() == true
         task.minifyHtmlJs.get() == true
         task.minifyHtmlCss.get() == true
         task.minifyJs.get() == true
         task.minifyCss.get() == true
         task.generateSourceMaps.get() == true
+        task.minifyCache.get() == true
         task.applyAntiCache.get() == true
         task.applyIntegrity.get() == true
         task.gzip.get() == true
+        task.gzipLevel.get() == 9
+        task.gzipMode.get() == 'default'
+        task.zopfliIterations.get() == 15
+        task.compressSkip.get().contains('woff2')
+        task.compressMinSize.get() == 0
+        task.compressMinSavings.get() == 0
+        task.brotli.get() == false
+        task.brotliLevel.get() == 11
+        task.zstd.get() == false
+        task.zstdLevel.get() == 19
+        task.parallelism.get() == 1
+        task.streamingWindow.get() == 0
+        task.processIsolation.get() == false
+        !task.workerHeapSize.present
+        task.buildService.present
     }
 
     def "Check task configuration"() {
@@ -79,9 +120,11 @@ class ProdFrontendPluginTest extends AbstractTest {
             prodFrontend {
                 debug  = true
                 sourceDir = 'web'
+                outputDir = 'build/web'
                 jsDir = 'jss'
                 cssDir = 'csss'
                 htmlExtensions = ['jsp', 'jtl']
+                scanExtensions = ['jtl']
                 ignore = ['**/*.js']
 
                 download {
@@ -89,6 +132,8 @@ class ProdFrontendPluginTest extends AbstractTest {
                     preferMin = false
                     sourceMaps = false
                     ignore = ['.*somedomain\\.com.*']
+                    concurrency = 2
+                    cache = false
                 }
 
                 minify {
@@ -99,11 +144,26 @@ class ProdFrontendPluginTest extends AbstractTest {
                     css = false
                     generateSourceMaps = false
                     ignore = ['**/*.css']
+                    cache = false
                 }
 
                 applyAntiCache = false
                 applyIntegrity = false
                 gzip = false
+                gzipLevel = 6
+                gzipMode = 'zopfli'
+                zopfliIterations = 5
+                compressSkip = ['woff2', 'image/*']
+                compressMinSize = 100
+                compressMinSavings = 5
+                brotli = true
+                brotliLevel = 9
+                zstd = true
+                zstdLevel = 3
+                parallelism = 4
+                streamingWindow = 100
+                processIsolation = true
+                workerHeapSize = '512m'
             }
         }
 
@@ -111,14 +171,18 @@ class ProdFrontendPluginTest extends AbstractTest {
         ProdFrontendExtension prodFrontend = project.extensions.prodFrontend
         prodFrontend.debug == true
         prodFrontend.sourceDir == 'web'
+        prodFrontend.outputDir == 'build/web'
         prodFrontend.jsDir == 'jss'
         prodFrontend.cssDir == 'csss'
         prodFrontend.htmlExtensions == ['jsp', 'jtl']
+        prodFrontend.scanExtensions == ['jtl']
         prodFrontend.ignore == ['**/*.js']
         prodFrontend.download.enabled == false
         prodFrontend.download.preferMin == false
         prodFrontend.download.sourceMaps == false
         prodFrontend.download.ignore == ['.*somedomain\\.com.*']
+        prodFrontend.download.concurrency == 2
+        prodFrontend.download.cache == false
         prodFrontend.minify.html == false
         prodFrontend.minify.htmlJs == false
         prodFrontend.minify.htmlCss == false
@@ -126,22 +190,42 @@ class ProdFrontendPluginTest extends AbstractTest {
         prodFrontend.minify.css == false
         prodFrontend.minify.generateSourceMaps == false
         prodFrontend.minify.ignore == ['**/*.css']
+        prodFrontend.minify.cache == false
         prodFrontend.applyAntiCache == false
         prodFrontend.applyIntegrity == false
         prodFrontend.gzip == false
+        prodFrontend.gzipLevel == 6
+        prodFrontend.gzipMode == 'zopfli'
+        prodFrontend.zopfliIterations == 5
+        prodFrontend.compressSkip == ['woff2', 'image/*']
+        prodFrontend.compressMinSize == 100
+        prodFrontend.compressMinSavings == 5
+        prodFrontend.brotli == true
+        prodFrontend.brotliLevel == 9
+        prodFrontend.zstd == true
+        prodFrontend.zstdLevel == 3
+        prodFrontend.parallelism == 4
+        prodFrontend.streamingWindow == 100
+        prodFrontend.processIsolation == true
+        prodFrontend.workerHeapSize == '512m'
 
         and: "task configured accordingly"
         OptimizeFrontendTask task = project.tasks.getByName('prodFrontend')
         task.debug.get() == true
         unifyString(task.sourceDir.get().toString()).endsWith('/web')
+        unifyString(task.outputDir.get().toString()).endsWith('build/web')
+        unifyString(task.stateFile.get().toString()).endsWith('build/prod-frontend/prodFrontend-state.json')
         task.jsDir.get() == 'jss'
         task.cssDir.get() == 'csss'
         task.htmlExtensions.get() == ['jsp', 'jtl']
+        task.scanExtensions.get() == ['jtl']
         task.ignore.get() == ['**/*.js']
         task.downloadResources.get() == false
         task.preferMinDownload.get() == false
         task.downloadSourceMaps.get() == false
         task.downloadIgnore.get() == ['.*somedomain\\.com.*']
+        task.downloadConcurrency.get() == 2
+        task.downloadCache.get() == false
         task.minifyHtml.get() == false
         task.minifyHtmlJs.get() == false
         task.minifyHtmlCss.get() == false
@@ -149,8 +233,23 @@ class ProdFrontendPluginTest extends AbstractTest {
         task.minifyCss.get() == false
         task.generateSourceMaps.get() == false
         task.minifyIgnore.get() == ['**/*.css']
+        task.minifyCache.get() == false
         task.applyAntiCache.get() == false
         task.applyIntegrity.get() == false
         task.gzip.get() == false
+        task.gzipLevel.get() == 6
+        task.gzipMode.get() == 'zopfli'
+        task.zopfliIterations.get() == 5
+        task.compressSkip.get() == ['woff2', 'image/*']
+        task.compressMinSize.get() == 100
+        task.compressMinSavings.get() == 5
+        task.brotli.get() == true
+        task.brotliLevel.get() == 9
+        task.zstd.get() == true
+        task.zstdLevel.get() == 3
+        task.parallelism.get() == 4
+        task.streamingWindow.get() == 100
+        task.processIsolation.get() == true
+        task.workerHeapSize.get() == '512m'
     }
 }
\ No newline at end of file
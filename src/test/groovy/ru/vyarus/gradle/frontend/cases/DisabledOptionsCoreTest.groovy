@@ -22,6 +22,23 @@ class DisabledOptionsCoreTest extends AbstractCoreTest {
         !html.changes.contains('minified')
     }
 
+    def "Check html content preserved without html min"() {
+
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+        file('webapp/index.html').text = "<!DOCTYPE html>\r\n<html>\r\n<head>\r\n" +
+                "    <script src=\"vue.js\"></script>\r\n</head>\r\n<body>\r\n</body>\r\n</html>"
+
+        when: "processing"
+        def res = run(builder('webapp').minifyHtml(false).minifyJs(false).applyIntegrity(false))
+
+        then: "only script tag changed"
+        HtmlInfo html = res.getHtmls()[0]
+        html.changes == ['changed links']
+        String text = file('webapp/index.html').text
+        text.startsWith("<!DOCTYPE html>\r\n<html>\r\n<head>\r\n    <script src=\"vue.js?")
+        text.endsWith("\"></script>\r\n</head>\r\n<body>\r\n</body>\r\n</html>")
+    }
+
     def "Check disable manual css min"() {
 
         fileFromClasspath('webapp/index.html', '/cases/cssManualMin/cssManualMin.html')
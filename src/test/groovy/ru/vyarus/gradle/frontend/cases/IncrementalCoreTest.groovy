@@ -0,0 +1,100 @@
+package ru.vyarus.gradle.frontend.cases
+
+import groovy.json.JsonSlurper
+import ru.vyarus.gradle.frontend.core.OptimizationFlow
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class IncrementalCoreTest extends AbstractCoreTest {
+
+    def "Check incremental processing"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+        file('webapp/other.html').text = '<html><head><link href="app.css" rel="stylesheet"></head><body></body></html>'
+        file('webapp/app.css').text = 'body { color: red; }'
+        File state = file('state.json')
+
+        when: "first processing"
+        OptimizationInfo res = run(incremental(null))
+
+        then: "all pages processed"
+        res.htmls.size() == 2
+        state.exists()
+        def json = new JsonSlurper().parse(state)
+        json.pages['index.html'].sources.keySet() == ['index.html', 'vue.js'] as Set
+        json.pages['index.html'].outputs.containsAll(['index.html', 'vue.min.js', 'vue.min.js.gz', 'vue.min.js.map'])
+        json.pages['other.html'].sources.keySet() == ['app.css', 'other.html'] as Set
+        json.pages['other.html'].outputs.contains('app.min.css')
+        file('out/vue.min.js').exists()
+        !file('out/vue.js').exists()
+
+        when: "page changed"
+        long indexModified = file('out/index.html').lastModified()
+        file('webapp/other.html').text = file('webapp/other.html').text.replace('<body>', '<body><p>changed</p>')
+        res = run(incremental([file('webapp/other.html')]))
+
+        then: "only changed page processed"
+        res.htmls.size() == 1
+        res.htmls[0].file == file('out/other.html')
+        file('out/other.html').text.contains('changed')
+        file('out/other.html').text.contains('app.min.css?')
+        file('out/index.html').lastModified() == indexModified
+
+        when: "resource changed"
+        String min = file('out/vue.min.js').text
+        file('webapp/vue.js') << '\nfunction incrementalTestFunction() { console.log("changed") }'
+        res = run(incremental([file('webapp/vue.js')]))
+
+        then: "page, referencing resource, processed"
+        res.htmls.size() == 1
+        res.htmls[0].file == file('out/index.html')
+        file('out/vue.min.js').text != min
+        !file('out/vue.js').exists()
+
+        when: "only modification date changed"
+        file('webapp/vue.js').setLastModified(System.currentTimeMillis() + 10000)
+        res = run(incremental([file('webapp/vue.js')]))
+
+        then: "nothing processed"
+        res.htmls.isEmpty()
+
+        when: "resource removed"
+        file('webapp/app.css').delete()
+        res = run(incremental([file('webapp/app.css')]))
+
+        then: "page processed and stale outputs removed"
+        res.htmls.size() == 1
+        res.htmls[0].file == file('out/other.html')
+        !file('out/app.min.css').exists()
+        !file('out/app.min.css.gz').exists()
+        file('out/vue.min.js').exists()
+
+        when: "page removed"
+        file('webapp/other.html').delete()
+        res = run(incremental([file('webapp/other.html')]))
+
+        then: "removed from output"
+        res.htmls.isEmpty()
+        !file('out/other.html').exists()
+        !file('out/other.html.gz').exists()
+        !state.text.contains('other.html')
+    }
+
+    def "Check incremental requires output dir"() {
+
+        when: "incremental without output dir"
+        OptimizationFlow.create(file('webapp')).incremental(file('state.json'), null).run()
+
+        then: "error"
+        def ex = thrown(IllegalStateException)
+        ex.message == 'Incremental processing requires output directory'
+    }
+
+    private OptimizationFlow.Builder incremental(List<File> changed) {
+        builder('webapp').outputDir(file('out')).incremental(file('state.json'), changed)
+    }
+}
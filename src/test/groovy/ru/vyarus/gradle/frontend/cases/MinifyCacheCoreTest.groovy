@@ -0,0 +1,47 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+import ru.vyarus.gradle.frontend.core.info.SizeType
+
+import java.util.zip.GZIPInputStream
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class MinifyCacheCoreTest extends AbstractCoreTest {
+
+    def "Check minification results cached"() {
+
+        File cache = file('cache')
+        fileFromClasspath('webapp/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+
+        when: "processing with cache"
+        OptimizationInfo res = run(builder('webapp').minifyCacheDir(cache))
+        String min = file('webapp/vue.min.js').text
+        String map = file('webapp/vue.min.js.map').text
+
+        then: "result stored in cache"
+        res.htmls[0].js[0].changes.contains('minified')
+        cache.listFiles().findAll { it.name.endsWith('.sha256') }.size() == 2
+
+        when: "processing the same file again"
+        file('webapp/vue.min.js').delete()
+        file('webapp/vue.min.js.map').delete()
+        file('webapp/vue.min.js.gz').delete()
+        fileFromClasspath('webapp/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+        res = run(builder('webapp').minifyCacheDir(cache))
+
+        then: "result loaded from cache"
+        res.htmls[0].js[0].changes.contains('minified')
+        res.htmls[0].js[0].stats.get(SizeType.MODIFIED) == min.length()
+        file('webapp/vue.min.js').text == min
+        file('webapp/vue.min.js.map').text == map
+        !file('webapp/vue.js').exists()
+
+        and: "compressed file produced"
+        new GZIPInputStream(new FileInputStream(file('webapp/vue.min.js.gz'))).withCloseable { it.text } == min
+    }
+}
@@ -53,6 +53,50 @@ class NonHtmlTemplateCoreTest extends AbstractCoreTest {
         html.css.size() == 2
     }
 
+    def "Check jte processing with streaming scanner"() {
+
+        file('webapp/index.jsp') << """@import org.example.Page
+
+@param Page page
+<!DOCTYPE html>
+<html>
+<head>
+    @if(page.getDescription() != null)
+        <meta name="description" content="\${page.getDescription()}">
+        <link rel="stylesheet" href="1.css">
+    @endif       
+    <link rel="icon" src="my.ico">
+    <link rel="icon" href="favicon.png" sizes="16x16" type="image/png">    
+    <script src="1.js"></script>    
+    <title>\${page.getTitle()}</title> 
+</head>
+<body>
+<link rel="stylesheet" href="2.css">
+<script src="2.js"></script>
+</body>
+</html>
+"""
+        file('webapp/1.js') << "// empty"
+        file('webapp/1.css') << "/* empty */"
+
+        when: "processing"
+        def res = run(builder('webapp')
+                .htmlExtensions('jsp')
+                .scanExtensions('jsp')
+                .minifyHtml(false))
+
+        then: "optimization done without document parsing"
+        res.getHtmls().size() == 1
+        HtmlInfo html = res.getHtmls()[0]
+        html.file.name == 'index.jsp'
+        html.parsedDocument == null
+        html.changes == ['changed links']
+        html.js.size() == 2
+        html.css.size() == 2
+        file('webapp/index.jsp').text.contains('<script src="1.js?')
+        file('webapp/index.jsp').text.contains('<link rel="stylesheet" href="1.css?')
+    }
+
     def "Check jte processing with minification"() {
 
         file('webapp/index.jsp') << """@import org.example.Page
@@ -0,0 +1,46 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.OptimizationFlow
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class OutputDirCoreTest extends AbstractCoreTest {
+
+    def "Check optimization into output dir"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+        file('out/stale.txt').text = 'stale'
+        String source = file('webapp/index.html').text
+
+        when: "processing into output dir"
+        OptimizationInfo res = run(builder('webapp').outputDir(file('out')))
+
+        then: "source not changed"
+        file('webapp/index.html').text == source
+        file('webapp/vue.js').exists()
+        file('webapp').list().size() == 2
+
+        and: "output optimized"
+        res.settings.baseDir == file('out')
+        res.settings.sourceDir == file('webapp')
+        res.htmls[0].file == file('out/index.html')
+        res.htmls[0].js[0].file == file('out/vue.min.js')
+        file('out/index.html').text != source
+        !file('out/vue.js').exists()
+        !file('out/stale.txt').exists()
+    }
+
+    def "Check intersecting output dir"() {
+
+        when: "output dir inside source dir"
+        OptimizationFlow.create(file('webapp')).outputDir(file('webapp/out'))
+
+        then: "error"
+        def ex = thrown(IllegalStateException)
+        ex.message.contains('must not intersect with source directory')
+    }
+}
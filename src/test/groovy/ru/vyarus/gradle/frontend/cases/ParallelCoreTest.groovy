@@ -0,0 +1,45 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class ParallelCoreTest extends AbstractCoreTest {
+
+    def "Check parallel processing"() {
+
+        ['seq', 'par'].each {
+            fileFromClasspath("$it/index.html", '/cases/jsManualMin/jsManualMin.html')
+            fileFromClasspath("$it/vue.js", '/cases/jsManualMin/vue.js')
+            fileFromClasspath("$it/styles.html", '/cases/cssManualMin/cssManualMin.html')
+            fileFromClasspath("$it/materialdesignicons.css", '/cases/cssManualMin/materialdesignicons.css')
+        }
+
+        when: "processing"
+        OptimizationInfo seq = run('seq')
+        OptimizationInfo par = run(builder('par').parallelism(2))
+
+        then: "optimization done"
+        par.settings.parallelism == 2
+        par.htmls.size() == 2
+        par.htmls.collect { it.file.name } == seq.htmls.collect { it.file.name }
+
+        and: "same result"
+        file('par/index.html').text == file('seq/index.html').text
+        file('par/styles.html').text == file('seq/styles.html').text
+        par.htmls.collect { it.changes } == seq.htmls.collect { it.changes }
+        par.htmls.collect { it.stats } == seq.htmls.collect { it.stats }
+    }
+
+    def "Check incorrect parallelism"() {
+
+        when: "configuring negative parallelism"
+        builder('webapp').parallelism(0)
+
+        then: "error"
+        def ex = thrown(IllegalStateException)
+        ex.message == 'Parallelism must be a positive number: 0'
+    }
+}
@@ -0,0 +1,168 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.OptimizationFlow
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+import ru.vyarus.gradle.frontend.core.info.SizeType
+import ru.vyarus.gradle.frontend.core.info.resources.HtmlInfo
+import ru.vyarus.gradle.frontend.core.util.StatsPrinter
+import ru.vyarus.gradle.frontend.core.util.compress.Compression
+
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class PrecompressionCoreTest extends AbstractCoreTest {
+
+    def "Check brotli and zstd generation"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/cssManualMin/cssManualMin.html')
+        fileFromClasspath('webapp/materialdesignicons.css', '/cases/cssManualMin/materialdesignicons.css')
+
+        when: "processing with all encodings"
+        OptimizationInfo res = run(builder('webapp').brotli().zstd()
+                .compressionLevel(Compression.ZSTD, 3))
+
+        then: "all encodings generated for html"
+        HtmlInfo html = res.htmls[0]
+        html.compressed.keySet() as List == [Compression.GZIP, Compression.BROTLI, Compression.ZSTD]
+        file('webapp/index.html.br').exists()
+        file('webapp/index.html.zst').exists()
+        html.stats.keySet().containsAll([SizeType.GZIPPED, SizeType.BROTLI, SizeType.ZSTD])
+
+        and: "for css"
+        with(html.css[0]) {
+            compressed.size() == 3
+            compressed[Compression.BROTLI].name.endsWith('.min.css.br')
+            stats[SizeType.BROTLI] < stats[SizeType.MODIFIED]
+        }
+
+        and: "encodings shown in report"
+        StatsPrinter.print(res).contains('gzipped        brotli         zstd')
+    }
+
+    def "Check only brotli generation"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/cssManualMin/cssManualMin.html')
+        fileFromClasspath('webapp/materialdesignicons.css', '/cases/cssManualMin/materialdesignicons.css')
+
+        when: "processing with brotli only"
+        OptimizationInfo res = run(builder('webapp').gzip(false).brotli())
+
+        then: "only brotli generated"
+        HtmlInfo html = res.htmls[0]
+        html.compressed.keySet() as List == [Compression.BROTLI]
+        html.gzip == null
+        !file('webapp/index.html.gz').exists()
+        file('webapp/index.html.br').exists()
+    }
+
+    def "Check invalid compression level"() {
+
+        when: "configuring invalid level"
+        OptimizationFlow.create(file('webapp')).compressionLevel(Compression.GZIP, 10)
+
+        then: "error"
+        def ex = thrown(IllegalStateException)
+        ex.message == 'Gzip compression level must be in range 1-9: 10'
+    }
+
+    def "Check zopfli gzip"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/cssManualMin/cssManualMin.html')
+        fileFromClasspath('webapp/materialdesignicons.css', '/cases/cssManualMin/materialdesignicons.css')
+
+        when: "processing with zopfli"
+        OptimizationInfo res = run(builder('webapp').gzipMode('zopfli').zopfliIterations(5))
+
+        then: "gzip generated"
+        File css = res.htmls[0].css[0].file
+        File gz = res.htmls[0].css[0].gzip
+        gz.exists()
+
+        and: "valid gzip"
+        new GZIPInputStream(new FileInputStream(gz)).withCloseable { it.bytes } == css.bytes
+
+        and: "not larger than maximum level deflate"
+        gz.length() <= deflated(css.bytes) + 18
+    }
+
+    def "Check invalid gzip mode"() {
+
+        when: "configuring invalid mode"
+        OptimizationFlow.create(file('webapp')).gzipMode('best')
+
+        then: "error"
+        def ex = thrown(IllegalStateException)
+        ex.message.startsWith("Unsupported gzip mode: 'best'")
+    }
+
+    def "Check compression policy"() {
+
+        file('webapp/index.html') << '<html><head><link rel="stylesheet" href="style.css"></head><body>' +
+                '<p>Sample text</p>' * 50 + '</body></html>'
+        file('webapp/style.css') << '@font-face { font-family: "sample"; src: url("font.woff2") format("woff2"), ' +
+                'url("font.eot"); } body { background: url("noise.bmp"); } ' +
+                (1..50).collect { ".sample$it { margin: ${it}px; }" }.join(' ')
+        byte[] noise = new byte[2000]
+        new Random(1).nextBytes(noise)
+        file('webapp/font.woff2').bytes = noise
+        file('webapp/noise.bmp').bytes = noise
+        file('webapp/font.eot') << 'font data ' * 200
+        // stale file from previous run
+        file('webapp/font.woff2.gz') << 'stale'
+
+        when: "processing with compression policy"
+        OptimizationInfo res = run(builder('webapp').compressMinSavings(5))
+
+        then: "compressed type skipped"
+        with(res.htmls[0].css[0]) {
+            subResources.size() == 3
+            subResources[0].gzip == null
+            subResources[0].compressionSkips == [(Compression.GZIP): 'compressed type']
+            !file('webapp/font.woff2.gz').exists()
+
+            subResources[1].gzip != null
+            subResources[1].compressionSkips.isEmpty()
+
+            subResources[2].gzip == null
+            subResources[2].compressionSkips == [(Compression.GZIP): 'no gain']
+            !file('webapp/noise.bmp.gz').exists()
+        }
+
+        and: "skips reported"
+        String stats = StatsPrinter.print(res)
+        stats.contains('skipped')
+        stats.contains('2 files not precompressed by compression policy (compressed type: 1, no gain: 1)')
+    }
+
+    def "Check compression min size"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/cssManualMin/cssManualMin.html')
+        fileFromClasspath('webapp/materialdesignicons.css', '/cases/cssManualMin/materialdesignicons.css')
+
+        when: "processing with min size"
+        OptimizationInfo res = run(builder('webapp').compressMinSize(1000).compressSkip('image/*'))
+
+        then: "small html skipped"
+        HtmlInfo html = res.htmls[0]
+        html.gzip == null
+        html.compressionSkips == [(Compression.GZIP): 'too small']
+        !file('webapp/index.html.gz').exists()
+
+        and: "css compressed"
+        html.css[0].gzip != null
+    }
+
+    private static int deflated(byte[] data) {
+        Deflater deflater = new Deflater(9, true)
+        deflater.setInput(data)
+        deflater.finish()
+        byte[] buf = new byte[data.length + 1024]
+        int size = deflater.deflate(buf)
+        deflater.end()
+        return size
+    }
+}
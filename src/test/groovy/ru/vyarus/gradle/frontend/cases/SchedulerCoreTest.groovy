@@ -0,0 +1,327 @@
+package ru.vyarus.gradle.frontend.cases
+
+import org.jsoup.nodes.Element
+import ru.vyarus.gradle.frontend.core.OptimizationFlow
+import ru.vyarus.gradle.frontend.core.OptimizationScheduler
+import ru.vyarus.gradle.frontend.core.model.HtmlPage
+import ru.vyarus.gradle.frontend.core.model.root.CssResource
+import ru.vyarus.gradle.frontend.core.model.root.JsResource
+import ru.vyarus.gradle.frontend.core.model.root.ResourceRegistry
+import ru.vyarus.gradle.frontend.core.model.root.sub.CssSubResource
+import ru.vyarus.gradle.frontend.core.util.HtmlParser
+import spock.lang.Timeout
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Scheduler stages order checked with recording resources (real processing replaced with events recording).
+ *
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+@Timeout(10)
+class SchedulerCoreTest extends AbstractCoreTest {
+
+    Recorder recorder = new Recorder()
+    ExecutorService executor = Executors.newFixedThreadPool(4)
+    OptimizationFlow.Settings settings
+
+    void setup() {
+        File dir = file('webapp')
+        dir.mkdirs()
+        // empty directory: no actual processing, just prepared settings
+        settings = OptimizationFlow.create(dir)
+                .minifyJs()
+                .minifyCss()
+                .applyIntegrity()
+                .applyAntiCache()
+                .gzip()
+                .run()
+                .settings
+    }
+
+    void cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "Check owner resolved before references"() {
+
+        setup: "two pages with the same resources"
+        TestPage page1 = page('page1').js('app.js').css('style.css', 'font.woff')
+        TestPage page2 = page('page2').js('app.js').css('style.css', 'font.woff')
+        recorder.actions['page1/app.js resolve'] = { sleep(200) }
+        recorder.actions['page1/style.css resolve font.woff'] = { sleep(200) }
+
+        when: "processing"
+        process(page1, page2)
+
+        then: "owner resolved first"
+        recorder.index('page1/app.js resolve') < recorder.index('page2/app.js resolve')
+        recorder.index('page1/style.css update links') < recorder.index('page2/style.css resolve')
+
+        and: "next stage applied after all group resources resolution"
+        recorder.index('page2/app.js resolve') < recorder.index('page1/app.js minify')
+        recorder.index('page1/app.js minify') < recorder.index('page2/app.js minify')
+        recorder.index('page2/style.css resolve') < recorder.index('page1/style.css minify')
+
+        and: "sub resources processed only by owner"
+        recorder.count('resolve font.woff') == 1
+        recorder.count('gzip font.woff') == 1
+    }
+
+    def "Check css sub resources gzipped after links update"() {
+
+        setup: "css with sub resources"
+        TestPage page1 = page('page1').css('style.css', 'font.woff', 'img.png')
+        recorder.actions['page1/style.css resolve font.woff'] = { sleep(200) }
+
+        when: "processing"
+        process(page1)
+
+        then: "sub resources resolved in parallel"
+        recorder.index('page1/style.css resolve img.png') < recorder.index('page1/style.css resolve font.woff')
+
+        and: "links updated after all sub resources resolution"
+        int update = recorder.index('page1/style.css update links')
+        recorder.index('page1/style.css resolve font.woff') < update
+        recorder.index('page1/style.css resolve img.png') < update
+
+        and: "sub resources gzipped after links update"
+        recorder.index('page1/style.css gzip font.woff') > update
+        recorder.index('page1/style.css gzip img.png') > update
+    }
+
+    def "Check html updated after all resources ready"() {
+
+        setup: "page with slow resources"
+        TestPage page1 = page('page1').js('app.js').css('style.css')
+        recorder.actions['page1/app.js minify'] = { sleep(200) }
+        recorder.actions['page1/style.css md5'] = { sleep(200) }
+
+        when: "processing"
+        process(page1)
+
+        then: "html updated after resources md5"
+        int update = recorder.index('page1 update')
+        update > 0
+        recorder.index('page1/app.js integrity') < update
+        recorder.index('page1/app.js md5') < update
+        recorder.index('page1/style.css integrity') < update
+        recorder.index('page1/style.css md5') < update
+
+        and: "html gzipped after update"
+        recorder.index('page1 gzip') > update
+
+        and: "all resources gzipped"
+        recorder.index('page1/app.js gzip') > 0
+        recorder.index('page1/style.css gzip') > 0
+    }
+
+    def "Check first page error propagated"() {
+
+        setup: "both pages fail, second page fails first"
+        TestPage page1 = page('page1').js('app.js')
+        TestPage page2 = page('page2').js('lib.js')
+        recorder.actions['page1/app.js resolve'] = {
+            sleep(200)
+            throw new IllegalStateException('app.js download failed')
+        }
+        recorder.actions['page2/lib.js resolve'] = { throw new IllegalStateException('lib.js download failed') }
+
+        when: "processing"
+        process(page1, page2)
+
+        then: "first page error thrown"
+        def ex = thrown(IllegalStateException)
+        ex.message == 'app.js download failed'
+    }
+
+    def "Check failed download not blocks other pages"() {
+
+        setup: "failed css sub resource download"
+        TestPage page1 = page('page1').js('app.js').css('style.css', 'font.woff')
+        TestPage page2 = page('page2').js('app.js').js('lib.js')
+        recorder.actions['page1/style.css resolve font.woff'] = {
+            throw new IllegalStateException('font.woff download failed')
+        }
+
+        when: "processing"
+        process(page1, page2)
+
+        then: "error thrown"
+        def ex = thrown(IllegalStateException)
+        ex.message == 'font.woff download failed'
+
+        and: "failed page not updated"
+        recorder.index('page1 update') < 0
+        recorder.index('page1/style.css minify') < 0
+
+        and: "other page processed"
+        recorder.index('page2 update') > 0
+        recorder.index('page2 gzip') > 0
+        recorder.index('page1/app.js gzip') > 0
+        recorder.index('page2/lib.js gzip') > 0
+    }
+
+    TestPage page(String name) {
+        new TestPage(settings, file("webapp/${name}.html"), recorder)
+    }
+
+    void process(TestPage... pages) {
+        ResourceRegistry registry = new ResourceRegistry()
+        pages.each { registry.register(it) }
+        new OptimizationScheduler(settings, executor).process(pages as List, registry.groups)
+    }
+
+    static class Recorder {
+        List<String> events = Collections.synchronizedList([])
+        Map<String, Closure> actions = [:]
+
+        void record(String event) {
+            // action could delay event or fail stage
+            actions[event]?.call()
+            events.add(event)
+        }
+
+        int index(String event) {
+            events.indexOf(event)
+        }
+
+        int count(String suffix) {
+            events.count { it.endsWith(suffix) }
+        }
+    }
+
+    static class TestPage extends HtmlPage {
+        String name
+        Recorder recorder
+        List<JsResource> jsResources = []
+        List<CssResource> cssResources = []
+
+        TestPage(OptimizationFlow.Settings settings, File file, Recorder recorder) {
+            super(settings, null, file)
+            this.name = file.name.replace('.html', '')
+            this.recorder = recorder
+        }
+
+        TestPage js(String src) {
+            jsResources.add(new TestJs(this, src))
+            this
+        }
+
+        TestPage css(String href, String... subs) {
+            TestCss css = new TestCss(this, href)
+            subs.each { css.subs.add(new TestSub(css, it)) }
+            cssResources.add(css)
+            this
+        }
+
+        @Override
+        List<JsResource> getJs() {
+            jsResources
+        }
+
+        @Override
+        List<CssResource> getCss() {
+            cssResources
+        }
+
+        @Override
+        void updateHtml() {
+            recorder.record("$name update")
+        }
+
+        @Override
+        void gzipHtml() {
+            recorder.record("$name gzip")
+        }
+
+        static HtmlParser.SourceElement element(String tag, String attr, String url) {
+            new HtmlParser.SourceElement(new Element(tag).attr(attr, url), "<$tag $attr=\"$url\">", 0, 0)
+        }
+    }
+
+    static class TestJs extends JsResource {
+        String label
+
+        TestJs(TestPage page, String src) {
+            super(page, TestPage.element('script', ATTR, src))
+            label = "$page.name/$src"
+        }
+
+        @Override
+        void resolve() { record('resolve') }
+
+        @Override
+        void minify() { record('minify') }
+
+        @Override
+        void applyIntegrity() { record('integrity') }
+
+        @Override
+        void applyMd5() { record('md5') }
+
+        @Override
+        void gzipFile() { record('gzip') }
+
+        void record(String stage) {
+            ((TestPage) html).recorder.record("$label $stage")
+        }
+    }
+
+    static class TestCss extends CssResource {
+        String label
+        List<CssSubResource> subs = []
+
+        TestCss(TestPage page, String href) {
+            super(page, TestPage.element('link', ATTR, href))
+            label = "$page.name/$href"
+        }
+
+        @Override
+        void resolve() { record('resolve') }
+
+        @Override
+        void resolveCss() { record('resolve css') }
+
+        @Override
+        void resolveSubResource(CssSubResource resource) { record("resolve $resource.url") }
+
+        @Override
+        void updateSubLinks() { record('update links') }
+
+        @Override
+        List<CssSubResource> getSubResources() {
+            owner != null ? ((CssResource) owner).subResources : subs
+        }
+
+        @Override
+        void minify() { record('minify') }
+
+        @Override
+        void applyIntegrity() { record('integrity') }
+
+        @Override
+        void applyMd5() { record('md5') }
+
+        @Override
+        void gzipFile() { record('gzip') }
+
+        void record(String stage) {
+            ((TestPage) html).recorder.record("$label $stage")
+        }
+    }
+
+    static class TestSub extends CssSubResource {
+
+        TestSub(TestCss css, String url) {
+            super(css, url)
+        }
+
+        @Override
+        void gzip() {
+            ((TestCss) css).record("gzip $url")
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+import ru.vyarus.gradle.frontend.core.info.SizeType
+import ru.vyarus.gradle.frontend.core.util.StatsPrinter
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class SharedResourceCoreTest extends AbstractCoreTest {
+
+    def "Check shared resource processed once"() {
+
+        fileFromClasspath('webapp/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+        file('webapp/sub/page.html').text = '<html><head><script src="../vue.js?v=1"></script></head></html>'
+        file('webapp/other.html').text = '<html><head><script src="./vue.js"></script></head></html>'
+
+        when: "processing"
+        OptimizationInfo res = run('webapp')
+
+        then: "resource processed by the first page"
+        res.htmls.size() == 3
+        def owner = res.htmls.find { it.file.name == 'index.html' }.js[0]
+        owner.owner == null
+        owner.target.startsWith('vue.min.js?')
+        owner.changes.contains('minified')
+
+        and: "other pages use the same result"
+        def other = res.htmls.find { it.file.name == 'other.html' }.js[0]
+        other.owner.is(owner)
+        other.target == './' + owner.target
+        other.integrity == owner.integrity
+        other.file == owner.file
+        other.gzip == owner.gzip
+        other.stats == owner.stats
+        def sub = res.htmls.find { it.file.name == 'page.html' }.js[0]
+        sub.owner.is(owner)
+        sub.target == '../' + owner.target
+        sub.stats == owner.stats
+        file('webapp/sub/page.html').text.contains(sub.target)
+
+        and: "references reported"
+        StatsPrinter.print(res).contains('2 duplicate resource references processed once')
+    }
+
+    def "Check shared resource processed in parallel"() {
+
+        ['index', 'other', 'third'].each {
+            fileFromClasspath("webapp/${it}.html", '/cases/jsManualMin/jsManualMin.html')
+        }
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+
+        when: "processing in parallel"
+        OptimizationInfo res = run(builder('webapp').parallelism(3))
+
+        then: "resource processed once"
+        res.htmls.size() == 3
+        res.htmls.collect { it.js[0].owner == null }.count(true) == 1
+        res.htmls.collect { it.js[0].target }.unique().size() == 1
+        res.htmls[0].js[0].stats.get(SizeType.MODIFIED) != null
+        file('webapp/index.html').text == file('webapp/other.html').text
+        file('webapp/index.html').text == file('webapp/third.html').text
+    }
+}
@@ -0,0 +1,42 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.SharedServices
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+import ru.vyarus.gradle.frontend.core.info.SizeType
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class SharedServicesCoreTest extends AbstractCoreTest {
+
+    def "Check services shared by multiple optimizations"() {
+
+        SharedServices services = new SharedServices(2)
+        File cache = file('cache')
+        fileFromClasspath('webapp1/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp1/vue.js', '/cases/jsManualMin/vue.js')
+        fileFromClasspath('webapp2/index.html', '/cases/jsManualMin/jsManualMin.html')
+        fileFromClasspath('webapp2/vue.js', '/cases/jsManualMin/vue.js')
+
+        when: "processing first project"
+        OptimizationInfo res = run(builder('webapp1').sharedServices(services).minifyCacheDir(cache))
+
+        then: "result stored in shared cache"
+        res.htmls[0].js[0].changes.contains('minified')
+        services.getCache(cache).getDir() == cache
+        cache.listFiles().findAll { it.name.endsWith('.sha256') }.size() == 2
+
+        when: "processing second project with the same library"
+        res = run(builder('webapp2').sharedServices(services).minifyCacheDir(cache))
+
+        then: "services not closed and result loaded from cache"
+        res.htmls[0].js[0].changes.contains('minified')
+        res.htmls[0].js[0].stats.get(SizeType.MODIFIED) == file('webapp1/vue.min.js').text.length()
+        file('webapp2/vue.min.js').text == file('webapp1/vue.min.js').text
+        services.getCssoPool().minify('a { color: red }', 'a.css', false).css == 'a{color:red}'
+
+        cleanup:
+        services.close()
+    }
+}
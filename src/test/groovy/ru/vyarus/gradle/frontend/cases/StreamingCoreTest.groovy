@@ -0,0 +1,58 @@
+package ru.vyarus.gradle.frontend.cases
+
+import ru.vyarus.gradle.frontend.core.info.OptimizationInfo
+import ru.vyarus.gradle.frontend.core.info.SizeType
+import ru.vyarus.gradle.frontend.core.util.StatsPrinter
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class StreamingCoreTest extends AbstractCoreTest {
+
+    def "Check streaming processing"() {
+
+        ['index', 'other', 'third'].each {
+            fileFromClasspath("webapp/${it}.html", '/cases/jsManualMin/jsManualMin.html')
+        }
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+
+        when: "processing with window of one page"
+        OptimizationInfo res = run(builder('webapp').streamingWindow(1))
+
+        then: "all pages processed"
+        res.htmls.size() == 3
+        res.htmls.every { it.changes == ['changed links', 'minified'] }
+
+        and: "parsed documents released"
+        res.htmls.every { it.parsedDocument == null }
+        res.htmls.every { it.js[0].element.parent() == null }
+
+        and: "shared resource processed once"
+        res.htmls.collect { it.js[0].owner == null }.count(true) == 1
+        res.htmls.collect { it.js[0].target }.unique().size() == 1
+        res.htmls.collect { it.js[0].stats.get(SizeType.MODIFIED) }.unique().size() == 1
+        file('webapp/index.html').text == file('webapp/other.html').text
+        file('webapp/index.html').text == file('webapp/third.html').text
+        StatsPrinter.print(res).contains('2 duplicate resource references processed once')
+    }
+
+    def "Check streaming result is the same"() {
+
+        ['index', 'other', 'third'].each {
+            fileFromClasspath("webapp/${it}.html", '/cases/jsManualMin/jsManualMin.html')
+            fileFromClasspath("webapp2/${it}.html", '/cases/jsManualMin/jsManualMin.html')
+        }
+        fileFromClasspath('webapp/vue.js', '/cases/jsManualMin/vue.js')
+        fileFromClasspath('webapp2/vue.js', '/cases/jsManualMin/vue.js')
+
+        when: "processing with and without streaming"
+        run(builder('webapp').streamingWindow(2).parallelism(2))
+        run(builder('webapp2'))
+
+        then: "the same result"
+        ['index.html', 'other.html', 'third.html', 'vue.min.js'].every {
+            file("webapp/$it").text == file("webapp2/$it").text
+        }
+    }
+}
@@ -44,4 +44,49 @@ class CssUtilsTest extends Specification {
                 '../fonts/materialdesignicons-webfont.ttf?v=2.5.94',
                 '../fonts/materialdesignicons-webfont.svg?v=2.5.94#materialdesigniconsregular']
     }
+
+    def "Check url positions"() {
+
+        when: 'searching for links'
+        String css = 'a { background: url( " test/test.gif"   ); } b { background: url(test.gif) }'
+        def res = CssUtils.findLinkPositions(css)
+        then: 'positions found'
+        res.collect { it.url } == ['test/test.gif', 'test.gif']
+        res.collect { css.substring(it.start, it.end) } == ['test/test.gif', 'test.gif']
+    }
+
+    def "Check urls replacement"() {
+
+        expect: 'only exact urls replaced'
+        CssUtils.replaceLinks(
+                'src: url(font.woff2) format("woff2"), url(\'font.woff\') format("woff");',
+                ['font.woff': 'font.woff?123', 'font.woff2': 'font.woff2?456'])
+                == 'src: url(font.woff2?456) format("woff2"), url(\'font.woff?123\') format("woff");'
+        CssUtils.replaceLinks('url(a.gif) a.gif url(b.gif)', ['a.gif': 'c.gif']) == 'url(c.gif) a.gif url(b.gif)'
+        CssUtils.replaceLinks('url(a.gif)', ['b.gif': 'c.gif']) == 'url(a.gif)'
+    }
+
+    def "Check css tokens recognition"() {
+
+        expect:
+        CssUtils.findLinks(cont as String) == res
+
+        where:
+        cont                                                            | res
+        '@import "x.css" screen; @import url(y.css);'                   | ['x.css', 'y.css']
+        "@import 'q.css';"                                              | ['q.css']
+        '/* url(c.gif) */ a { background: url(b.gif) }'                 | ['b.gif']
+        'a:before { content: "url(s.gif)" }'                            | []
+        'a { background: image-set("a.png" 1x, url(b.png) 2x) }'        | ['a.png', 'b.png']
+        "a { background: -webkit-image-set('a.png' type('image/png')) }" | ['a.png']
+        'a { background: url(a\\)b.png) }'                               | ['a)b.png']
+        'a { background: URL("a\\20 b.png") }'                           | ['a b.png']
+        'a { mask: url(checkmark(var(--x))) }'                          | []
+    }
+
+    def "Check escaped url replacement"() {
+
+        expect: 'url replaced by exact position'
+        CssUtils.replaceLinks('a { background: url(a\\)b.png) }', ['a)b.png': 'c.png']) == 'a { background: url(c.png) }'
+    }
 }
@@ -0,0 +1,132 @@
+package ru.vyarus.gradle.frontend.util
+
+import ru.vyarus.gradle.frontend.core.util.FileCache
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.time.Duration
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class FileCacheTest extends Specification {
+
+    @TempDir
+    File dir
+
+    def "Check cache usage"() {
+
+        setup:
+        FileCache cache = new FileCache(new File(dir, 'cache'))
+        File source = new File(dir, 'source.js')
+        source.text = 'sample content'
+
+        when: "loading not cached url"
+        File target = new File(dir, 'target/target.js')
+        boolean res = cache.load('https://some.com/file.js', target)
+
+        then: "not found"
+        !res
+        !target.exists()
+
+        when: "storing file"
+        cache.store('https://some.com/file.js', source)
+        res = cache.load('https://some.com/file.js', target)
+
+        then: "loaded"
+        res
+        target.text == 'sample content'
+        cache.contains('https://some.com/file.js')
+        new String(cache.read('https://some.com/file.js'), 'UTF-8') == 'sample content'
+        cache.read('https://some.com/other.js') == null
+        !cache.contains('https://some.com/other.js')
+        !cache.load('https://some.com/other.js', target)
+    }
+
+    def "Check damaged entry"() {
+
+        setup:
+        FileCache cache = new FileCache(new File(dir, 'cache'))
+        File source = new File(dir, 'source.js')
+        source.text = 'sample content'
+        cache.store('https://some.com/file.js', source)
+
+        when: "damaging cached content"
+        File content = cache.dir.listFiles().find { it.name.length() == 64 }
+        content.text = 'changed'
+        File target = new File(dir, 'target.js')
+        boolean res = cache.load('https://some.com/file.js', target)
+
+        then: "entry ignored and removed"
+        !res
+        !target.exists()
+        !content.exists()
+    }
+
+    def "Check eviction"() {
+
+        setup:
+        FileCache cache = new FileCache(new File(dir, 'cache'), 20, Duration.ofDays(1))
+        File source = new File(dir, 'source.js')
+        source.text = '1234567890'
+        cache.store('https://some.com/1.js', source)
+        cache.store('https://some.com/2.js', source)
+        cache.store('https://some.com/3.js', source)
+        File target = new File(dir, 'target.js')
+
+        when: "outdating one entry"
+        cache.dir.listFiles().findAll { it.name.endsWith('.sha256') }
+                .each { it.setLastModified(System.currentTimeMillis() - Duration.ofDays(2).toMillis()) }
+        // access updates usage time
+        cache.load('https://some.com/3.js', target)
+        cache.evict()
+
+        then: "outdated removed"
+        !cache.load('https://some.com/1.js', target)
+        !cache.load('https://some.com/2.js', target)
+        cache.load('https://some.com/3.js', target)
+
+        when: "exceeding size"
+        cache.store('https://some.com/4.js', source)
+        cache.store('https://some.com/5.js', source)
+        cache.dir.listFiles().findAll { it.name.endsWith('.sha256') }
+                .each { it.setLastModified(System.currentTimeMillis() - 1000) }
+        cache.load('https://some.com/5.js', target)
+        cache.evict()
+
+        then: "least recently used removed"
+        cache.load('https://some.com/5.js', target)
+        [cache.load('https://some.com/3.js', target), cache.load('https://some.com/4.js', target)].count(true) == 1
+    }
+
+    def "Check stale files removal"() {
+
+        setup:
+        FileCache cache = new FileCache(new File(dir, 'cache'))
+        File source = new File(dir, 'source.js')
+        source.text = 'sample content'
+        cache.store('https://some.com/file.js', source)
+        long old = System.currentTimeMillis() - Duration.ofDays(1).toMillis()
+
+        when: "temp files left by interrupted stores"
+        File stale = new File(cache.dir, 'abc123.tmp')
+        stale.text = 'partial'
+        stale.setLastModified(old)
+        File recent = new File(cache.dir, 'abc456.tmp')
+        recent.text = 'in progress'
+        File lock = new File(cache.dir, 'abc123.lock')
+        lock.createNewFile()
+        lock.setLastModified(old)
+        cache.evict()
+
+        then: "stale files removed"
+        !stale.exists()
+        recent.exists()
+        !lock.exists()
+
+        and: "entry not affected"
+        cache.load('https://some.com/file.js', new File(dir, 'target.js'))
+        cache.dir.listFiles().findAll { it.name.endsWith('.tmp') } == [recent]
+    }
+}
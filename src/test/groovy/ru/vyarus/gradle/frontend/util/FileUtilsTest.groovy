@@ -3,6 +3,10 @@ package ru.vyarus.gradle.frontend.util
 import ru.vyarus.gradle.frontend.AbstractTest
 import ru.vyarus.gradle.frontend.core.util.FileUtils
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
 /**
  * @author Vyacheslav Rusakov
  * @since 12.06.2023
@@ -56,6 +60,25 @@ class FileUtilsTest extends AbstractTest {
         file.name == 'sample.2.html'
     }
 
+    def "Check concurrent file reservation"() {
+        setup: "create files"
+        file('sample.html') << ''
+        ExecutorService executor = Executors.newFixedThreadPool(5)
+
+        when: "reserving file names concurrently"
+        List<File> files = executor.invokeAll((1..10).collect {
+            { -> FileUtils.reserveNotExistingFile(testProjectDir, 'sample.html') } as Callable<File>
+        })*.get()
+
+        then: "all names unique and files created"
+        files.collect { it.name }.unique().size() == 10
+        files.every { it.exists() && it.length() == 0 }
+        !files.contains(file('sample.html'))
+
+        cleanup:
+        executor.shutdown()
+    }
+
     def "Check append before extension"() {
 
         expect:
@@ -0,0 +1,63 @@
+package ru.vyarus.gradle.frontend.util
+
+import ru.vyarus.gradle.frontend.core.util.Fingerprint
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.security.MessageDigest
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class FingerprintTest extends Specification {
+
+    @TempDir
+    File dir
+
+    def "Check digests computation"() {
+
+        setup:
+        File file = new File(dir, 'file.js')
+        // bigger than read buffer
+        file.text = 'sample content ' * 10000
+        Fingerprint fp = new Fingerprint(file, Fingerprint.MD5, Fingerprint.SHA_384)
+
+        expect: "digests correct"
+        fp.digest(Fingerprint.MD5) == MessageDigest.getInstance('MD5').digest(file.bytes)
+        fp.digest(Fingerprint.SHA_384) == MessageDigest.getInstance('SHA-384').digest(file.bytes)
+        fp.md5() == new BigInteger(1, MessageDigest.getInstance('MD5').digest(file.bytes)).toString(16)
+        fp.sri('SHA-384') == 'sha384-' + MessageDigest.getInstance('SHA-384').digest(file.bytes).encodeBase64()
+        fp.digest('SHA-512') == MessageDigest.getInstance('SHA-512').digest(file.bytes)
+    }
+
+    def "Check memoization and invalidation"() {
+
+        setup:
+        File file = new File(dir, 'file.js')
+        file.text = 'sample content'
+        Fingerprint fp = new Fingerprint(file, Fingerprint.MD5)
+        String md5 = fp.md5()
+
+        when: "file changed"
+        file.text = 'other content'
+
+        then: "detected"
+        fp.md5() != md5
+
+        when: "file changed with the same size and date"
+        md5 = fp.md5()
+        long modified = file.lastModified()
+        file.text = 'other CONTENT'
+        file.setLastModified(modified)
+
+        then: "not detected without invalidation"
+        fp.md5() == md5
+
+        when: "invalidated"
+        fp.invalidate()
+
+        then: "re-computed"
+        fp.md5() != md5
+    }
+}
@@ -75,6 +75,29 @@ class HtmlParserTest extends Specification {
         text.contains(unifyString(res.js[0].source))
     }
 
+    def "Check links position"() {
+
+        File index = new File(dir, "index.html")
+        index.text = "<!DOCTYPE html>\r\n<html>\r\n<head>\r\n    <link rel=\"stylesheet\"\r\n  href=\"1.css\">\r\n" +
+                "    <script src=\"1.js\"></script>\r\n</head>\r\n<body>\r\n<script src=\"1.js\"></script>\r\n" +
+                "</body>\r\n</html>"
+
+        when:
+        def res = HtmlParser.parse(index)
+        def text = HtmlParser.readHtml(index)
+        then: "exact declarations extracted (without line endings modification)"
+        res.content == text
+        res.css.size() == 1
+        res.js.size() == 2
+        res.css[0].source == '<link rel="stylesheet"\r\n  href="1.css">'
+        text.substring(res.css[0].start, res.css[0].end) == res.css[0].source
+        res.js[0].source == '<script src="1.js">'
+        res.js[1].source == '<script src="1.js">'
+        res.js[0].start == text.indexOf('<script')
+        res.js[1].start == text.lastIndexOf('<script')
+        text.substring(res.js[1].start, res.js[1].end) == res.js[1].source
+    }
+
     def "Check jsp support"() {
 
         File index = new File(dir, "index.jsp")
@@ -0,0 +1,138 @@
+package ru.vyarus.gradle.frontend.util
+
+import com.sun.net.httpserver.HttpServer
+import ru.vyarus.gradle.frontend.core.util.FileCache
+import ru.vyarus.gradle.frontend.core.util.HttpDownloader
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class HttpDownloaderTest extends Specification {
+
+    @TempDir
+    File dir
+
+    @AutoCleanup
+    HttpDownloader downloader = new HttpDownloader(2)
+
+    def "Check redirect detection"() {
+
+        expect:
+        downloader.followRedirects('https://unpkg.com/vue@2.7.14') == 'https://unpkg.com/vue@2.7.14/dist/vue.js'
+        downloader.followRedirects('https://unpkg.com/vue@2.7.14/dist/vue.js') == 'https://unpkg.com/vue@2.7.14/dist/vue.js'
+    }
+
+    def "Check redirect detection without body loading"() {
+
+        setup: "local server, rejecting HEAD requests for one path"
+        List<String> requests = Collections.synchronizedList([])
+        HttpServer server = HttpServer.create(new InetSocketAddress('localhost', 0), 0)
+        server.createContext('/') {
+            requests.add(it.requestMethod + ' ' + it.requestURI.path)
+            if (it.requestURI.path == '/nohead' && it.requestMethod == 'HEAD') {
+                it.sendResponseHeaders(405, -1)
+            } else if (it.requestURI.path in ['/lib', '/nohead']) {
+                it.responseHeaders.add('Location', '/lib/index.js')
+                it.sendResponseHeaders(302, -1)
+            } else {
+                byte[] body = ('x' * 100_000).bytes
+                it.sendResponseHeaders(200, it.requestMethod == 'HEAD' ? -1 : body.length)
+                if (it.requestMethod != 'HEAD') {
+                    it.responseBody.write(body)
+                }
+            }
+            it.close()
+        }
+        server.start()
+        String base = "http://localhost:${server.address.port}"
+
+        expect: "redirects resolved with HEAD requests"
+        downloader.followRedirects("$base/lib") == "$base/lib/index.js"
+        requests == ['HEAD /lib', 'HEAD /lib/index.js']
+
+        when: "HEAD request rejected"
+        requests.clear()
+        String res = downloader.followRedirects("$base/nohead")
+
+        then: "GET used"
+        res == "$base/lib/index.js"
+        requests == ['HEAD /nohead', 'GET /nohead', 'HEAD /lib/index.js']
+
+        cleanup:
+        server.stop(0)
+    }
+
+    def "Check download with redirect"() {
+
+        when: "loading file by url with redirect"
+        File target = new File(dir, 'vue.js')
+        downloader.download('https://unpkg.com/vue@2.7.14', target, '')
+
+        then: "loaded"
+        target.length() > 0
+        target.text.contains('Vue.js v2.7.14')
+    }
+
+    def "Check redirects not cached"() {
+
+        setup:
+        HttpDownloader cached = new HttpDownloader(2, new FileCache(new File(dir, 'cache')))
+
+        when: "loading file by url with redirect"
+        cached.download('https://unpkg.com/vue@2.7.14', new File(dir, 'vue.js'), '')
+
+        then: "not cached"
+        !cached.isCached('https://unpkg.com/vue@2.7.14')
+
+        when: "loading file by direct url"
+        cached.download('https://unpkg.com/vue@2.7.14/dist/vue.js', new File(dir, 'vue2.js'), '')
+
+        then: "cached"
+        cached.isCached('https://unpkg.com/vue@2.7.14/dist/vue.js')
+
+        cleanup:
+        cached.close()
+    }
+
+    def "Check concurrent downloads"() {
+
+        when: "loading multiple files from the same host"
+        List<File> files = (1..5).collect { new File(dir, "vue${it}.js") }
+        CompletableFuture.allOf(files.collect {
+            downloader.downloadAsync('https://unpkg.com/vue@2.7.14/dist/vue.js', it, '')
+        } as CompletableFuture[]).join()
+
+        then: "all loaded"
+        files.every { it.length() > 0 }
+        files.collect { it.length() }.unique().size() == 1
+    }
+
+    def "Check download error"() {
+
+        when: "loading not existing file"
+        downloader.downloadAsync('https://unpkg.com/vue@2.7.14/dist/not-exists.js', new File(dir, 'err.js'), '')
+                .join()
+
+        then: "error"
+        def ex = thrown(CompletionException)
+        ex.cause instanceof IOException
+        ex.cause.message.startsWith('Server returned HTTP response code: 404')
+    }
+
+    def "Check incorrect concurrency"() {
+
+        when: "creating downloader with zero concurrency"
+        new HttpDownloader(0)
+
+        then: "error"
+        def ex = thrown(IllegalStateException)
+        ex.message == 'Download concurrency must be a positive number: 0'
+    }
+}
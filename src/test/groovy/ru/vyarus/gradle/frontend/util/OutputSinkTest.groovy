@@ -0,0 +1,97 @@
+package ru.vyarus.gradle.frontend.util
+
+import ru.vyarus.gradle.frontend.core.util.Fingerprint
+import ru.vyarus.gradle.frontend.core.util.OutputSink
+import ru.vyarus.gradle.frontend.core.util.compress.Compression
+import ru.vyarus.gradle.frontend.core.util.compress.CompressionPolicy
+import ru.vyarus.gradle.frontend.core.util.compress.Precompression
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.security.MessageDigest
+import java.util.zip.GZIPInputStream
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class OutputSinkTest extends Specification {
+
+    @TempDir
+    File dir
+
+    def "Check fused write"() {
+
+        setup:
+        File file = new File(dir, 'file.min.js')
+        // non-ascii content and bigger than writer buffer
+        String content = 'var sample = "значение"; ' * 1000
+        Precompression precompression = new Precompression([Compression.GZIP.create(9)])
+
+        when: "writing file"
+        Map<String, byte[]> digests = new OutputSink([Fingerprint.MD5, Fingerprint.SHA_384], precompression)
+                .write(file, content)
+
+        then: "file written"
+        file.getText('UTF-8') == content
+
+        and: "digests computed"
+        digests[Fingerprint.MD5] == MessageDigest.getInstance('MD5').digest(file.bytes)
+        digests[Fingerprint.SHA_384] == MessageDigest.getInstance('SHA-384').digest(file.bytes)
+
+        and: "gzip generated"
+        File gz = new File(dir, 'file.min.js.gz')
+        new GZIPInputStream(new FileInputStream(gz)).withCloseable { it.bytes } == file.bytes
+
+        when: "precompression stage"
+        long modified = gz.lastModified()
+        Map<Compression, File> res = precompression.compress(file, null)
+
+        then: "prepared file used"
+        res[Compression.GZIP] == gz
+        gz.lastModified() == modified
+
+        when: "digests attached to fingerprint"
+        Fingerprint fp = new Fingerprint(file, Fingerprint.MD5)
+        fp.attach(digests)
+
+        then: "file not read"
+        fp.digest(Fingerprint.SHA_384) == digests[Fingerprint.SHA_384]
+        fp.md5() == new BigInteger(1, digests[Fingerprint.MD5]).toString(16)
+    }
+
+    def "Check compression policy applied"() {
+
+        setup:
+        File file = new File(dir, 'file.min.js')
+        Precompression precompression = new Precompression([Compression.GZIP.create(9)],
+                new CompressionPolicy([], 1000, 0))
+
+        when: "writing small file"
+        new OutputSink([], precompression).write(file, 'var sample = 1;')
+
+        then: "not compressed"
+        file.text == 'var sample = 1;'
+        !new File(dir, 'file.min.js.gz').exists()
+
+        when: "writing large file"
+        new OutputSink([], precompression).write(file, 'var sample = 1; ' * 100)
+
+        then: "compressed"
+        new File(dir, 'file.min.js.gz').exists()
+    }
+
+    def "Check plain write"() {
+
+        setup:
+        File file = new File(dir, 'file.min.css')
+
+        when: "writing without digests and compression"
+        Map<String, byte[]> digests = OutputSink.PLAIN.write(file, '.sample{color:red}')
+
+        then: "only file written"
+        file.text == '.sample{color:red}'
+        digests.isEmpty()
+        !new File(dir, 'file.min.css.gz').exists()
+    }
+}
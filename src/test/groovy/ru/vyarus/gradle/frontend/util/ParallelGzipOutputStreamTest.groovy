@@ -0,0 +1,70 @@
+package ru.vyarus.gradle.frontend.util
+
+import ru.vyarus.gradle.frontend.core.util.compress.ParallelGzipOutputStream
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class ParallelGzipOutputStreamTest extends Specification {
+
+    static final int BLOCK = ParallelGzipOutputStream.BLOCK_SIZE
+
+    def "Check parallel gzip round trip"() {
+
+        setup: "prepare data"
+        byte[] data = sample(size)
+        ForkJoinPool pool = new ForkJoinPool(4)
+
+        when: "compressing by blocks"
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        new ParallelGzipOutputStream(out, 9, pool).withCloseable { stream ->
+            // write by uneven chunks
+            int pos = 0
+            while (pos < data.length) {
+                int len = Math.min(data.length - pos, 10000)
+                stream.write(data, pos, len)
+                pos += len
+            }
+        }
+
+        then: "standard gzip"
+        new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).withCloseable { it.bytes } == data
+
+        cleanup:
+        pool.shutdown()
+
+        where:
+        size << [0, 1, BLOCK - 1, BLOCK, BLOCK + 1, BLOCK * 10 + 17]
+    }
+
+    def "Check compression ratio preserved"() {
+
+        setup: "prepare data"
+        byte[] data = sample(BLOCK * 10)
+
+        when: "compressing in parallel and sequentially (default level)"
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream()
+        new ParallelGzipOutputStream(parallel, 6).withCloseable { it.write(data) }
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream()
+        new GZIPOutputStream(sequential).withCloseable { it.write(data) }
+
+        then: "size almost the same (previous block used as dictionary)"
+        parallel.size() < sequential.size() * 1.01
+    }
+
+    private static byte[] sample(int size) {
+        Random random = new Random(1)
+        List<String> words = ['function', 'return', 'var', 'this', 'value', 'length', '{', '}', ';', '\n']
+        StringBuilder res = new StringBuilder()
+        while (res.length() < size) {
+            res.append(words[random.nextInt(words.size())]).append(random.nextInt(100)).append(' ')
+        }
+        return Arrays.copyOf(res.toString().bytes, size)
+    }
+}
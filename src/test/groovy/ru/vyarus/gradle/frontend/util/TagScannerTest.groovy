@@ -0,0 +1,77 @@
+package ru.vyarus.gradle.frontend.util
+
+import ru.vyarus.gradle.frontend.core.util.HtmlParser
+import ru.vyarus.gradle.frontend.core.util.TagScanner
+import spock.lang.Specification
+import spock.lang.TempDir
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class TagScannerTest extends Specification {
+
+    @TempDir File dir
+
+    def "Check resource tags detection"() {
+
+        String content = """<%@ page language="java" contentType="text/html; charset=US-ASCII"%>
+<!DOCTYPE html>
+<html>
+<head>
+    <link rel="icon" href="favicon.png" sizes="16x16" type="image/png">
+    <link REL=Stylesheet href=1.css />
+    <!-- <script src="commented.js"></script> -->
+    <script>var s = '<script src="inline.js"></' + 'script>';</script>
+    <script>var t = '</scripts><script src="inline2.js">';</script>
+    <script async src='1.js' defer></script>
+</head>
+<body>
+<link rel="stylesheet" href="\${ctx}/2.css?a=1&amp;b=2">
+<strong>Current time</strong>: <%=new Date() %> a < b
+<script src="2.js" src="3.js"></script>
+</body>
+</html>
+"""
+
+        when:
+        def res = TagScanner.scan(content)
+        then:
+        res.document == null
+        res.css.collect { it.element.attr('href') } == ['1.css', '${ctx}/2.css?a=1&b=2']
+        res.js.collect { it.element.attr('src') } == ['1.js', '2.js']
+        res.css[0].source == '<link REL=Stylesheet href=1.css />'
+        res.js[0].source == "<script async src='1.js' defer>"
+        res.js[0].element.toString() == '<script async src="1.js" defer></script>'
+        [res.css, res.js].flatten().every { content.substring(it.start, it.end) == it.source }
+    }
+
+    def "Check the same result as html parser"() {
+
+        File index = new File(dir, "index.html")
+        index << """<!DOCTYPE html>
+<html>
+<head>       
+    <link rel="icon" src="my.ico">
+    <link rel="stylesheet" 
+            href="1.css">
+    <script   src="1.js"></script>     
+</head>
+<body>
+<link rel="stylesheet" href="2.css">
+<script src="2.js"></script>
+</body>
+</html>
+"""
+
+        when:
+        def parsed = HtmlParser.parse(index)
+        def scanned = HtmlParser.scan(index)
+        then:
+        scanned.content == parsed.content
+        scanned.css.collect { [it.source, it.start, it.end, it.element.toString()] } ==
+                parsed.css.collect { [it.source, it.start, it.end, it.element.toString()] }
+        scanned.js.collect { [it.source, it.start, it.end, it.element.toString()] } ==
+                parsed.js.collect { [it.source, it.start, it.end, it.element.toString()] }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.vyarus.gradle.frontend.util
+
+import ru.vyarus.gradle.frontend.core.util.compress.ZopfliDeflater
+import ru.vyarus.gradle.frontend.core.util.compress.ZopfliPrecompressor
+import spock.lang.Specification
+
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+import java.util.zip.Inflater
+
+/**
+ * @author Vyacheslav Rusakov
+ * @since 17.10.2026
+ */
+class ZopfliDeflaterTest extends Specification {
+
+    def "Check deflate round trip"() {
+
+        expect: "data restored"
+        inflate(ZopfliDeflater.deflate(data, 5), data.length) == data
+
+        where:
+        data << [
+                new byte[0],
+                'a'.bytes,
+                ('abc' * 1000).bytes,
+                (0..5000).collect { (byte) (it * 31 % 251) } as byte[],
+                new Random(5).with { rnd -> (0..20000).collect { (byte) rnd.nextInt(256) } as byte[] },
+                getClass().getResourceAsStream('/cases/cssManualMin/materialdesignicons.css').bytes
+        ]
+    }
+
+    def "Check compression better than maximum deflate level"() {
+
+        setup: "prepare data"
+        byte[] data = getClass().getResourceAsStream('/cases/cssManualMin/materialdesignicons.css').bytes
+        Deflater deflater = new Deflater(9, true)
+        deflater.setInput(data)
+        deflater.finish()
+        byte[] buf = new byte[data.length]
+        int deflated = deflater.deflate(buf)
+        deflater.end()
+
+        expect: "smaller"
+        ZopfliDeflater.deflate(data, 5).length < deflated
+    }
+
+    def "Check level 9 comparison"() {
+
+        setup: "prepare data"
+        File target = File.createTempFile('zopfli', '.gz')
+        byte[] data = getClass().getResourceAsStream('/cases/cssManualMin/materialdesignicons.css').bytes
+        Deflater deflater = new Deflater(9, true)
+        deflater.setInput(data)
+        deflater.finish()
+        // deflate stream plus gzip header and trailer
+        int level9 = deflater.deflate(new byte[data.length]) + 18
+        deflater.end()
+        ZopfliPrecompressor compressor = new ZopfliPrecompressor(5)
+
+        when: "compressing file"
+        compressor.wrap(new FileOutputStream(target), target).withCloseable { it.write(data) }
+
+        then: "compared with actual level 9 size"
+        new GZIPInputStream(new FileInputStream(target)).withCloseable { it.bytes } == data
+        long diff = level9 - target.length()
+        diff > 0
+        compressor.compare(null, target).startsWith("zopfli: $diff bytes")
+
+        and: "stats released"
+        compressor.compare(null, target) == null
+
+        cleanup:
+        target.delete()
+    }
+
+    def "Check large file fallback"() {
+
+        setup: "prepare large data"
+        File target = File.createTempFile('zopfli', '.gz')
+        byte[] data = new Random(5).with { rnd ->
+            (0..ZopfliPrecompressor.MAX_SIZE / 4).collect { "v${rnd.nextInt(1000)};" }.join('').bytes
+        }
+        ZopfliPrecompressor compressor = new ZopfliPrecompressor(1)
+
+        when: "compressing file larger than max size"
+        compressor.wrap(new FileOutputStream(target), target).withCloseable { it.write(data) }
+
+        then: "compressed with usual gzip"
+        new GZIPInputStream(new FileInputStream(target)).withCloseable { it.bytes } == data
+        compressor.compare(null, target).startsWith('zopfli not used')
+
+        cleanup:
+        target.delete()
+    }
+
+    private static byte[] inflate(byte[] data, int size) {
+        Inflater inflater = new Inflater(true)
+        // nowrap mode requires extra dummy byte
+        byte[] input = Arrays.copyOf(data, data.length + 1)
+        inflater.setInput(input)
+        byte[] res = new byte[size]
+        int len = size == 0 ? 0 : inflater.inflate(res)
+        inflater.end()
+        assert len == size
+        return res
+    }
+}
@@ -3,6 +3,9 @@ package ru.vyarus.gradle.frontend.util.minify
 import ru.vyarus.gradle.frontend.AbstractTest
 import ru.vyarus.gradle.frontend.core.util.SourceMapUtils
 import ru.vyarus.gradle.frontend.core.util.minify.CssMinifier
+import ru.vyarus.gradle.frontend.core.util.minify.CssoPool
+
+import java.util.concurrent.CompletableFuture
 
 /**
  * @author Vyacheslav Rusakov
@@ -77,4 +80,27 @@ class CssMinifyTest extends AbstractTest {
         res.minified.length() < size
         res.sourceMap == null
     }
+
+    def "Check concurrent minification with pooled contexts"() {
+
+        setup:
+        List<File> files = ['buefy', 'bootstrap', 'materialdesignicons'].collect {
+            fileFromClasspath("${it}.css", "/min/${it}.css")
+        }
+        Map<String, Long> sizes = files.collectEntries { [(it.name): it.length()] }
+        CssoPool pool = new CssoPool(2)
+
+        when: "minifying in parallel with re-used contexts"
+        def res = files.collect { file ->
+            CompletableFuture.supplyAsync { new CssMinifier(pool).minify(file, true) }
+        }.collect { it.join() }
+
+        then: "all minified"
+        res.every { it.minified.length() < sizes[it.minified.name.replace('.min', '')] }
+        res.every { it.sourceMap.exists() }
+        files[0].parentFile.list().findAll { it.endsWith('.js') }.isEmpty()
+
+        cleanup:
+        pool.close()
+    }
 }
@@ -4,6 +4,8 @@ import ru.vyarus.gradle.frontend.AbstractTest
 import ru.vyarus.gradle.frontend.core.util.SourceMapUtils
 import ru.vyarus.gradle.frontend.core.util.minify.JsMinifier
 
+import java.util.concurrent.CompletableFuture
+
 /**
  * @author Vyacheslav Rusakov
  * @since 16.03.2023
@@ -86,4 +88,20 @@ class JsMinifyTest extends AbstractTest {
         res.minified.length() < size
         res.sourceMap == null
     }
+
+    def "Check concurrent minification with shared externs"() {
+
+        setup:
+        List<File> files = ['buefy.js', 'bootstrap.bundle.js'].collect { fileFromClasspath(it, "/min/$it") }
+        Map<String, Long> sizes = files.collectEntries { [(it.name): it.length()] }
+
+        when: "minifying in parallel"
+        def res = files.collect { file ->
+            CompletableFuture.supplyAsync { new JsMinifier().minify(file, true) }
+        }.collect { it.join() }
+
+        then: "all minified"
+        res.every { it.minified.length() < sizes[it.minified.name.replace('.min', '')] }
+        res.every { it.sourceMap.exists() }
+    }
 }